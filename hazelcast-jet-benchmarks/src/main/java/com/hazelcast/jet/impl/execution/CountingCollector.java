@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.util.ProgressState;
+
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+
+/**
+ * Collector which accepts every item and only counts them. The count
+ * keeps the JIT from eliminating the work done by the benchmarked code.
+ */
+class CountingCollector implements OutboundCollector {
+
+    long count;
+
+    @Override
+    public ProgressState offer(Object item) {
+        count++;
+        return DONE;
+    }
+}
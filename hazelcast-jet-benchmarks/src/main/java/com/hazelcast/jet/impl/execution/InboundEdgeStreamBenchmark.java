@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
+import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
+import com.hazelcast.jet.impl.util.ProgressState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConcurrentInboundEdgeStream#drainTo(java.util.Collection)}:
+ * the items are spread over the queues of the conveyor and then drained
+ * into a collection, the way a {@link ProcessorTasklet} fills its inbox.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundEdgeStreamBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final Object SUBMITTER_GONE = new Object();
+
+    @Param({"1", "4", "16"})
+    public int queueCount;
+
+    private final Object item = "item";
+    private final List<Object> dest = new ArrayList<>(BATCH_SIZE);
+    private OneToOneConcurrentArrayQueue<Object>[] queues;
+    private ConcurrentInboundEdgeStream stream;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        queues = new OneToOneConcurrentArrayQueue[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues[i] = new OneToOneConcurrentArrayQueue<>(BATCH_SIZE);
+        }
+        ConcurrentConveyor<Object> conveyor = ConcurrentConveyor.concurrentConveyor(SUBMITTER_GONE, queues);
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, false, -1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ProgressState fillAndDrain() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            queues[i % queueCount].offer(item);
+        }
+        dest.clear();
+        return stream.drainTo(dest);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.test.TestOutbox.MockSerializationService;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.hazelcast.jet.config.ProcessingGuarantee.NONE;
+import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures {@link ProcessorTasklet#call()} with a trivial processor, which
+ * shows the per-item overhead of the tasklet itself: filling the inbox,
+ * invoking the processor and flushing the outbox. Each call moves one
+ * batch of items from an endless input stream to a counting collector.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorTaskletBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * {@code sink} drops all the items, {@code passThrough} emits each of
+     * them to the outbox.
+     */
+    @Param({"sink", "passThrough"})
+    public String processorKind;
+
+    private ProcessorTasklet tasklet;
+
+    @Setup
+    public void setup() {
+        Processor processor = "sink".equals(processorKind) ? new SinkP() : new PassThroughP();
+        ProcCtx context = new ProcCtx(null, new MockSerializationService(), Logger.getLogger(getClass()),
+                "benchmark", 0, NONE);
+        SnapshotContext ssContext = new SnapshotContext(context.logger(), 0, 0, -1, NONE);
+        tasklet = new ProcessorTasklet(context, processor, singletonList(new EndlessInboundStream()),
+                singletonList(new OutboundEdgeStream(0, new CountingCollector())), ssContext,
+                new CountingCollector(), -1);
+        tasklet.setBatchSizeBounds(BATCH_SIZE, BATCH_SIZE);
+        tasklet.init();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ProgressState call() {
+        return tasklet.call();
+    }
+
+    private static final class SinkP extends AbstractProcessor {
+        @Override
+        protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+            return true;
+        }
+    }
+
+    private static final class PassThroughP extends AbstractProcessor {
+        @Override
+        protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+            return tryEmit(item);
+        }
+    }
+
+    /**
+     * Inbound stream which never completes and hands out a full batch on
+     * every drain.
+     */
+    private static final class EndlessInboundStream implements InboundEdgeStream {
+
+        private final Object item = "item";
+
+        @Override
+        public int ordinal() {
+            return 0;
+        }
+
+        @Override
+        public int priority() {
+            return 0;
+        }
+
+        @Override
+        public ProgressState drainTo(Consumer<Object> dest) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                dest.accept(item);
+            }
+            return MADE_PROGRESS;
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.jet.impl.Networking.STREAM_PACKET_HEADER_SIZE;
+import static com.hazelcast.jet.impl.execution.SenderTasklet.FLAG_PARTITION_IDS;
+import static com.hazelcast.jet.impl.util.Util.writeVarInt;
+
+/**
+ * Measures the serialization round-trip of a distributed edge: a batch of
+ * items is written into a packet the same way {@link SenderTasklet} does it
+ * and the packet is then handed to a {@link ReceiverTasklet}, which
+ * deserializes the items and passes them to its collector.
+ * <p>
+ * The sender side is replicated here because a {@code SenderTasklet}
+ * can't be created without a connection to a remote member.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamPacketBenchmark {
+
+    private static final int ITEMS_PER_PACKET = 256;
+    private static final int RWIN_MULTIPLIER = 3;
+    private static final int FLOW_CONTROL_PERIOD_MS = 100;
+
+    @Param({"integer", "string"})
+    public String itemKind;
+
+    @Param({"false", "true"})
+    public boolean partitioned;
+
+    private final CountingCollector collector = new CountingCollector();
+    private InternalSerializationService serService;
+    private ReceiverTasklet receiver;
+    private final byte[] header = new byte[STREAM_PACKET_HEADER_SIZE];
+    private Object[] items;
+
+    @Setup
+    public void setup() {
+        serService = new DefaultSerializationServiceBuilder().build();
+        receiver = new ReceiverTasklet(collector, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS, serService);
+        items = new Object[ITEMS_PER_PACKET];
+        for (int i = 0; i < ITEMS_PER_PACKET; i++) {
+            items[i] = "integer".equals(itemKind) ? (Object) i : "item-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serService.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS_PER_PACKET)
+    public ProgressState roundTrip() throws IOException {
+        BufferObjectDataOutput out = serService.createObjectDataOutput();
+        out.write(header);
+        out.writeByte(partitioned ? FLAG_PARTITION_IDS : 0);
+        out.writeInt(items.length);
+        for (Object item : items) {
+            out.writeObject(item);
+        }
+        if (partitioned) {
+            // all items in one partition run
+            writeVarInt(out, 1);
+            writeVarInt(out, items.length);
+        }
+        receiver.receiveStreamPacket(out.toByteArray());
+        return receiver.call();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WatermarkCoalescer#observeWm}. The queues receive
+ * watermarks in turns and each round advances the watermark, so every
+ * round forwards one coalesced watermark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WatermarkCoalescerBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int queueCount;
+
+    /**
+     * -1 disables watermark retention, which also avoids reading the
+     * system time.
+     */
+    @Param({"-1", "1000"})
+    public int maxWatermarkRetainMillis;
+
+    private WatermarkCoalescer coalescer;
+    private int queueIndex;
+    private long wm;
+
+    @Setup
+    public void setup() {
+        coalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, queueCount);
+    }
+
+    @Benchmark
+    public long observeWm() {
+        if (queueIndex == queueCount) {
+            queueIndex = 0;
+        }
+        if (queueIndex == 0) {
+            wm++;
+        }
+        return coalescer.observeWm(coalescer.getTime(), queueIndex++, wm);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Defines which threads run the non-cooperative (blocking) tasklets, such
+ * as those of file writers or JDBC-style sinks.
+ *
+ * @see InstanceConfig#setBlockingTaskletMode(BlockingTaskletMode)
+ */
+public enum BlockingTaskletMode {
+
+    /**
+     * Each blocking tasklet runs on its own platform thread for the whole
+     * time its job runs. This is the default mode. It isolates the tasklets
+     * best, but a job with many blocking processors creates as many threads.
+     */
+    THREAD_PER_TASKLET,
+
+    /**
+     * Each blocking tasklet runs on its own virtual thread, which releases
+     * its carrier thread whenever the tasklet blocks or idles. Virtual threads
+     * are available on Java 21 and later; on older JVMs Jet falls back to
+     * {@link #POOLED}.
+     */
+    VIRTUAL_THREADS,
+
+    /**
+     * The blocking tasklets share a pool of {@link
+     * InstanceConfig#setBlockingThreadPoolSize(int) blockingThreadPoolSize}
+     * threads. A tasklet keeps its thread while it makes progress, up to a
+     * short time slice, and gives it up while it's idle. A tasklet blocking
+     * inside its processor still holds the thread while it's blocked, so the
+     * pool should be large enough for the expected number of simultaneously
+     * blocked processors. With the {@link IdleStrategyType#PARKING PARKING}
+     * idle strategy an idle tasklet is run again as soon as data is handed
+     * to it, not only when its backoff delay elapses.
+     */
+    POOLED
+}
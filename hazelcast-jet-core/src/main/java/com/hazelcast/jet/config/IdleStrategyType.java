@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Defines how a Jet worker thread behaves when none of the tasklets
+ * assigned to it can make progress.
+ *
+ * @see InstanceConfig#setIdleStrategy(IdleStrategyType)
+ */
+public enum IdleStrategyType {
+
+    /**
+     * The worker first spins, then yields and then parks for exponentially
+     * increasing periods up to {@link InstanceConfig#setMaxIdleMicros(long)
+     * maxIdleMicros}. It only notices new data when it wakes up on its own.
+     * <p>
+     * This is the default strategy. It gives good latency with a short
+     * maximum park time, but it keeps burning some CPU on an idle cluster.
+     */
+    BACKOFF,
+
+    /**
+     * The worker backs off in the same way as with {@link #BACKOFF}, but the
+     * producers feeding its tasklets wake it up as soon as they hand over
+     * data: an upstream tasklet offering an item to a local conveyor, a
+     * downstream tasklet freeing space in a full conveyor, a network packet
+     * arriving for a {@code ReceiverTasklet} or a flow-control packet
+     * granting a {@code SenderTasklet} more credit.
+     * <p>
+     * Since the wake-up doesn't depend on the park timeout, the {@link
+     * InstanceConfig#setMaxIdleMicros(long) maxIdleMicros} can be raised to
+     * tens of milliseconds, letting an idle member use close to no CPU. Note
+     * that source processors, which have no upstream, are still polled only
+     * at the rate allowed by the park timeout.
+     */
+    PARKING
+}
@@ -17,8 +17,10 @@
 package com.hazelcast.jet.config;
 
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.jet.impl.util.CpuAffinity;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import static com.hazelcast.spi.partition.IPartition.MAX_BACKUP_COUNT;
 
@@ -37,11 +39,25 @@ public class InstanceConfig {
      */
     public static final int DEFAULT_BACKUP_COUNT = MapConfig.DEFAULT_BACKUP_COUNT;
 
+    /**
+     * The default value of the {@link #setMaxIdleMicros(long) maximum idle time}.
+     */
+    public static final long DEFAULT_MAX_IDLE_MICROS = 1000;
+
 
     private int cooperativeThreadCount = Runtime.getRuntime().availableProcessors();
     private int flowControlPeriodMs = DEFAULT_FLOW_CONTROL_PERIOD_MS;
+    private int flowControlAckThresholdBytes;
     private int backupCount = DEFAULT_BACKUP_COUNT;
     private String tempDir;
+    private IdleStrategyType idleStrategy = IdleStrategyType.BACKOFF;
+    private long maxIdleMicros = DEFAULT_MAX_IDLE_MICROS;
+    private String cpuAffinity;
+    private BlockingTaskletMode blockingTaskletMode = BlockingTaskletMode.THREAD_PER_TASKLET;
+    private int blockingThreadPoolSize = Runtime.getRuntime().availableProcessors();
+    private int dataPlaneConnectionCount;
+    private int sharedMemoryBufferSize;
+    private int spillThreshold;
 
     /**
      * Sets the number of threads each cluster member will use to execute Jet
@@ -96,6 +112,37 @@ public class InstanceConfig {
         return flowControlPeriodMs;
     }
 
+    /**
+     * Sets the amount of data (in bytes) a receiver processes before it sends
+     * a flow-control packet to the sender without waiting for the next {@link
+     * #setFlowControlPeriodMs(int) flow-control period}. A sender that has
+     * used up its allowance then doesn't stall until the next period, which
+     * lowers the latency of streaming jobs at the cost of more flow-control
+     * packets. The packets requested at about the same time are coalesced:
+     * one packet is sent to each member.
+     * <p>
+     * The receive window still adapts only once per flow-control period. The
+     * amount is measured in the estimated heap occupancy of the received
+     * items and values below 64 KB have the effect of 64 KB. The default is
+     * 0, meaning flow-control packets are sent only periodically.
+     */
+    public InstanceConfig setFlowControlAckThresholdBytes(int flowControlAckThresholdBytes) {
+        if (flowControlAckThresholdBytes < 0) {
+            throw new IllegalArgumentException("flowControlAckThresholdBytes must not be negative");
+        }
+        this.flowControlAckThresholdBytes = flowControlAckThresholdBytes;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setFlowControlAckThresholdBytes(int) amount of
+     * processed data} after which a receiver sends a flow-control packet
+     * early.
+     */
+    public int getFlowControlAckThresholdBytes() {
+        return flowControlAckThresholdBytes;
+    }
+
     /**
      * Sets the number of synchronous backups for storing job metadata and
      * snapshots. Maximum allowed value is 6, default value is 1.
@@ -122,4 +169,221 @@ public class InstanceConfig {
     public int getBackupCount() {
         return backupCount;
     }
+
+    /**
+     * Sets the strategy a Jet worker thread uses when none of its tasklets
+     * can make progress. The default is {@link IdleStrategyType#BACKOFF}.
+     * The strategy applies to all the jobs running on this member because
+     * they share the same worker threads.
+     */
+    public InstanceConfig setIdleStrategy(@Nonnull IdleStrategyType idleStrategy) {
+        this.idleStrategy = idleStrategy;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setIdleStrategy(IdleStrategyType) idle strategy}.
+     */
+    @Nonnull
+    public IdleStrategyType getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    /**
+     * Sets the maximum time, in microseconds, an idle worker thread parks
+     * before it checks its tasklets again. The default value is {@value
+     * #DEFAULT_MAX_IDLE_MICROS}. With the {@link IdleStrategyType#PARKING}
+     * strategy the value can be much higher because the worker is woken up
+     * as soon as its tasklets receive data.
+     */
+    public InstanceConfig setMaxIdleMicros(long maxIdleMicros) {
+        if (maxIdleMicros < 1) {
+            throw new IllegalArgumentException("maxIdleMicros must be positive");
+        }
+        this.maxIdleMicros = maxIdleMicros;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setMaxIdleMicros(long) maximum idle time} in microseconds.
+     */
+    public long getMaxIdleMicros() {
+        return maxIdleMicros;
+    }
+
+    /**
+     * Sets the CPUs the cooperative worker threads are pinned to, in the
+     * format of the Linux CPU lists, for example {@code "0-7,16-23"}. The
+     * threads are assigned to the listed CPUs in turn and Jet keeps the
+     * tasklets of connected local processors on the same NUMA node. By
+     * default the threads aren't pinned.
+     * <p>
+     * Pinning uses the {@code taskset} utility and is only supported on
+     * Linux. Where it isn't available, a warning is logged and the threads
+     * run unpinned.
+     *
+     * @param cpuAffinity the CPU list or {@code null} to not pin the threads
+     * @throws IllegalArgumentException if the CPU list is malformed
+     */
+    public InstanceConfig setCpuAffinity(@Nullable String cpuAffinity) {
+        if (cpuAffinity != null) {
+            CpuAffinity.parseCpuList(cpuAffinity);
+        }
+        this.cpuAffinity = cpuAffinity;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setCpuAffinity(String) CPU list} the cooperative
+     * worker threads are pinned to or {@code null}, if they aren't pinned.
+     */
+    @Nullable
+    public String getCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    /**
+     * Sets which threads run the non-cooperative (blocking) tasklets. The
+     * default is {@link BlockingTaskletMode#THREAD_PER_TASKLET}.
+     */
+    public InstanceConfig setBlockingTaskletMode(@Nonnull BlockingTaskletMode blockingTaskletMode) {
+        this.blockingTaskletMode = blockingTaskletMode;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setBlockingTaskletMode(BlockingTaskletMode) blocking
+     * tasklet mode}.
+     */
+    @Nonnull
+    public BlockingTaskletMode getBlockingTaskletMode() {
+        return blockingTaskletMode;
+    }
+
+    /**
+     * Sets the number of threads running the blocking tasklets in the {@link
+     * BlockingTaskletMode#POOLED} mode. Defaults to the number of available
+     * processors.
+     * <p>
+     * The pool doesn't grow: a processor that blocks, for example waiting for
+     * a remote system, holds its pool thread while it's blocked. If as many
+     * processors block as there are threads, the other blocking tasklets of
+     * all the jobs stop until one of them unblocks. Set the size to at least
+     * the number of blocking processors expected to block at the same time,
+     * or use {@link BlockingTaskletMode#THREAD_PER_TASKLET} for them.
+     */
+    public InstanceConfig setBlockingThreadPoolSize(int blockingThreadPoolSize) {
+        if (blockingThreadPoolSize < 1) {
+            throw new IllegalArgumentException("blockingThreadPoolSize must be positive");
+        }
+        this.blockingThreadPoolSize = blockingThreadPoolSize;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setBlockingThreadPoolSize(int) number of threads}
+     * running the blocking tasklets in the {@link BlockingTaskletMode#POOLED}
+     * mode.
+     */
+    public int getBlockingThreadPoolSize() {
+        return blockingThreadPoolSize;
+    }
+
+    /**
+     * Sets the number of dedicated TCP connections this member opens to each
+     * other member for the data of distributed edges. With a positive value,
+     * the edge data no longer shares the Hazelcast member connection with
+     * heartbeats, partition migrations and map operations. The edges are
+     * spread over the connections, the data of one edge always goes through
+     * the same connection. Flow-control packets still use the member
+     * connection.
+     * <p>
+     * The members listen for the connections on an ephemeral port of their
+     * bind address. A member sends over the member connection to the members
+     * whose port it doesn't know, for example those that have the option
+     * disabled, and to those it fails to connect to. The default is 0,
+     * meaning the option is disabled.
+     * <p>
+     * The connections don't go through the Hazelcast connection manager. The
+     * members authenticate each other with an HMAC handshake keyed with the
+     * group name and password, so they are only as well protected as the
+     * password. The data isn't encrypted: the option is ignored with a
+     * warning if the member connections use SSL or symmetric encryption.
+     */
+    public InstanceConfig setDataPlaneConnectionCount(int dataPlaneConnectionCount) {
+        if (dataPlaneConnectionCount < 0) {
+            throw new IllegalArgumentException("dataPlaneConnectionCount must not be negative");
+        }
+        this.dataPlaneConnectionCount = dataPlaneConnectionCount;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setDataPlaneConnectionCount(int) number of dedicated
+     * connections} to each other member for the data of distributed edges.
+     */
+    public int getDataPlaneConnectionCount() {
+        return dataPlaneConnectionCount;
+    }
+
+    /**
+     * Sets the size (in bytes) of the memory-mapped buffer through which a
+     * {@link #setDataPlaneConnectionCount(int) data plane connection} carries
+     * the data to another member on the same host, instead of the TCP
+     * loopback. A positive value enables this, the default is 0. It has no
+     * effect when the data plane connections are disabled.
+     * <p>
+     * Two members are considered to be on the same host if their Linux
+     * kernels have the same boot ID, read from {@code
+     * /proc/sys/kernel/random/boot_id}. On other systems the option has no
+     * effect. The connecting member creates the buffer file in its {@link
+     * #setTempDir(String) temp directory} and the other member opens it by
+     * name in its own one, so it must be the same directory for them, for
+     * example {@code /dev/shm} mounted into all the containers on the host.
+     * Otherwise the data goes through TCP.
+     */
+    public InstanceConfig setSharedMemoryBufferSize(int sharedMemoryBufferSize) {
+        if (sharedMemoryBufferSize < 0) {
+            throw new IllegalArgumentException("sharedMemoryBufferSize must not be negative");
+        }
+        this.sharedMemoryBufferSize = sharedMemoryBufferSize;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setSharedMemoryBufferSize(int) size of the
+     * memory-mapped buffer} of a data plane connection to a member on the
+     * same host.
+     */
+    public int getSharedMemoryBufferSize() {
+        return sharedMemoryBufferSize;
+    }
+
+    /**
+     * Sets the number of keys for which a keyed batch processor, such as
+     * the one grouping and aggregating items, keeps the accumulators on the
+     * heap. When it has more keys, it spills the accumulators of the least
+     * recently used keys to a file in the {@link #setTempDir(String) temp
+     * directory} and reads them back when the key is seen again. The keys
+     * themselves stay on the heap. Since this is blocking IO, the grouping
+     * stages of a pipeline then run non-cooperatively; a grouping processor
+     * that a {@code DAG} creates directly stays cooperative and keeps all
+     * the accumulators on the heap. A positive value enables this, the
+     * default is 0.
+     */
+    public InstanceConfig setSpillThreshold(int spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("spillThreshold must not be negative");
+        }
+        this.spillThreshold = spillThreshold;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setSpillThreshold(int) number of keys} for which a
+     * keyed batch processor keeps the accumulators on the heap.
+     */
+    public int getSpillThreshold() {
+        return spillThreshold;
+    }
 }
@@ -45,6 +45,11 @@ public class JobConfig implements Serializable {
     private final List<ResourceConfig> resourceConfigs = new ArrayList<>();
     private boolean autoRestartEnabled = true;
     private int maxWatermarkRetainMillis = -1;
+    private int minBatchSize;
+    private int maxBatchSize;
+    private boolean backlogAwareSchedulingEnabled;
+    private int watermarkThrottlingMillis;
+    private long watermarkThrottlingMinDelta;
 
     /**
      * Returns the name of the job or {@code null} if no name was given.
@@ -231,6 +236,121 @@ public class JobConfig implements Serializable {
         return maxWatermarkRetainMillis;
     }
 
+    /**
+     * Limits how often the processors forward the watermark they coalesced
+     * from their inputs. Each forwarded watermark is sent to every
+     * downstream processor, so on a DAG with wide fan-out the watermarks
+     * can take a considerable share of the queues' capacity. With this
+     * setting a processor forwards a watermark at most once per {@code
+     * minIntervalMillis}, unless the watermark is ahead of the last
+     * forwarded one by at least {@code minTimestampDelta}. A watermark held
+     * back is replaced by a newer one or forwarded when the interval
+     * elapses, so throttling delays the watermark by up to the interval.
+     * <p>
+     * It doesn't apply to the watermarks the source processors emit, their
+     * rate is controlled by the {@link
+     * com.hazelcast.jet.core.WatermarkEmissionPolicy}.
+     *
+     * @param minIntervalMillis minimum time between two forwarded watermarks
+     *                          or 0 to disable throttling (the default)
+     * @param minTimestampDelta the watermark advance that is forwarded
+     *                          regardless of the interval, or 0 to forward
+     *                          watermarks only at the interval
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setWatermarkThrottling(int minIntervalMillis, long minTimestampDelta) {
+        Preconditions.checkNotNegative(minIntervalMillis, "minIntervalMillis must not be negative");
+        Preconditions.checkNotNegative(minTimestampDelta, "minTimestampDelta must not be negative");
+        this.watermarkThrottlingMillis = minIntervalMillis;
+        this.watermarkThrottlingMinDelta = minTimestampDelta;
+        return this;
+    }
+
+    /**
+     * Returns the minimum interval between forwarded watermarks, see {@link
+     * #setWatermarkThrottling(int, long)}.
+     */
+    public int getWatermarkThrottlingMillis() {
+        return watermarkThrottlingMillis;
+    }
+
+    /**
+     * Returns the watermark advance forwarded regardless of the throttling
+     * interval, see {@link #setWatermarkThrottling(int, long)}.
+     */
+    public long getWatermarkThrottlingMinDelta() {
+        return watermarkThrottlingMinDelta;
+    }
+
+    /**
+     * Enables the adaptive processor batch size and sets its bounds. The
+     * batch size is the maximum number of items a processor can emit in one
+     * call and the maximum number of items put into its inbox at once. Jet
+     * adapts it to the observed load: a busy stream is processed in large
+     * batches to amortize the per-call overhead, while a sparse stream is
+     * processed in small batches to keep the latency low. If both bounds are
+     * equal, the batch size is fixed.
+     * <p>
+     * By default the batch size isn't adapted: a processor can emit up to
+     * 2048 items in one call and its inbox isn't limited.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setBatchSizeBounds(int minBatchSize, int maxBatchSize) {
+        Preconditions.checkPositive(minBatchSize, "minBatchSize must be positive");
+        if (maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("maxBatchSize must not be less than minBatchSize");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Returns the lower bound of the processor batch size or 0, if it wasn't
+     * set, see {@link #setBatchSizeBounds(int, int)}.
+     */
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    /**
+     * Returns the upper bound of the processor batch size or 0, if it wasn't
+     * set, see {@link #setBatchSizeBounds(int, int)}.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Tells whether {@link #setBacklogAwareScheduling(boolean) backlog-aware
+     * scheduling} is enabled.
+     */
+    public boolean isBacklogAwareSchedulingEnabled() {
+        return backlogAwareSchedulingEnabled;
+    }
+
+    /**
+     * Sets whether processors with several inputs of the same priority
+     * should choose the input to drain next by its backlog instead of
+     * round-robin. The input with the fullest queues is drained first, with
+     * a boost for the inputs whose watermark lags behind the others and for
+     * the inputs that weren't drained for a while. This keeps a slow input
+     * of a join or co-group from filling its queues and blocking its
+     * producers while a fast input takes all the processor's time.
+     * <p>
+     * It is disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setBacklogAwareScheduling(boolean isEnabled) {
+        this.backlogAwareSchedulingEnabled = isEnabled;
+        return this;
+    }
+
     /**
      * Adds the supplied classes to the list of resources that will be
      * available on the job's classpath while it's executing in the Jet
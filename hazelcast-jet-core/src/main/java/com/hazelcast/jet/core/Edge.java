@@ -67,6 +67,7 @@ public class Edge implements IdentifiedDataSerializable {
 
     private int priority;
     private boolean isDistributed;
+    private boolean isSplitHotKeys;
     private Partitioner<?> partitioner;
     private RoutingPolicy routingPolicy = RoutingPolicy.UNICAST;
 
@@ -291,6 +292,40 @@ public class Edge implements IdentifiedDataSerializable {
         return this;
     }
 
+    /**
+     * Lets the {@link RoutingPolicy#PARTITIONED PARTITIONED} routing policy
+     * spread the items of hot keys over all the candidate processors. Each
+     * upstream processor tracks how many of its recent items fall into each
+     * partition. When a partition gets more than the fair share of a single
+     * downstream processor, its items are sent to all the partitions in turn
+     * for as long as it stays hot. The cold partitions are routed as usual.
+     * <p>
+     * This breaks the guarantee that all the items with a given key reach the
+     * same processor, the downstream processor must therefore compute partial
+     * results that are combined further downstream. An example is the first
+     * stage of a two-stage aggregation, such as {@link
+     * com.hazelcast.jet.core.processor.Processors#accumulateByKeyP
+     * accumulateByKeyP} or {@link
+     * com.hazelcast.jet.core.processor.Processors#accumulateByFrameP
+     * accumulateByFrameP}, whose results are merged by the second stage
+     * with the {@link com.hazelcast.jet.aggregate.AggregateOperation#combineFn()
+     * combine} primitive. The hot spots are detected per partition, so the
+     * keys that share the partition with a hot key are spread as well.
+     */
+    @Nonnull
+    public Edge splitHotKeys() {
+        isSplitHotKeys = true;
+        return this;
+    }
+
+    /**
+     * Says whether this edge {@link #splitHotKeys() spreads the items of hot
+     * keys} over the candidate processors.
+     */
+    public boolean isSplitHotKeys() {
+        return isSplitHotKeys;
+    }
+
     /**
      * Returns the instance encapsulating the partitioning strategy in effect
      * on this edge.
@@ -374,6 +409,9 @@ public class Edge implements IdentifiedDataSerializable {
                 break;
             case PARTITIONED:
                 b.append(getPartitioner() instanceof Single ? ".allToOne()" : ".partitioned(?)");
+                if (isSplitHotKeys()) {
+                    b.append(".splitHotKeys()");
+                }
                 break;
             case BROADCAST:
                 b.append(".broadcast()");
@@ -417,6 +455,7 @@ public class Edge implements IdentifiedDataSerializable {
         out.writeInt(getDestOrdinal());
         out.writeInt(getPriority());
         out.writeBoolean(isDistributed());
+        out.writeBoolean(isSplitHotKeys());
         out.writeObject(getRoutingPolicy());
         CustomClassLoadedObject.write(out, getPartitioner());
         out.writeObject(getConfig());
@@ -430,6 +469,7 @@ public class Edge implements IdentifiedDataSerializable {
         destOrdinal = in.readInt();
         priority = in.readInt();
         isDistributed = in.readBoolean();
+        isSplitHotKeys = in.readBoolean();
         routingPolicy = in.readObject();
         partitioner = CustomClassLoadedObject.read(in);
         config = in.readObject();
@@ -449,7 +449,41 @@ public final class Processors {
             @Nonnull AggregateOperation1<? super T, A, R> aggrOp
     ) {
         return Processors.<T, K, A, R>aggregateByKeyAndWindowP(getKeyFn, getTimestampFn, timestampKind,
-                windowDef, aggrOp, true);
+                windowDef, aggrOp, true, false);
+    }
+
+    /**
+     * Like {@link #aggregateToSlidingWindowP(DistributedFunction,
+     * DistributedToLongFunction, TimestampKind, WindowDefinition,
+     * AggregateOperation1)}, but with the option to emit only the changed
+     * keys.
+     * <p>
+     * When a sliding window slides by one frame, only the keys present in the
+     * frame that entered the window or in the frame that left it can have a
+     * different result. If {@code emitChangedKeysOnly} is {@code true}, the
+     * processor emits only the results of these keys, except for the first
+     * window position it emits after a start or a restart, where it emits all
+     * the keys. A key that left the window is emitted with the result of an
+     * empty accumulator, so the sink overwrites its last result for it. The
+     * aggregate operation must not finish an empty accumulator to {@code
+     * null}, as {@link com.hazelcast.jet.aggregate.AggregateOperations#minBy
+     * minBy()} does; the processor fails with an {@code
+     * IllegalArgumentException} if it does. This suits a sink that keeps the
+     * latest result per key, such as an {@code IMap}: it receives a fraction
+     * of the items when the window is much longer than the sliding step. It
+     * makes no difference for a tumbling window.
+     */
+    @Nonnull
+    public static <T, K, A, R> DistributedSupplier<Processor> aggregateToSlidingWindowP(
+            @Nonnull DistributedFunction<? super T, K> getKeyFn,
+            @Nonnull DistributedToLongFunction<? super T> getTimestampFn,
+            @Nonnull TimestampKind timestampKind,
+            @Nonnull WindowDefinition windowDef,
+            @Nonnull AggregateOperation1<? super T, A, R> aggrOp,
+            boolean emitChangedKeysOnly
+    ) {
+        return Processors.<T, K, A, R>aggregateByKeyAndWindowP(getKeyFn, getTimestampFn, timestampKind,
+                windowDef, aggrOp, true, emitChangedKeysOnly);
     }
 
     /**
@@ -491,7 +525,7 @@ public final class Processors {
     ) {
         WindowDefinition tumblingByFrame = windowDef.toTumblingByFrame();
         return Processors.<T, K, A, A>aggregateByKeyAndWindowP(getKeyFn, getTimestampFn, timestampKind, tumblingByFrame,
-                aggrOp.withFinishFn(identity()), false
+                aggrOp.withFinishFn(identity()), false, false
         );
     }
 
@@ -535,10 +569,27 @@ public final class Processors {
     public static <K, A, R> DistributedSupplier<Processor> combineToSlidingWindowP(
             @Nonnull WindowDefinition windowDef,
             @Nonnull AggregateOperation1<?, A, R> aggrOp
+    ) {
+        return Processors.<K, A, R>combineToSlidingWindowP(windowDef, aggrOp, false);
+    }
+
+    /**
+     * Like {@link #combineToSlidingWindowP(WindowDefinition,
+     * AggregateOperation1)}, but with the option to emit only the changed
+     * keys, see {@link #aggregateToSlidingWindowP(DistributedFunction,
+     * DistributedToLongFunction, TimestampKind, WindowDefinition,
+     * AggregateOperation1, boolean)}.
+     */
+    @Nonnull
+    public static <K, A, R> DistributedSupplier<Processor> combineToSlidingWindowP(
+            @Nonnull WindowDefinition windowDef,
+            @Nonnull AggregateOperation1<?, A, R> aggrOp,
+            boolean emitChangedKeysOnly
     ) {
         return aggregateByKeyAndWindowP(
                 TimestampedEntry::getKey, TimestampedEntry::getTimestamp, TimestampKind.FRAME,
-                windowDef, aggrOp.withCombiningAccumulateFn(TimestampedEntry<K, A>::getValue), true
+                windowDef, aggrOp.withCombiningAccumulateFn(TimestampedEntry<K, A>::getValue), true,
+                emitChangedKeysOnly
         );
     }
 
@@ -554,6 +605,8 @@ public final class Processors {
      * @param windowDef definition of the window to compute
      * @param aggrOp aggregate operation to perform on each group in a window
      * @param isLastStage if this is the last stage of multi-stage setup
+     * @param emitChangedKeysOnly if only the keys whose result may have
+     *                            changed are emitted for a sliding window
      *
      * @param <T> type of stream item
      * @param <K> type of grouping key
@@ -567,7 +620,8 @@ public final class Processors {
             @Nonnull TimestampKind timestampKind,
             @Nonnull WindowDefinition windowDef,
             @Nonnull AggregateOperation1<? super T, A, R> aggrOp,
-            boolean isLastStage
+            boolean isLastStage,
+            boolean emitChangedKeysOnly
     ) {
         return () -> new SlidingWindowP<T, A, R>(
                 getKeyFn,
@@ -576,7 +630,8 @@ public final class Processors {
                         : getTimestampFn,
                 windowDef,
                 aggrOp,
-                isLastStage);
+                isLastStage,
+                emitChangedKeysOnly);
     }
 
     /**
@@ -30,6 +30,9 @@ public final class DistributedFunctions {
      */
     public static final String CONSTANT_KEY = "ALL";
 
+    // the planner recognizes grouping by the entry key by identity
+    private static final DistributedFunction<Entry<Object, Object>, Object> ENTRY_KEY = Map.Entry::getKey;
+
     private DistributedFunctions() {
     }
 
@@ -43,13 +46,15 @@ public final class DistributedFunctions {
     }
 
     /**
-     * Returns a function that extracts the key of a {@link Map.Entry}.
+     * Returns a function that extracts the key of a {@link Map.Entry}. The
+     * same instance is returned on each call.
      *
      * @param <K> type of entry's key
      */
     @Nonnull
+    @SuppressWarnings("unchecked")
     public static <K, V> DistributedFunction<Entry<K, V>, K> entryKey() {
-        return Map.Entry::getKey;
+        return (DistributedFunction) ENTRY_KEY;
     }
 
     /**
@@ -0,0 +1,754 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.config.GroupConfig;
+import com.hazelcast.config.NetworkConfig;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.config.SymmetricEncryptionConfig;
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.config.InstanceConfig;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.UuidUtil;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.getMemberConnection;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.newSetFromMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Dedicated TCP connections for the data of distributed edges, used instead
+ * of the Hazelcast member connections when {@link
+ * com.hazelcast.jet.config.InstanceConfig#setDataPlaneConnectionCount} is
+ * positive.
+ * <p>
+ * Each member listens on an ephemeral port of its bind address and publishes
+ * the port in the {@value #PORT_ATTRIBUTE} member attribute. The connections
+ * to another member are opened on first use and then shared by all the
+ * jobs. A connection carries frames, each of them the int length followed by
+ * the payload of a stream packet.
+ * <p>
+ * The connections don't go through the Hazelcast connection manager, so the
+ * two members authenticate each other with a challenge-response handshake:
+ * each side sends a random nonce and proves the knowledge of the group name
+ * and password with an HMAC over both nonces and the address of the
+ * connecting member. The accepting member also checks that the address is
+ * one of the current members. The data itself isn't encrypted, which is why
+ * the data plane is refused when the member connections use SSL or
+ * symmetric encryption, see {@link #isSupported}.
+ * <p>
+ * Each outgoing connection has a thread connecting, then writing the queued
+ * frames, and each accepted connection a thread reading them. The sender
+ * tasklets don't block: the frames are queued without a bound, just like the
+ * packets of the member connection, and the amount of queued data is limited
+ * by the flow control. If the connection can't be opened, the queued frames
+ * and all the later ones go through the member connection instead. If it
+ * fails after it was opened, the jobs using it fail.
+ * <p>
+ * If {@link InstanceConfig#setSharedMemoryBufferSize} is positive, each
+ * member also publishes the boot ID of its Linux kernel. A member with the
+ * same boot ID is on the same host: after the handshake, the connecting
+ * member creates a {@link SharedMemoryRing} named {@code jet-ring-<uuid>} in
+ * its temp directory and sends the name. The accepting member only opens a
+ * regular file with such a name in its own temp directory and replies
+ * whether it did. If it did, the frames are written to the ring and the
+ * socket carries no more data, it only tells the other side when the
+ * connection is closed. Otherwise the frames go through the socket. Each
+ * side unmaps the ring on the thread using it, after it's done.
+ */
+public class DataPlane {
+
+    static final String PORT_ATTRIBUTE = "jet.dataPlanePort";
+    static final String HOST_TOKEN_ATTRIBUTE = "jet.hostToken";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CONNECT_TIMEOUT_MILLIS = (int) SECONDS.toMillis(5);
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = (int) SECONDS.toMillis(5);
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int NONCE_LENGTH = 16;
+    private static final int MAC_LENGTH = 32;
+    // the first byte of the HMAC input, so that one side's proof can't be replayed as the other's
+    private static final byte CONNECTOR_ROLE = 'C';
+    private static final byte ACCEPTOR_ROLE = 'A';
+    private static final String RING_NAME_PREFIX = "jet-ring-";
+    private static final Pattern RING_NAME_PATTERN = Pattern.compile(Pattern.quote(RING_NAME_PREFIX)
+            + "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final String BOOT_ID_FILE = "/proc/sys/kernel/random/boot_id";
+    // the reply of the accepting member to the name of a ring
+    private static final byte RING_ACCEPTED = 1;
+    private static final byte RING_REFUSED = 0;
+
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final String threadNamePrefix;
+    private final int connectionCount;
+    private final int sharedMemoryBufferSize;
+    private final String hostToken; // null if shared memory is disabled
+    private final Path tempDir;
+    private final SecretKeySpec macKey;
+    private final SecureRandom random = new SecureRandom();
+    private final BiConsumer<Address, byte[]> packetHandler;
+    private final ServerSocket serverSocket;
+    private final Map<Address, DataConnection[]> connections = new ConcurrentHashMap<>();
+    private final Set<Closeable> acceptedSockets = newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicInteger threadSeq = new AtomicInteger();
+    private final AtomicLong receivedFrameCount = new AtomicLong();
+    private final AtomicLong receivedSharedMemoryFrameCount = new AtomicLong();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Starts listening for the connections of other members.
+     *
+     * @param packetHandler receives the sender address and the payload of each
+     *                      received stream packet, called on the reading threads
+     */
+    DataPlane(NodeEngine nodeEngine, InstanceConfig config, BiConsumer<Address, byte[]> packetHandler)
+            throws IOException {
+        this.nodeEngine = nodeEngine;
+        this.logger = nodeEngine.getLogger(getClass());
+        this.threadNamePrefix = "hz." + nodeEngine.getHazelcastInstance().getName() + ".jet.data-plane.";
+        this.connectionCount = config.getDataPlaneConnectionCount();
+        this.sharedMemoryBufferSize = config.getSharedMemoryBufferSize();
+        this.hostToken = sharedMemoryBufferSize > 0 ? publishHostToken() : null;
+        this.tempDir = Paths.get(config.getTempDir());
+        GroupConfig groupConfig = nodeEngine.getConfig().getGroupConfig();
+        this.macKey = new SecretKeySpec(
+                (groupConfig.getName() + '\0' + groupConfig.getPassword()).getBytes(UTF_8), MAC_ALGORITHM);
+        this.packetHandler = packetHandler;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(nodeEngine.getThisAddress().getInetAddress(), 0));
+        nodeEngine.getLocalMember().setIntAttribute(PORT_ATTRIBUTE, serverSocket.getLocalPort());
+        startThread("acceptor", this::acceptLoop);
+        logger.info("Listening for data plane connections on port " + serverSocket.getLocalPort());
+    }
+
+    /**
+     * Tells whether the data plane can be used with the given network
+     * configuration. It can't if the member connections are encrypted, the
+     * data plane connections would bypass the encryption.
+     */
+    static boolean isSupported(NetworkConfig networkConfig) {
+        SSLConfig sslConfig = networkConfig.getSSLConfig();
+        SymmetricEncryptionConfig encryptionConfig = networkConfig.getSymmetricEncryptionConfig();
+        return (sslConfig == null || !sslConfig.isEnabled())
+                && (encryptionConfig == null || !encryptionConfig.isEnabled());
+    }
+
+    /**
+     * Returns the connection to the given member for the data of the edge
+     * identified by {@code stripeKey}. A new connection is opened on its
+     * writer thread, this method doesn't block. Returns {@code null} if the
+     * member doesn't accept data plane connections, the data should then go
+     * through the member connection.
+     */
+    @Nullable
+    public DataConnection connectionTo(@Nonnull Address memberAddress, int stripeKey) {
+        Member member = nodeEngine.getClusterService().getMember(memberAddress);
+        Integer port = member != null ? member.getIntAttribute(PORT_ATTRIBUTE) : null;
+        if (port == null) {
+            logger.fine("No data plane port known for " + memberAddress + ", using the member connection");
+            return null;
+        }
+        DataConnection[] memberConnections = connections.computeIfAbsent(memberAddress,
+                a -> new DataConnection[connectionCount]);
+        int stripe = Math.floorMod(stripeKey, connectionCount);
+        synchronized (memberConnections) {
+            DataConnection conn = memberConnections[stripe];
+            if (conn == null || conn.closed) {
+                conn = new DataConnection(member, port);
+                conn.writer = startThread("writer-", conn::run);
+                memberConnections[stripe] = conn;
+            }
+            return conn;
+        }
+    }
+
+    /**
+     * Closes the connections to a member that left the cluster.
+     */
+    void memberRemoved(@Nonnull Address memberAddress) {
+        DataConnection[] memberConnections = connections.remove(memberAddress);
+        if (memberConnections == null) {
+            return;
+        }
+        synchronized (memberConnections) {
+            for (DataConnection conn : memberConnections) {
+                if (conn != null) {
+                    conn.close(new JetException("Member " + memberAddress + " left the cluster"));
+                }
+            }
+        }
+    }
+
+    void shutdown() {
+        shutdown = true;
+        closeQuietly(serverSocket);
+        connections.keySet().forEach(this::memberRemoved);
+        acceptedSockets.forEach(DataPlane::closeQuietly);
+    }
+
+    /**
+     * Returns the number of the stream packets received through the data
+     * plane connections.
+     */
+    long receivedFrameCount() {
+        return receivedFrameCount.get();
+    }
+
+    /**
+     * Returns the number of the stream packets received through shared
+     * memory rings, included in {@link #receivedFrameCount()}.
+     */
+    long receivedSharedMemoryFrameCount() {
+        return receivedSharedMemoryFrameCount.get();
+    }
+
+    /**
+     * Publishes the boot ID of the kernel, through which the members on the
+     * same host recognize each other. Returns the boot ID or {@code null},
+     * if it can't be read.
+     */
+    @Nullable
+    private String publishHostToken() {
+        String token;
+        try {
+            token = new String(Files.readAllBytes(Paths.get(BOOT_ID_FILE)), UTF_8).trim();
+        } catch (IOException e) {
+            logger.info("Failed to read " + BOOT_ID_FILE + ", shared memory won't be used: " + e);
+            return null;
+        }
+        nodeEngine.getLocalMember().setStringAttribute(HOST_TOKEN_ATTRIBUTE, token);
+        return token;
+    }
+
+    /**
+     * Creates a ring to the given member if it is on the same host, returns
+     * {@code null} otherwise.
+     */
+    @Nullable
+    private SharedMemoryRing createRing(Member member) {
+        if (hostToken == null || !hostToken.equals(member.getStringAttribute(HOST_TOKEN_ATTRIBUTE))) {
+            return null;
+        }
+        File file = tempDir.resolve(RING_NAME_PREFIX + UuidUtil.newSecureUuidString()).toFile();
+        try {
+            return SharedMemoryRing.create(file, sharedMemoryBufferSize);
+        } catch (IOException e) {
+            logger.warning("Failed to create " + file + ", using TCP to " + member.getAddress() + ": " + e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Opens the ring with the given name, created in the temp directory by a
+     * member on the same host. Returns {@code null} if shared memory is
+     * disabled or the name isn't one of a regular ring file in the temp
+     * directory.
+     */
+    @Nullable
+    private SharedMemoryRing openRing(Address sender, String ringName) {
+        if (hostToken == null || !RING_NAME_PATTERN.matcher(ringName).matches()) {
+            logger.warning("Refused the shared memory ring '" + ringName + "' from " + sender);
+            return null;
+        }
+        Path path = tempDir.resolve(ringName);
+        if (!Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+            logger.fine("Shared memory ring " + path + " from " + sender + " not found, using TCP");
+            return null;
+        }
+        try {
+            return SharedMemoryRing.open(path.toFile());
+        } catch (IOException e) {
+            logger.warning("Failed to open " + path + " from " + sender + ", using TCP: " + e);
+            return null;
+        }
+    }
+
+    private void acceptLoop() {
+        while (!shutdown) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                acceptedSockets.add(socket);
+                startThread("reader-", () -> readLoop(socket));
+            } catch (IOException e) {
+                if (!shutdown) {
+                    logger.warning("Failed to accept a data plane connection", e);
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        Address sender = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE))) {
+            sender = acceptHandshake(socket, in);
+            if (sender == null) {
+                return;
+            }
+            String ringName = in.readUTF();
+            if (!ringName.isEmpty()) {
+                SharedMemoryRing ring = openRing(sender, ringName);
+                OutputStream out = socket.getOutputStream();
+                out.write(ring != null ? RING_ACCEPTED : RING_REFUSED);
+                out.flush();
+                if (ring != null) {
+                    readFromRing(sender, ring, in);
+                    return;
+                }
+            }
+            while (true) {
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                receivedFrameCount.incrementAndGet();
+                packetHandler.accept(sender, payload);
+            }
+        } catch (EOFException ignored) {
+            // the sender closed the connection
+        } catch (IOException e) {
+            if (!shutdown) {
+                logger.fine("Data plane connection from " + sender + " closed: " + e);
+            }
+        } catch (RuntimeException e) {
+            // closing the connection fails the jobs of the sender that use it
+            logger.warning("Failed to handle a data plane packet from " + sender + ", closing the connection", e);
+        } finally {
+            acceptedSockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * The accepting side of the handshake, see {@link
+     * DataConnection#connectHandshake}. Returns the address of the connecting
+     * member or {@code null}, if it failed to authenticate.
+     */
+    @Nullable
+    private Address acceptHandshake(Socket socket, DataInputStream in) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        OutputStream out = socket.getOutputStream();
+        byte[] nonce = newNonce();
+        out.write(nonce);
+        out.flush();
+        Address sender = new Address(in.readUTF(), in.readInt());
+        byte[] peerNonce = readBytes(in, NONCE_LENGTH);
+        byte[] peerMac = readBytes(in, MAC_LENGTH);
+        if (!MessageDigest.isEqual(peerMac, mac(CONNECTOR_ROLE, nonce, peerNonce, sender))) {
+            logger.warning("Rejected a data plane connection from " + socket.getRemoteSocketAddress()
+                    + ": authentication failed");
+            return null;
+        }
+        if (nodeEngine.getClusterService().getMember(sender) == null) {
+            logger.warning("Rejected a data plane connection from " + socket.getRemoteSocketAddress()
+                    + ": " + sender + " is not a member of the cluster");
+            return null;
+        }
+        out.write(mac(ACCEPTOR_ROLE, peerNonce, nonce, sender));
+        out.flush();
+        socket.setSoTimeout(0);
+        return sender;
+    }
+
+    /**
+     * Starts a thread reading the frames from the ring and waits until the
+     * socket is closed.
+     */
+    private void readFromRing(Address sender, SharedMemoryRing ring, DataInputStream in) throws IOException {
+        try {
+            startThread("ring-reader-", () -> ringReadLoop(sender, ring));
+        } catch (Throwable t) {
+            ring.release();
+            throw t;
+        }
+        try {
+            // the socket carries no data after the handshake
+            while (in.read() >= 0) {
+                // nothing to do
+            }
+        } finally {
+            ring.close();
+        }
+    }
+
+    private void ringReadLoop(Address sender, SharedMemoryRing ring) {
+        try {
+            while (true) {
+                byte[] payload = new byte[ring.readInt()];
+                ring.readFully(payload, 0, payload.length);
+                receivedFrameCount.incrementAndGet();
+                receivedSharedMemoryFrameCount.incrementAndGet();
+                packetHandler.accept(sender, payload);
+            }
+        } catch (EOFException ignored) {
+            // the ring was closed
+        } catch (IOException e) {
+            if (!shutdown) {
+                logger.fine("Shared memory ring from " + sender + " closed: " + e);
+            }
+        } catch (RuntimeException e) {
+            // closing the ring fails the jobs of the sender that use it
+            logger.warning("Failed to handle a data plane packet from " + sender + ", closing the ring", e);
+        } finally {
+            ring.close();
+            ring.release();
+        }
+    }
+
+    /**
+     * Returns the HMAC proving the knowledge of the group credentials, over
+     * the role of the proving side, both nonces and the connecting member's
+     * address.
+     */
+    private byte[] mac(byte role, byte[] ownNonce, byte[] peerNonce, Address connector) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            mac.update(role);
+            mac.update(ownNonce);
+            mac.update(peerNonce);
+            mac.update(connector.getHost().getBytes(UTF_8));
+            mac.update(Integer.toString(connector.getPort()).getBytes(UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private byte[] newNonce() {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private Thread startThread(String name, Runnable loop) {
+        String suffix = name.endsWith("-") ? name + threadSeq.getAndIncrement() : name;
+        Thread thread = new Thread(loop, threadNamePrefix + suffix);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * An outgoing data plane connection. The payloads are numbered in the
+     * order they are queued, a sender tasklet uses the number returned from
+     * {@link #write} to wait until its last payload was written.
+     */
+    public final class DataConnection {
+
+        private final Member member;
+        private final int port;
+        private final Socket socket = new Socket();
+        private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+        private final Object lock = new Object();
+        private DataOutputStream out;
+        private volatile SharedMemoryRing ring; // null if the frames go through the socket
+        private volatile Thread writer;
+        private volatile boolean closed;
+        private volatile Throwable failure;
+        private volatile long writtenSeq; // the number of the last written payload
+
+        // guarded by lock
+        private long queuedSeq;
+        private Connection fallbackConnection; // non-null if the payloads go through the member connection
+
+        private DataConnection(Member member, int port) {
+            this.member = member;
+            this.port = port;
+        }
+
+        /**
+         * Queues the payload of a stream packet for sending. The payloads are
+         * received in the order they were queued.
+         *
+         * @return the number of the payload to pass to {@link #isWritten}
+         * @throws JetException if the connection failed
+         */
+        public long write(@Nonnull byte[] payload) {
+            checkNotFailed();
+            synchronized (lock) {
+                if (fallbackConnection == null) {
+                    queue.add(payload);
+                    return ++queuedSeq;
+                }
+                if (!writeToMemberConnection(payload)) {
+                    checkNotFailed();
+                }
+                writtenSeq = ++queuedSeq;
+                return queuedSeq;
+            }
+        }
+
+        /**
+         * Tells whether the payload with the given number, and all the
+         * payloads before it, were written.
+         */
+        public boolean isWritten(long seq) {
+            return writtenSeq >= seq;
+        }
+
+        /**
+         * @throws JetException if the connection failed or was closed, the
+         *                      payloads queued so far may be lost
+         */
+        public void checkNotFailed() {
+            Throwable t = failure;
+            if (t != null) {
+                throw new JetException("Data plane connection to " + member.getAddress() + " failed: " + t, t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DataConnection to " + member.getAddress();
+        }
+
+        private void run() {
+            try {
+                try {
+                    connect();
+                } catch (IOException e) {
+                    if (!closed && !shutdown) {
+                        logger.warning("Failed to open a data plane connection to " + member.getAddress()
+                                + ", using the member connection: " + e);
+                        fallBack();
+                    }
+                    return;
+                }
+                writeLoop();
+            } finally {
+                SharedMemoryRing r = ring;
+                if (r != null) {
+                    // the reader has the file mapped, the data written so far is still delivered
+                    r.close();
+                    r.release();
+                    deleteQuietly(r.file());
+                }
+            }
+        }
+
+        private void connect() throws IOException {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(member.getAddress().getInetAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            connectHandshake(in);
+            SharedMemoryRing r = createRing(member);
+            if (r == null) {
+                out.writeUTF("");
+                out.flush();
+                return;
+            }
+            boolean isAccepted = false;
+            try {
+                out.writeUTF(r.file().getName());
+                out.flush();
+                isAccepted = in.readByte() == RING_ACCEPTED;
+            } finally {
+                if (isAccepted) {
+                    ring = r;
+                } else {
+                    r.release();
+                    deleteQuietly(r.file());
+                }
+            }
+            if (!isAccepted) {
+                logger.fine(member.getAddress() + " refused the shared memory ring, using TCP");
+            }
+        }
+
+        /**
+         * The connecting side of the handshake: receives the nonce of the
+         * accepting member, sends this member's address, its own nonce and its
+         * proof, then verifies the proof of the accepting member.
+         */
+        private void connectHandshake(DataInputStream in) throws IOException {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            byte[] peerNonce = readBytes(in, NONCE_LENGTH);
+            byte[] nonce = newNonce();
+            Address thisAddress = nodeEngine.getThisAddress();
+            out.writeUTF(thisAddress.getHost());
+            out.writeInt(thisAddress.getPort());
+            out.write(nonce);
+            out.write(mac(CONNECTOR_ROLE, peerNonce, nonce, thisAddress));
+            out.flush();
+            byte[] peerMac = readBytes(in, MAC_LENGTH);
+            if (!MessageDigest.isEqual(peerMac, mac(ACCEPTOR_ROLE, nonce, peerNonce, thisAddress))) {
+                throw new IOException("Authentication of " + member.getAddress() + " failed");
+            }
+            socket.setSoTimeout(0);
+        }
+
+        /**
+         * Sends the queued payloads and all the later ones through the member
+         * connection. Only used if the connection couldn't be opened, so no
+         * payload was written yet and their order is kept.
+         */
+        private void fallBack() {
+            closeQuietly(socket);
+            synchronized (lock) {
+                fallbackConnection = getMemberConnection(nodeEngine, member.getAddress());
+                if (fallbackConnection == null) {
+                    close(new JetException("No connection to " + member.getAddress()));
+                    return;
+                }
+                for (byte[] payload; (payload = queue.poll()) != null; ) {
+                    if (!writeToMemberConnection(payload)) {
+                        return;
+                    }
+                }
+                writtenSeq = queuedSeq;
+            }
+        }
+
+        /**
+         * Returns {@code false} and closes the connection if the member
+         * connection isn't alive.
+         */
+        private boolean writeToMemberConnection(byte[] payload) {
+            if (fallbackConnection.write(new Packet(payload).setPacketType(Packet.Type.JET))) {
+                return true;
+            }
+            close(new JetException("Connection to " + member.getAddress() + " is not alive"));
+            return false;
+        }
+
+        private void writeLoop() {
+            long written = 0;
+            try {
+                while (!closed) {
+                    // write all the queued frames, then flush
+                    for (byte[] payload = queue.take(); payload != null; payload = queue.poll()) {
+                        writeFrame(payload);
+                        written++;
+                    }
+                    if (ring == null) {
+                        out.flush();
+                    }
+                    writtenSeq = written;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (!closed && !shutdown) {
+                    logger.warning("Data plane connection to " + member.getAddress() + " failed: " + e);
+                }
+                close(e);
+            } finally {
+                close(new JetException("Data plane connection to " + member.getAddress() + " closed"));
+            }
+        }
+
+        private void writeFrame(byte[] payload) throws IOException {
+            if (ring != null) {
+                ring.writeInt(payload.length);
+                ring.write(payload, 0, payload.length);
+            } else {
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        }
+
+        /**
+         * Closes the connection, the later {@link #write} calls fail with the
+         * given cause, unless it already failed with another one.
+         */
+        private void close(Throwable cause) {
+            synchronized (lock) {
+                if (failure == null) {
+                    failure = cause;
+                }
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            queue.clear();
+            SharedMemoryRing r = ring;
+            if (r != null) {
+                // unblocks the writer waiting for free space, it deletes the file when it exits
+                r.close();
+            }
+            closeQuietly(socket);
+            Thread writerThread = writer;
+            if (writerThread != null && writerThread != Thread.currentThread()) {
+                writerThread.interrupt();
+            }
+        }
+    }
+}
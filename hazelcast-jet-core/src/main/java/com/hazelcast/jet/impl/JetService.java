@@ -21,6 +21,7 @@ import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.instance.JetBuildInfo;
+import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.core.TopologyChangedException;
@@ -40,6 +41,7 @@ import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -57,6 +59,7 @@ public class JetService
     private JetConfig config;
     private JetInstance jetInstance;
     private Networking networking;
+    private DataPlane dataPlane; // null if disabled
     private TaskletExecutionService taskletExecutionService;
     private JobRepository jobRepository;
     private SnapshotRepository snapshotRepository;
@@ -87,7 +90,7 @@ public class JetService
 
         jetInstance = new JetInstanceImpl((HazelcastInstanceImpl) engine.getHazelcastInstance(), config);
         taskletExecutionService = new TaskletExecutionService(nodeEngine.getHazelcastInstance(),
-                config.getInstanceConfig().getCooperativeThreadCount());
+                config.getInstanceConfig());
 
         snapshotRepository = new SnapshotRepository(jetInstance);
         jobRepository = new JobRepository(jetInstance, snapshotRepository);
@@ -96,6 +99,9 @@ public class JetService
         jobCoordinationService = new JobCoordinationService(nodeEngine, config, jobRepository,
                 jobExecutionService, snapshotRepository);
         networking = new Networking(engine, jobExecutionService, config.getInstanceConfig().getFlowControlPeriodMs());
+        if (config.getInstanceConfig().getDataPlaneConnectionCount() > 0) {
+            startDataPlane(engine);
+        }
 
         ClientEngineImpl clientEngine = engine.getService(ClientEngineImpl.SERVICE_NAME);
         ExceptionUtil.registerJetExceptions(clientEngine.getClientExceptionFactory());
@@ -117,10 +123,26 @@ public class JetService
         logger.info("Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.");
     }
 
+    private void startDataPlane(NodeEngine engine) {
+        if (!DataPlane.isSupported(engine.getConfig().getNetworkConfig())) {
+            logger.warning("Data plane connections are disabled, they aren't encrypted and the member"
+                    + " connections use SSL or symmetric encryption");
+            return;
+        }
+        try {
+            dataPlane = new DataPlane(engine, config.getInstanceConfig(), networking::handleStreamPacket);
+        } catch (IOException e) {
+            throw new JetException("Failed to start listening for data plane connections", e);
+        }
+    }
+
     @Override
     public void shutdown(boolean terminate) {
         jobExecutionService.reset("shutdown", HazelcastInstanceNotActiveException::new);
         networking.shutdown();
+        if (dataPlane != null) {
+            dataPlane.shutdown();
+        }
         taskletExecutionService.shutdown();
     }
 
@@ -150,6 +172,21 @@ public class JetService
         return jobExecutionService;
     }
 
+    public Networking getNetworking() {
+        return networking;
+    }
+
+    /**
+     * Returns the dedicated connections for the data of distributed edges or
+     * {@code null}, if they are {@linkplain
+     * com.hazelcast.jet.config.InstanceConfig#setDataPlaneConnectionCount
+     * disabled}.
+     */
+    @Nullable
+    public DataPlane getDataPlane() {
+        return dataPlane;
+    }
+
     public ClassLoader getClassLoader(long jobId) {
         return jobCoordinationService.getClassLoader(jobId);
     }
@@ -163,6 +200,9 @@ public class JetService
     public void memberRemoved(MembershipServiceEvent event) {
         Address address = event.getMember().getAddress();
         jobExecutionService.onMemberLeave(address);
+        if (dataPlane != null) {
+            dataPlane.memberRemoved(address);
+        }
     }
 
     @Override
@@ -16,22 +16,30 @@
 
 package com.hazelcast.jet.impl;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.jet.impl.execution.ExecutionContext;
+import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
-import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.Bits;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
+import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.Util.createObjectDataInput;
@@ -40,22 +48,39 @@ import static com.hazelcast.jet.impl.util.Util.getMemberConnection;
 import static com.hazelcast.jet.impl.util.Util.getRemoteMembers;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
 import static com.hazelcast.nio.Packet.FLAG_JET_FLOW_CONTROL;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.util.Collections.newSetFromMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class Networking {
+
+    /**
+     * Size of the header written by {@link #createStreamPacketHeader}: the
+     * execution ID, the destination vertex ID and the edge ordinal.
+     */
+    public static final int STREAM_PACKET_HEADER_SIZE = LONG_SIZE_IN_BYTES + 2 * INT_SIZE_IN_BYTES;
+
     private static final byte[] EMPTY_BYTES = new byte[0];
 
     private final NodeEngineImpl nodeEngine;
     private final ILogger logger;
+    private final boolean bigEndian;
     private final JobExecutionService jobExecutionService;
     private final ScheduledFuture<?> flowControlSender;
+    // members to which an early flow-control packet was requested
+    private final Set<Address> earlyFlowControlMembers = newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicBoolean earlyFlowControlScheduled = new AtomicBoolean();
 
     Networking(NodeEngine nodeEngine, JobExecutionService jobExecutionService, int flowControlPeriodMs) {
         this.nodeEngine = (NodeEngineImpl) nodeEngine;
         this.logger = nodeEngine.getLogger(getClass());
         this.jobExecutionService = jobExecutionService;
+        this.bigEndian = ((InternalSerializationService) nodeEngine.getSerializationService())
+                .getByteOrder() == BIG_ENDIAN;
         this.flowControlSender = nodeEngine.getExecutionService().scheduleWithRepetition(
                 this::broadcastFlowControlPacket, 0, flowControlPeriodMs, MILLISECONDS);
     }
@@ -66,19 +91,31 @@ public class Networking {
 
     void handle(Packet packet) throws IOException {
         if (!packet.isFlagRaised(FLAG_JET_FLOW_CONTROL)) {
-            handleStreamPacket(packet);
+            handleStreamPacket(packet.getConn().getEndPoint(), packet.toByteArray());
             return;
         }
         handleFlowControlPacket(packet.getConn().getEndPoint(), packet.toByteArray());
     }
 
-    private void handleStreamPacket(Packet packet) throws IOException {
-        BufferObjectDataInput in = createObjectDataInput(nodeEngine, packet.toByteArray());
-        long executionId = in.readLong();
-        int vertexId = in.readInt();
-        int ordinal = in.readInt();
+    /**
+     * Passes the payload of a stream packet, received either through the
+     * member connection or through the {@link DataPlane}, to its receiver
+     * tasklet.
+     */
+    void handleStreamPacket(Address sender, byte[] payload) {
+        // The header is read in place, the receiver tasklet deserializes the
+        // rest of the payload on its own thread
+        long executionId = Bits.readLong(payload, 0, bigEndian);
+        int vertexId = Bits.readInt(payload, LONG_SIZE_IN_BYTES, bigEndian);
+        int ordinal = Bits.readInt(payload, LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES, bigEndian);
         ExecutionContext executionContext = jobExecutionService.getExecutionContext(executionId);
-        executionContext.handlePacket(vertexId, ordinal, packet.getConn().getEndPoint(), in);
+        if (executionContext == null) {
+            // the execution already completed locally, for example after a failure
+            logger.fine("Ignoring a stream packet from " + sender + " for unknown execution "
+                    + idToString(executionId));
+            return;
+        }
+        executionContext.handlePacket(vertexId, ordinal, sender, payload);
     }
 
     public static byte[] createStreamPacketHeader(NodeEngine nodeEngine, long executionId,
@@ -94,26 +131,56 @@ public class Networking {
         }
     }
 
-    private void broadcastFlowControlPacket() {
+    /**
+     * Requests a flow-control packet to be sent to the given member ahead of
+     * the next flow-control period. The requests are coalesced: all the
+     * members requested until the packets are sent get one packet each.
+     */
+    public void requestFlowControlPacket(@Nonnull Address member) {
+        // the flag is cleared before the set is drained, so a member added
+        // after the draining always schedules another run
+        if (earlyFlowControlMembers.add(member) && earlyFlowControlScheduled.compareAndSet(false, true)) {
+            nodeEngine.getExecutionService().execute(ExecutionService.ASYNC_EXECUTOR, this::sendEarlyFlowControlPackets);
+        }
+    }
+
+    // synchronized with sendEarlyFlowControlPackets, the receiver tasklets
+    // expect their flow-control state to be accessed by one thread at a time
+    private synchronized void broadcastFlowControlPacket() {
         try {
-            getRemoteMembers(nodeEngine).forEach(member -> uncheckRun(() -> {
-                final byte[] packetBuf = createFlowControlPacket(member);
-                if (packetBuf.length == 0) {
-                    return;
-                }
-                Connection conn = getMemberConnection(nodeEngine, member);
-                if (conn != null) {
-                    conn.write(new Packet(packetBuf)
-                            .setPacketType(Packet.Type.JET)
-                            .raiseFlags(FLAG_URGENT | FLAG_JET_FLOW_CONTROL));
-                }
-            }));
+            getRemoteMembers(nodeEngine).forEach(member -> uncheckRun(() -> sendFlowControlPacket(member, true)));
         } catch (Throwable t) {
             logger.severe("Flow-control packet broadcast failed", t);
         }
     }
 
-    private byte[] createFlowControlPacket(Address member) throws IOException {
+    private synchronized void sendEarlyFlowControlPackets() {
+        earlyFlowControlScheduled.set(false);
+        try {
+            for (Iterator<Address> it = earlyFlowControlMembers.iterator(); it.hasNext(); ) {
+                Address member = it.next();
+                it.remove();
+                sendFlowControlPacket(member, false);
+            }
+        } catch (Throwable t) {
+            logger.severe("Sending of early flow-control packets failed", t);
+        }
+    }
+
+    private void sendFlowControlPacket(Address member, boolean adaptReceiveWindow) throws IOException {
+        final byte[] packetBuf = createFlowControlPacket(member, adaptReceiveWindow);
+        if (packetBuf.length == 0) {
+            return;
+        }
+        Connection conn = getMemberConnection(nodeEngine, member);
+        if (conn != null) {
+            conn.write(new Packet(packetBuf)
+                    .setPacketType(Packet.Type.JET)
+                    .raiseFlags(FLAG_URGENT | FLAG_JET_FLOW_CONTROL));
+        }
+    }
+
+    private byte[] createFlowControlPacket(Address member, boolean adaptReceiveWindow) throws IOException {
         final ObjectDataOutput out = createObjectDataOutput(nodeEngine);
         final boolean[] hasData = {false};
         Map<Long, ExecutionContext> executionContexts = jobExecutionService.getExecutionContexts();
@@ -128,7 +195,10 @@ public class Networking {
                     ordinalToSenderToTasklet.forEach((ordinal, senderToTasklet) -> uncheckRun(() -> {
                         out.writeInt(vertexId);
                         out.writeInt(ordinal);
-                        out.writeInt(senderToTasklet.get(member).updateAndGetSendSeqLimitCompressed());
+                        ReceiverTasklet receiver = senderToTasklet.get(member);
+                        out.writeInt(adaptReceiveWindow
+                                ? receiver.updateAndGetSendSeqLimitCompressed()
+                                : receiver.getSendSeqLimitCompressed());
                         hasData[0] = true;
                     })));
         }));
@@ -24,11 +24,15 @@ import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.Edge;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.processor.DiagnosticProcessors;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.impl.processor.CoGroupP;
+import com.hazelcast.jet.impl.processor.FusedTransformP;
+import com.hazelcast.jet.impl.processor.FusedTransformP.Step;
 import com.hazelcast.jet.impl.processor.HashJoinCollectP;
 import com.hazelcast.jet.impl.processor.HashJoinP;
 import com.hazelcast.jet.impl.transform.CoGroupTransform;
@@ -41,6 +45,7 @@ import com.hazelcast.jet.impl.transform.PeekTransform;
 import com.hazelcast.jet.impl.transform.ProcessorTransform;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -56,6 +61,7 @@ import static com.hazelcast.jet.core.Edge.from;
 import static com.hazelcast.jet.core.Partitioner.HASH_CODE;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.impl.TopologicalSorter.topologicalSort;
+import static com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP.isLocalMapEntriesSource;
 import static java.util.stream.Collectors.toList;
 
 @SuppressWarnings("unchecked")
@@ -66,13 +72,14 @@ class Planner {
     private final Map<Stage, PlannerVertex> stage2vertex = new HashMap<>();
 
     private final Set<String> vertexNames = new HashSet<>();
+    private Map<Stage, List<Stage>> adjacencyMap;
 
     Planner(PipelineImpl pipeline) {
         this.pipeline = pipeline;
     }
 
     DAG createDag() {
-        Map<Stage, List<Stage>> adjacencyMap = pipeline.adjacencyMap();
+        adjacencyMap = pipeline.adjacencyMap();
         validateNoLeakage(adjacencyMap);
         Iterable<AbstractStage> sorted = (Iterable<AbstractStage>) (Iterable<? extends Stage>)
                 topologicalSort(adjacencyMap, Object::toString);
@@ -128,27 +135,62 @@ class Planner {
     }
 
     private void handleMap(AbstractStage stage, MapTransform map) {
-        PlannerVertex pv = addVertex(stage, vertexName(map.name(), ""), Processors.mapP(map.mapFn));
-        addEdges(stage, pv.v);
+        addFusibleVertex(stage, map.name(), Processors.mapP(map.mapFn), Step.map(map.mapFn));
     }
 
     private void handleFilter(AbstractStage stage, FilterTransform filter) {
-        PlannerVertex pv = addVertex(stage, vertexName(filter.name(), ""),
-                Processors.filterP(filter.filterFn));
-        addEdges(stage, pv.v);
+        addFusibleVertex(stage, filter.name(), Processors.filterP(filter.filterFn), Step.filter(filter.filterFn));
     }
 
     private void handleFlatMap(AbstractStage stage, FlatMapTransform flatMap) {
-        PlannerVertex pv = addVertex(stage, vertexName(flatMap.name(), ""),
-                Processors.flatMapP(flatMap.flatMapFn()));
+        addFusibleVertex(stage, flatMap.name(), Processors.flatMapP(flatMap.flatMapFn()),
+                Step.flatMap(flatMap.flatMapFn()));
+    }
+
+    private void addFusibleVertex(
+            AbstractStage stage, String name, DistributedSupplier<Processor> procSupplier, Step step
+    ) {
+        if (tryFuse(stage, step)) {
+            return;
+        }
+        PlannerVertex pv = addVertex(stage, vertexName(name, ""), procSupplier);
+        pv.fusedSteps = new ArrayList<>();
+        pv.fusedSteps.add(step);
         addEdges(stage, pv.v);
     }
 
+    /**
+     * Appends a stateless step to the upstream stage's vertex instead of
+     * creating a new vertex for it. This is possible if the stage has a
+     * single upstream stage that is itself a (possibly already fused)
+     * map/filter/flatMap and that has no other downstream stages. The
+     * vertices created for these transforms all have the default local
+     * parallelism, so the fused vertex keeps the parallelism of both.
+     *
+     * @return whether the step was fused
+     */
+    private boolean tryFuse(AbstractStage stage, Step step) {
+        if (stage.upstream.size() != 1) {
+            return false;
+        }
+        Stage upstream = stage.upstream.get(0);
+        PlannerVertex pv = stage2vertex.get(upstream);
+        if (pv.fusedSteps == null || adjacencyMap.get(upstream).size() != 1) {
+            return false;
+        }
+        pv.fusedSteps.add(step);
+        List<Step> steps = new ArrayList<>(pv.fusedSteps);
+        pv.v.updateMetaSupplier(sup -> ProcessorMetaSupplier.of(() -> new FusedTransformP(steps)));
+        stage2vertex.put(stage, pv);
+        return true;
+    }
+
     //                       --------
     //                      | source |
     //                       --------
     //                           |
     //                      partitioned
+    //                     split hot keys
     //                           v
     //                       ---------
     //                      | stage1  |
@@ -161,20 +203,66 @@ class Planner {
     //                      | stage2  |
     //                       ---------
     private void handleGroupBy(AbstractStage stage, GroupByTransform<Object, Object, Object, Object> groupBy) {
+        if (isGroupedOnOwner(stage, groupBy.keyFn())) {
+            handleGroupByOnOwner(stage, groupBy);
+            return;
+        }
         String namePrefix = vertexName(groupBy.name(), "-stage");
         Vertex v1 = dag.newVertex(namePrefix + '1',
-                Processors.accumulateByKeyP(groupBy.keyFn(), groupBy.aggregateOperation()));
+                CoGroupP.supplier(Processors.accumulateByKeyP(groupBy.keyFn(), groupBy.aggregateOperation())));
         PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
-                Processors.combineByKeyP(groupBy.aggregateOperation()));
-        addEdges(stage, v1, e -> e.partitioned(groupBy.keyFn(), HASH_CODE));
+                CoGroupP.supplier(Processors.combineByKeyP(groupBy.aggregateOperation())));
+        addEdges(stage, v1, e -> e.partitioned(groupBy.keyFn(), HASH_CODE).splitHotKeys());
         dag.edge(between(v1, pv2.v).distributed().partitioned(entryKey()));
     }
 
+    //                       --------
+    //                      | source |
+    //                       --------
+    //                           |
+    //                      partitioned
+    //                           v
+    //                       ---------
+    //                      | stage   |
+    //                       ---------
+    private void handleGroupByOnOwner(
+            AbstractStage stage, GroupByTransform<Object, Object, Object, Object> groupBy
+    ) {
+        PlannerVertex pv = addVertex(stage, vertexName(groupBy.name(), ""),
+                CoGroupP.supplier(Processors.aggregateByKeyP(groupBy.keyFn(), groupBy.aggregateOperation())));
+        addEdges(stage, pv.v, e -> e.partitioned(groupBy.keyFn(), HASH_CODE));
+    }
+
+    /**
+     * Tells whether all the items with the same grouping key already arrive
+     * on a single member. This is the case when the stage groups the entries
+     * of a local map source by the entry key: each member reads only the
+     * partitions it owns. The aggregation then needs no distributed edge and
+     * no second stage.
+     * <p>
+     * Since the map keys are unique, each such group has a single entry. A
+     * key derived from the entry, even one from the {@code PartitionAware}
+     * partition key, doesn't qualify: the key function is an opaque lambda
+     * and the member-side partitioning strategy of the map, which the
+     * planner can't see, decides the partition of an entry. Such groupings
+     * keep the distributed two-stage plan.
+     */
+    private boolean isGroupedOnOwner(AbstractStage stage, DistributedFunction<?, ?> keyFn) {
+        if (keyFn != entryKey() || stage.upstream.size() != 1) {
+            return false;
+        }
+        Stage upstream = stage.upstream.get(0);
+        return upstream instanceof AbstractStage
+                && ((AbstractStage) upstream).transform instanceof SourceImpl
+                && isLocalMapEntriesSource(stage2vertex.get(upstream).v.getMetaSupplier());
+    }
+
     //            ----------             ----------
     //           | source-1 |           | source-2 |
     //            ----------             ----------
     //                |                       |
     //           partitioned             partitioned
+    //          split hot keys          split hot keys
     //                \--------v     v-------/
     //                        ---------
     //                       |    v1   |
@@ -190,10 +278,10 @@ class Planner {
         List<DistributedFunction<?, ?>> groupKeyFs = coGroup.groupKeyFs();
         String namePrefix = vertexName(coGroup.name(), "-stage");
         Vertex v1 = dag.newVertex(namePrefix + '1',
-                Processors.coAccumulateByKeyP(groupKeyFs, coGroup.aggregateOperation()));
+                CoGroupP.supplier(Processors.coAccumulateByKeyP(groupKeyFs, coGroup.aggregateOperation())));
         PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
-                Processors.combineByKeyP(coGroup.aggregateOperation()));
-        addEdges(stage, v1, (e, ord) -> e.partitioned(groupKeyFs.get(ord), HASH_CODE));
+                CoGroupP.supplier(Processors.combineByKeyP(coGroup.aggregateOperation())));
+        addEdges(stage, v1, (e, ord) -> e.partitioned(groupKeyFs.get(ord), HASH_CODE).splitHotKeys());
         dag.edge(between(v1, pv2.v).distributed().partitioned(entryKey()));
     }
 
@@ -256,6 +344,9 @@ class Planner {
         // Peeking transform doesn't add a vertex, so point to the upstream stage's
         // vertex:
         stage2vertex.put(stage, peekedPv);
+        // The peeking wrapper is applied to the current processor supplier, so
+        // further steps can't be fused into the vertex
+        peekedPv.fusedSteps = null;
         peekedPv.v.updateMetaSupplier(sup ->
                 DiagnosticProcessors.peekOutputP(peekTransform.toStringFn(), peekTransform.shouldLogFn(), sup));
     }
@@ -269,6 +360,10 @@ class Planner {
         return addVertex(stage, name, ProcessorMetaSupplier.of(procSupplier));
     }
 
+    private PlannerVertex addVertex(Stage stage, String name, ProcessorSupplier procSupplier) {
+        return addVertex(stage, name, ProcessorMetaSupplier.of(procSupplier));
+    }
+
     private PlannerVertex addVertex(Stage stage, String name, ProcessorMetaSupplier metaSupplier) {
         PlannerVertex pv = new PlannerVertex(dag.newVertex(name, metaSupplier));
         stage2vertex.put(stage, pv);
@@ -314,6 +409,9 @@ class Planner {
 
         int availableOrdinal;
 
+        // the stateless steps the vertex applies, null if it isn't fusible
+        List<Step> fusedSteps;
+
         PlannerVertex(Vertex v) {
             this.v = v;
         }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.nio.Bits;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A single-producer, single-consumer byte pipe in a memory-mapped file,
+ * used by the {@link DataPlane} between members on the same host.
+ * <p>
+ * The file starts with the total count of written bytes, the total count of
+ * read bytes and the closed flag, each on its own cache line, followed by
+ * the data area used circularly. The counts are published with ordered
+ * writes and read with volatile reads, which makes the data they cover
+ * visible to the other process. Both sides wait for data or free space with
+ * an idle strategy. Either side can close the ring, the reader still gets
+ * the data written before.
+ * <p>
+ * The thread using the ring {@link #release() unmaps} it when it's done,
+ * other threads may only {@link #close()} it.
+ */
+final class SharedMemoryRing implements Closeable {
+
+    static final int DATA_OFFSET = 192;
+
+    private static final int WRITE_SEQ_OFFSET = 0;
+    private static final int READ_SEQ_OFFSET = 64;
+    private static final int CLOSED_OFFSET = 128;
+
+    private static final long BYTE_ARRAY_BASE = UNSAFE.arrayBaseOffset(byte[].class);
+    private static final long BUFFER_ADDRESS_OFFSET = fieldOffset(Buffer.class, "address");
+    private static final IdleStrategy IDLER =
+            new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), MILLISECONDS.toNanos(1));
+
+    private final File file;
+    // keeps the mapping alive until released, the memory is accessed through the address
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final int capacity;
+    private final byte[] intBuf = new byte[INT_SIZE_IN_BYTES];
+
+    // local copies of the counts, each written by one side only
+    private long writeSeq;
+    private long readSeq;
+    private boolean released; // guarded by this
+
+    private SharedMemoryRing(File file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.address = UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+        this.capacity = buffer.capacity() - DATA_OFFSET;
+    }
+
+    /**
+     * Creates the file of a new ring with the given capacity, used by the
+     * writing side.
+     */
+    static SharedMemoryRing create(File file, int capacity) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(DATA_OFFSET + capacity);
+            return new SharedMemoryRing(file, raf.getChannel().map(MapMode.READ_WRITE, 0, DATA_OFFSET + capacity));
+        }
+    }
+
+    /**
+     * Maps the file of a ring created by the other side, used by the reading
+     * side.
+     */
+    static SharedMemoryRing open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() <= DATA_OFFSET) {
+                throw new IOException("Not a shared memory ring: " + file);
+            }
+            return new SharedMemoryRing(file, channel.map(MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    File file() {
+        return file;
+    }
+
+    void writeInt(int value) throws IOException {
+        Bits.writeInt(intBuf, 0, value, true);
+        write(intBuf, 0, INT_SIZE_IN_BYTES);
+    }
+
+    /**
+     * Writes the bytes, waiting for free space as needed.
+     *
+     * @throws EOFException if the ring is closed
+     */
+    void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            long free;
+            for (long idleCount = 0; (free = capacity - (writeSeq - readSeqVolatile())) == 0; ) {
+                if (isClosed()) {
+                    throw new EOFException("Shared memory ring closed: " + file);
+                }
+                IDLER.idle(++idleCount);
+            }
+            int index = (int) (writeSeq % capacity);
+            int chunk = (int) Math.min(Math.min(length, free), capacity - index);
+            UNSAFE.copyMemory(bytes, BYTE_ARRAY_BASE + offset, null, address + DATA_OFFSET + index, chunk);
+            writeSeq += chunk;
+            offset += chunk;
+            length -= chunk;
+            UNSAFE.putOrderedLong(null, address + WRITE_SEQ_OFFSET, writeSeq);
+        }
+    }
+
+    int readInt() throws IOException {
+        readFully(intBuf, 0, INT_SIZE_IN_BYTES);
+        return Bits.readInt(intBuf, 0, true);
+    }
+
+    /**
+     * Reads the given number of bytes, waiting for them as needed.
+     *
+     * @throws EOFException if the ring is closed and all the written bytes
+     *                      were read
+     */
+    void readFully(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            long available;
+            for (long idleCount = 0; (available = writeSeqVolatile() - readSeq) == 0; ) {
+                // the data written before closing must still be read
+                if (isClosed() && writeSeqVolatile() == readSeq) {
+                    throw new EOFException("Shared memory ring closed: " + file);
+                }
+                IDLER.idle(++idleCount);
+            }
+            int index = (int) (readSeq % capacity);
+            int chunk = (int) Math.min(Math.min(length, available), capacity - index);
+            UNSAFE.copyMemory(null, address + DATA_OFFSET + index, bytes, BYTE_ARRAY_BASE + offset, chunk);
+            readSeq += chunk;
+            offset += chunk;
+            length -= chunk;
+            UNSAFE.putOrderedLong(null, address + READ_SEQ_OFFSET, readSeq);
+        }
+    }
+
+    boolean isClosed() {
+        return UNSAFE.getIntVolatile(null, address + CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Marks the ring as closed for both sides. Does nothing if the ring was
+     * already released. Safe to call from any thread.
+     */
+    @Override
+    public synchronized void close() {
+        if (!released) {
+            UNSAFE.putIntVolatile(null, address + CLOSED_OFFSET, 1);
+        }
+    }
+
+    /**
+     * Unmaps the file, after which the ring must no longer be used. Only the
+     * thread using the ring may call this. If the buffer can't be unmapped
+     * explicitly, the mapping is released when the buffer is
+     * garbage-collected.
+     */
+    synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        try {
+            unmap(buffer);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // left to the garbage collector
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedMemoryRing{file=" + file + ", capacity=" + capacity + '}';
+    }
+
+    private long writeSeqVolatile() {
+        return UNSAFE.getLongVolatile(null, address + WRITE_SEQ_OFFSET);
+    }
+
+    private long readSeqVolatile() {
+        return UNSAFE.getLongVolatile(null, address + READ_SEQ_OFFSET);
+    }
+
+    private static void unmap(MappedByteBuffer buffer) throws ReflectiveOperationException {
+        Method invokeCleaner;
+        try {
+            // Java 9 and later
+            invokeCleaner = UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+            return;
+        }
+        invokeCleaner.invoke(UNSAFE, buffer);
+    }
+
+    private static long fieldOffset(Class<?> clazz, String fieldName) {
+        try {
+            return UNSAFE.objectFieldOffset(clazz.getDeclaredField(fieldName));
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -25,7 +25,9 @@ import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.instance.JetBuildInfo;
+import com.hazelcast.jet.config.BlockingTaskletMode;
 import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.config.IdleStrategyType;
 import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.logging.ILogger;
@@ -188,9 +190,36 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "flow-control-period":
                     instanceConfig.setFlowControlPeriodMs(intValue(node));
                     break;
+                case "flow-control-ack-threshold-bytes":
+                    instanceConfig.setFlowControlAckThresholdBytes(intValue(node));
+                    break;
                 case "backup-count":
                     instanceConfig.setBackupCount(intValue(node));
                     break;
+                case "idle-strategy":
+                    instanceConfig.setIdleStrategy(IdleStrategyType.valueOf(stringValue(node)));
+                    break;
+                case "max-idle-micros":
+                    instanceConfig.setMaxIdleMicros(longValue(node));
+                    break;
+                case "cpu-affinity":
+                    instanceConfig.setCpuAffinity(stringValue(node));
+                    break;
+                case "blocking-tasklet-mode":
+                    instanceConfig.setBlockingTaskletMode(BlockingTaskletMode.valueOf(stringValue(node)));
+                    break;
+                case "blocking-thread-pool-size":
+                    instanceConfig.setBlockingThreadPoolSize(intValue(node));
+                    break;
+                case "data-plane-connection-count":
+                    instanceConfig.setDataPlaneConnectionCount(intValue(node));
+                    break;
+                case "shared-memory-buffer-size":
+                    instanceConfig.setSharedMemoryBufferSize(intValue(node));
+                    break;
+                case "spill-threshold":
+                    instanceConfig.setSpillThreshold(intValue(node));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
@@ -211,6 +240,9 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "receive-window-multiplier":
                     config.setReceiveWindowMultiplier(intValue(child));
                     break;
+                case "packet-compression-enabled":
+                    config.setPacketCompressionEnabled(booleanValue(child));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
@@ -222,6 +254,14 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
         return Integer.parseInt(stringValue(node));
     }
 
+    private boolean booleanValue(Node node) {
+        return Boolean.parseBoolean(stringValue(node));
+    }
+
+    private long longValue(Node node) {
+        return Long.parseLong(stringValue(node));
+    }
+
     private String stringValue(Node node) {
         return getTextContent(node);
     }
@@ -89,11 +89,22 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
     }
 
     public static <T> ProcessorMetaSupplier readMapP(@Nonnull String mapName) {
-        return new LocalClusterMetaSupplier<T>(
+        return new LocalClusterMetaSupplier<T>(true,
                 instance -> partition -> ((MapProxyImpl) instance.getMap(mapName))
                         .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
     }
 
+    /**
+     * Returns whether the given meta-supplier reads the entries of a map in
+     * the local cluster as they are, without a projection. Each member then
+     * emits only the entries of the partitions it owns and all the entries
+     * with equal keys are emitted on the same member.
+     */
+    public static boolean isLocalMapEntriesSource(@Nonnull ProcessorMetaSupplier metaSupplier) {
+        return metaSupplier instanceof LocalClusterMetaSupplier
+                && ((LocalClusterMetaSupplier) metaSupplier).emitsMapEntries;
+    }
+
     public static <T> ProcessorMetaSupplier readRemoteMapP(
             @Nonnull String mapName, @Nonnull ClientConfig clientConfig
     ) {
@@ -107,7 +118,7 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
             @Nonnull Predicate<K, V> predicate,
             @Nonnull Projection<Map.Entry<K, V>, T> projection
     ) {
-        return new LocalClusterMetaSupplier<T>(
+        return new LocalClusterMetaSupplier<T>(false,
                 instance -> partition -> {
                     MapProxyImpl map = (MapProxyImpl) instance.<K, V>getMap(mapName);
                     return map.<T>iterator(FETCH_SIZE, partition, projection, predicate);
@@ -126,7 +137,7 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
     }
 
     public static ProcessorMetaSupplier readCacheP(@Nonnull String cacheName) {
-        return new LocalClusterMetaSupplier<>(
+        return new LocalClusterMetaSupplier<>(false,
                 instance -> partition -> ((CacheProxy) instance.getCacheManager().getCache(cacheName))
                         .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
     }
@@ -249,13 +260,16 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
 
         static final long serialVersionUID = 1L;
 
+        private final boolean emitsMapEntries;
         private final DistributedFunction<HazelcastInstance, Function<Integer, Iterator<T>>> iteratorSupplier;
 
         private transient Map<Address, List<Integer>> addrToPartitions;
 
         LocalClusterMetaSupplier(
+                boolean emitsMapEntries,
                 DistributedFunction<HazelcastInstance, Function<Integer, Iterator<T>>> iteratorSupplier
         ) {
+            this.emitsMapEntries = emitsMapEntries;
             this.iteratorSupplier = iteratorSupplier;
         }
 
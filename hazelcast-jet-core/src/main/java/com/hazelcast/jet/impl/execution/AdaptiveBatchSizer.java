@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Tunes the batch size of a {@link ProcessorTasklet}: the number of items
+ * the outbox accepts in one call and the maximum number of items drained
+ * into the inbox at once. Large batches amortize the per-call overhead of a
+ * busy stream, small batches keep the latency low for a sparse stream and
+ * let the other tasklets of a cooperative worker run sooner.
+ * <p>
+ * After each call the size is:<ul>
+ *     <li>halved if the call took longer than {@link #MAX_CALL_NANOS},
+ *     <li>doubled if the inbox was filled up to the limit or the outbox
+ *     batch was exhausted, which means there was more data to process,
+ *     <li>slowly decreased if the drain brought less than a quarter of
+ *     the limit, which means the input queues are nearly empty.
+ * </ul>
+ * The size always stays within the bounds given to the constructor.
+ */
+final class AdaptiveBatchSizer {
+
+    /**
+     * Calls taking longer than this shrink the batch.
+     */
+    static final long MAX_CALL_NANOS = MILLISECONDS.toNanos(1);
+
+    private static final int DECAY_SHIFT = 3;
+
+    private final int minSize;
+    private final int maxSize;
+    private int size;
+
+    AdaptiveBatchSizer(int minSize, int maxSize) {
+        assert 0 < minSize && minSize <= maxSize : "minSize=" + minSize + ", maxSize=" + maxSize;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.size = minSize;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param drainedCount number of items drained to the inbox in the call or
+     *                     -1, if the inbox wasn't filled
+     * @param outboxExhausted whether the call used up the outbox batch
+     * @param callNanos duration of the call
+     */
+    void update(int drainedCount, boolean outboxExhausted, long callNanos) {
+        if (callNanos > MAX_CALL_NANOS) {
+            size = Math.max(minSize, size >> 1);
+        } else if (outboxExhausted || drainedCount >= size) {
+            size = (int) Math.min(maxSize, (long) size << 1);
+        } else if (drainedCount >= 0 && drainedCount < size >> 2) {
+            size = Math.max(minSize, size - (size >> DECAY_SHIFT));
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
 import com.hazelcast.internal.util.concurrent.Pipe;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
@@ -24,12 +25,15 @@ import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.util.function.Predicate;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.function.Consumer;
 
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.NO_NEW_WM;
+import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.toWatermark;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 
 /**
@@ -45,11 +49,14 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     private final ConcurrentConveyor<Object> conveyor;
     private final ProgressTracker tracker = new ProgressTracker();
     private final ItemDetector itemDetector = new ItemDetector();
+    private final WakeUpSignal[] producerSignals;
 
     private final WatermarkCoalescer watermarkCoalescer;
     private final BitSet receivedBarriers; // indicates if current snapshot is received on the queue
     private long pendingSnapshotId; // next snapshot barrier to emit
     private long numActiveQueues; // number of active queues remaining
+    private int firstQueueIndex; // the queue to start the next drain with
+    private Watermark lastReceivedWm; // reused when forwarding a watermark with the same timestamp
 
     /**
      * @param waitForSnapshot If true, queues won't be drained until the same
@@ -58,7 +65,21 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      */
     public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
                                        long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis) {
+        this(conveyor, ordinal, priority, lastSnapshotId, waitForSnapshot, maxWatermarkRetainMillis, null);
+    }
+
+    /**
+     * @param producerSignals signals of the tasklets feeding the conveyor, indexed
+     *                        by queue index. A producer is signalled when items are
+     *                        drained from its queue so it can continue after
+     *                        having hit a full queue. May be {@code null}.
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
+                                       long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis,
+                                       WakeUpSignal[] producerSignals) {
         this.conveyor = conveyor;
+        this.producerSignals = producerSignals;
         this.ordinal = ordinal;
         this.priority = priority;
         this.waitForSnapshot = waitForSnapshot;
@@ -82,13 +103,52 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
 
     @Override
     public ProgressState drainTo(Consumer<Object> dest) {
-        return drainTo(watermarkCoalescer.getTime(), dest);
+        itemDetector.consumerDest = dest;
+        try {
+            return drainTo(watermarkCoalescer.getTime(), Integer.MAX_VALUE);
+        } finally {
+            itemDetector.consumerDest = null;
+        }
+    }
+
+    @Override
+    public ProgressState drainTo(Collection<Object> dest) {
+        return drainTo(dest, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Drains the queues starting where the last limited drain stopped, so
+     * that a small limit doesn't starve the queues with higher indices.
+     */
+    @Override
+    public ProgressState drainTo(Collection<Object> dest, int limit) {
+        itemDetector.collectionDest = dest;
+        try {
+            return drainTo(watermarkCoalescer.getTime(), limit);
+        } finally {
+            itemDetector.collectionDest = null;
+        }
     }
 
     // package-visible for testing
     ProgressState drainTo(long now, Consumer<Object> dest) {
+        itemDetector.consumerDest = dest;
+        try {
+            return drainTo(now, Integer.MAX_VALUE);
+        } finally {
+            itemDetector.consumerDest = null;
+        }
+    }
+
+    /**
+     * Drains the queues into the destination set in the {@link #itemDetector}.
+     */
+    private ProgressState drainTo(long now, int limit) {
         tracker.reset();
-        for (int queueIndex = 0; queueIndex < conveyor.queueCount(); queueIndex++) {
+        final int queueCount = conveyor.queueCount();
+        int remaining = limit;
+        for (int i = 0; i < queueCount; i++) {
+            final int queueIndex = (firstQueueIndex + i) % queueCount;
             final QueuedPipe<Object> q = conveyor.queue(queueIndex);
             if (q == null) {
                 continue;
@@ -99,23 +159,29 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 continue;
             }
 
-            ProgressState result = drainQueue(q, dest);
+            ProgressState result = drainQueue(q, remaining);
+            remaining -= itemDetector.count;
+            final BroadcastItem specialItem = itemDetector.item;
             tracker.mergeWith(result);
+            if (producerSignals != null && result.isMadeProgress() && producerSignals[queueIndex] != null) {
+                producerSignals[queueIndex].wakeUp();
+            }
 
-            if (itemDetector.item == DONE_ITEM) {
+            if (specialItem == DONE_ITEM) {
                 conveyor.removeQueue(queueIndex);
                 receivedBarriers.clear(queueIndex);
                 numActiveQueues--;
-                if (maybeEmitWm(watermarkCoalescer.queueDone(queueIndex), dest)) {
+                if (maybeEmitWm(watermarkCoalescer.queueDone(queueIndex))) {
                     return MADE_PROGRESS;
                 }
-            } else if (itemDetector.item instanceof Watermark) {
-                long wmTimestamp = ((Watermark) itemDetector.item).timestamp();
-                if (maybeEmitWm(watermarkCoalescer.observeWm(now, queueIndex, wmTimestamp), dest)) {
+            } else if (specialItem instanceof Watermark) {
+                lastReceivedWm = (Watermark) specialItem;
+                long wmTimestamp = lastReceivedWm.timestamp();
+                if (maybeEmitWm(watermarkCoalescer.observeWm(now, queueIndex, wmTimestamp))) {
                     return MADE_PROGRESS;
                 }
-            } else if (itemDetector.item instanceof SnapshotBarrier) {
-                observeBarrier(queueIndex, ((SnapshotBarrier) itemDetector.item).snapshotId());
+            } else if (specialItem instanceof SnapshotBarrier) {
+                observeBarrier(queueIndex, ((SnapshotBarrier) specialItem).snapshotId());
             } else if (result.isMadeProgress()) {
                 watermarkCoalescer.observeEvent(queueIndex);
             }
@@ -124,19 +190,24 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 return tracker.toProgressState();
             }
 
-            if (itemDetector.item != null) {
+            if (specialItem != null) {
                 // if we have received the current snapshot from all active queues, forward it
                 if (receivedBarriers.cardinality() == numActiveQueues) {
-                    dest.accept(new SnapshotBarrier(pendingSnapshotId));
+                    itemDetector.emit(new SnapshotBarrier(pendingSnapshotId));
                     pendingSnapshotId++;
                     receivedBarriers.clear();
                     return MADE_PROGRESS;
                 }
             }
+
+            if (remaining <= 0) {
+                firstQueueIndex = (queueIndex + 1) % queueCount;
+                break;
+            }
         }
 
         // try to emit WM based on history
-        if (maybeEmitWm(watermarkCoalescer.checkWmHistory(now), dest)) {
+        if (maybeEmitWm(watermarkCoalescer.checkWmHistory(now))) {
             return MADE_PROGRESS;
         }
 
@@ -146,9 +217,9 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         return tracker.toProgressState();
     }
 
-    private boolean maybeEmitWm(long timestamp, Consumer<Object> dest) {
+    private boolean maybeEmitWm(long timestamp) {
         if (timestamp != NO_NEW_WM) {
-            dest.accept(new Watermark(timestamp));
+            itemDetector.emit(toWatermark(timestamp, lastReceivedWm));
             return true;
         }
         return false;
@@ -160,16 +231,54 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     }
 
     /**
-     * Drains the supplied queue into a {@code dest} collection, up to the next
-     * {@link Watermark} or {@link SnapshotBarrier}. Also updates the {@code tracker} with new status.
-     *
+     * Returns {@link #queuesSize()} relative to {@link #queuesCapacity()}.
      */
-    private ProgressState drainQueue(Pipe<Object> queue, Consumer<Object> dest) {
-        itemDetector.reset(dest);
+    @Override
+    public double fillRatio() {
+        long capacity = queuesCapacity();
+        return capacity == 0 ? 0 : (double) queuesSize() / capacity;
+    }
 
-        int drainedCount = queue.drain(itemDetector);
+    /**
+     * Returns the number of items waiting in the conveyor's queues. Safe to
+     * call from any thread.
+     */
+    @Probe
+    long queuesSize() {
+        long size = 0;
+        for (int i = 0; i < conveyor.queueCount(); i++) {
+            QueuedPipe<Object> q = conveyor.queue(i);
+            if (q != null) {
+                size += q.capacity() - q.remainingCapacity();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total capacity of the conveyor's remaining queues. Safe to
+     * call from any thread.
+     */
+    @Probe
+    long queuesCapacity() {
+        long capacity = 0;
+        for (int i = 0; i < conveyor.queueCount(); i++) {
+            QueuedPipe<Object> q = conveyor.queue(i);
+            if (q != null) {
+                capacity += q.capacity();
+            }
+        }
+        return capacity;
+    }
 
-        itemDetector.dest = null;
+    /**
+     * Drains the supplied queue into the destination, up to the next {@link
+     * Watermark}, {@link SnapshotBarrier} or {@link DoneItem}, which is stored
+     * in {@link ItemDetector#item}. At most {@code limit} items are taken.
+     */
+    private ProgressState drainQueue(Pipe<Object> queue, int limit) {
+        itemDetector.reset(limit);
+        int drainedCount = queue.drain(itemDetector);
         return ProgressState.valueOf(drainedCount > 0, itemDetector.item == DONE_ITEM);
     }
 
@@ -185,25 +294,42 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      * Drains a concurrent conveyor's queue while watching for {@link Watermark}s
      * and {@link SnapshotBarrier}s.
      * When encountering either of them it prevents draining more items.
+     * <p>
+     * It passes the items straight to the destination, a collection for the
+     * tasklets filling their inbox or a consumer for the others, so that each
+     * item costs a single call on top of the queue's drain loop.
      */
     private static final class ItemDetector implements Predicate<Object> {
-        Consumer<Object> dest;
+        Collection<Object> collectionDest;
+        Consumer<Object> consumerDest;
         BroadcastItem item;
+        int count;
+        private int limit;
 
-        void reset(Consumer<Object> newDest) {
-            dest = newDest;
+        void reset(int newLimit) {
             item = null;
+            count = 0;
+            limit = newLimit;
+        }
+
+        void emit(Object o) {
+            if (collectionDest != null) {
+                collectionDest.add(o);
+            } else {
+                consumerDest.accept(o);
+            }
         }
 
         @Override
         public boolean test(Object o) {
+            count++;
             if (o instanceof Watermark || o instanceof SnapshotBarrier || o == DONE_ITEM) {
                 assert item == null : "Received multiple special items without a call to reset(): " + item;
                 item = (BroadcastItem) o;
                 return false;
             }
-            dest.accept(o);
-            return true;
+            emit(o);
+            return count < limit;
         }
     }
 }
@@ -25,12 +25,23 @@ public class ConveyorCollector implements OutboundCollector {
     private final ConcurrentConveyor<Object> conveyor;
     private final int queueIndex;
     private final int[] partitions;
+    private final WakeUpSignal consumerSignal;
 
-    @SuppressFBWarnings("EI_EXPOSE_REP")
     public ConveyorCollector(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions) {
+        this(conveyor, queueIndex, partitions, null);
+    }
+
+    /**
+     * @param consumerSignal signal of the tasklet draining the conveyor, raised
+     *                       after each successful offer. May be {@code null}.
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public ConveyorCollector(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions,
+                             WakeUpSignal consumerSignal) {
         this.conveyor = conveyor;
         this.queueIndex = queueIndex;
         this.partitions = partitions;
+        this.consumerSignal = consumerSignal;
     }
 
     @Override
@@ -50,7 +61,13 @@ public class ConveyorCollector implements OutboundCollector {
     }
 
     protected ProgressState offerToConveyor(Object item) {
-        return conveyor.offer(queueIndex, item) ? ProgressState.DONE : ProgressState.NO_PROGRESS;
+        if (!conveyor.offer(queueIndex, item)) {
+            return ProgressState.NO_PROGRESS;
+        }
+        if (consumerSignal != null) {
+            consumerSignal.wakeUp();
+        }
+        return ProgressState.DONE;
     }
 }
 
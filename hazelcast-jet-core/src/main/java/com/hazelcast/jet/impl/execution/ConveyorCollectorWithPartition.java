@@ -22,8 +22,9 @@ import com.hazelcast.jet.impl.util.ProgressState;
 
 public class ConveyorCollectorWithPartition extends ConveyorCollector {
 
-    public ConveyorCollectorWithPartition(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions) {
-        super(conveyor, queueIndex, partitions);
+    public ConveyorCollectorWithPartition(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions,
+                                          WakeUpSignal consumerSignal) {
+        super(conveyor, queueIndex, partitions, consumerSignal);
     }
 
     @Override
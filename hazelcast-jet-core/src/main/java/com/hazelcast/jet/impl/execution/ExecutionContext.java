@@ -17,13 +17,11 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.internal.metrics.MetricsRegistry;
-import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.impl.JetService;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
-import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
@@ -62,7 +60,7 @@ public class ExecutionContext {
     private Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> senderMap = emptyMap();
 
     private List<ProcessorSupplier> procSuppliers = emptyList();
-    private List<Processor> processors = emptyList();
+    private List<Object> probeSources = emptyList();
 
     private List<Tasklet> tasklets;
 
@@ -92,7 +90,7 @@ public class ExecutionContext {
         // Must be populated early, so all processor suppliers are
         // available to be completed in the case of init failure
         procSuppliers = unmodifiableList(plan.getProcessorSuppliers());
-        processors = plan.getProcessors();
+        probeSources = plan.getProbeSources();
         snapshotContext = new SnapshotContext(nodeEngine.getLogger(SnapshotContext.class), jobId, executionId,
                 plan.lastSnapshotId(), plan.getJobConfig().getProcessingGuarantee());
         plan.initialize(nodeEngine, jobId, executionId, snapshotContext);
@@ -144,7 +142,7 @@ public class ExecutionContext {
             }
         });
         MetricsRegistry metricsRegistry = ((NodeEngineImpl) nodeEngine).getMetricsRegistry();
-        processors.forEach(metricsRegistry::deregister);
+        probeSources.forEach(metricsRegistry::deregister);
     }
 
     /**
@@ -174,11 +172,11 @@ public class ExecutionContext {
         }
     }
 
-    public void handlePacket(int vertexId, int ordinal, Address sender, BufferObjectDataInput in) {
+    public void handlePacket(int vertexId, int ordinal, Address sender, byte[] payload) {
         receiverMap.get(vertexId)
                    .get(ordinal)
                    .get(sender)
-                   .receiveStreamPacket(in);
+                   .receiveStreamPacket(payload);
     }
 
     public boolean hasParticipant(Address member) {
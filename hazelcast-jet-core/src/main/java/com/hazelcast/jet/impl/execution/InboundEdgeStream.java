@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.impl.util.ProgressState;
 
+import java.util.Collection;
 import java.util.function.Consumer;
 
 /**
@@ -33,5 +34,33 @@ public interface InboundEdgeStream {
 
     ProgressState drainTo(Consumer<Object> dest);
 
+    /**
+     * Drains the available items into the given collection, the same way as
+     * {@link #drainTo(Consumer)} does. Implementations can override it to
+     * add the items to the collection directly, without a consumer between
+     * them.
+     */
+    default ProgressState drainTo(Collection<Object> dest) {
+        return drainTo((Consumer<Object>) dest::add);
+    }
+
+    /**
+     * Drains the available items into the given collection like {@link
+     * #drainTo(Collection)}, but stops after about {@code limit} items. The
+     * limit is a hint: implementations may ignore it, or exceed it by the
+     * watermark or snapshot barrier they emit.
+     */
+    default ProgressState drainTo(Collection<Object> dest, int limit) {
+        return drainTo(dest);
+    }
+
     boolean isDone();
+
+    /**
+     * Returns how full the stream's buffers are, from 0 (empty) to 1 (full).
+     * Implementations without bounded buffers return 0.
+     */
+    default double fillRatio() {
+        return 0;
+    }
 }
@@ -192,7 +192,7 @@ public interface OutboundCollector {
         @Override
         public ProgressState offer(Object item) {
             if (partitionId == -1) {
-                partitionId = partitioner.getPartition(item, partitionLookupTable.length);
+                partitionId = partitionOf(item);
                 assert partitionId >= 0 && partitionId < partitionLookupTable.length
                         : "Partition number out of range: " + partitionId + ", offending item: " + item;
             }
@@ -210,5 +210,79 @@ public interface OutboundCollector {
                     + "requested partitionId is not present";
             return collector.offer(item, partitionId);
         }
+
+        /**
+         * Returns the partition to route the item to, called once per item.
+         */
+        int partitionOf(Object item) {
+            return partitioner.getPartition(item, partitionLookupTable.length);
+        }
+    }
+
+    /**
+     * A {@link Partitioned} collector that spreads the items of hot
+     * partitions over all the partitions, see {@link
+     * com.hazelcast.jet.core.Edge#splitHotKeys()}.
+     * <p>
+     * It counts the items per partition. The counts are halved periodically,
+     * so they follow the recent traffic. A partition is hot while its count
+     * is above the total count divided by the number of downstream
+     * processors: the processor in charge of it then gets more than its fair
+     * share from this partition alone.
+     */
+    class HotKeySplitting extends Partitioned {
+
+        /**
+         * The number of items after which the counts are halved.
+         */
+        static final int DECAY_PERIOD = 1 << 14;
+
+        /**
+         * The minimum total count to consider any partition hot.
+         */
+        static final int MIN_SAMPLE_SIZE = 1 << 10;
+
+        private final int[] counts;
+        private final int destProcessorCount;
+        private int totalCount;
+        private int countUntilDecay = DECAY_PERIOD;
+        private int spreadCursor;
+
+        public HotKeySplitting(OutboundCollector[] collectors, Partitioner partitioner, int partitionCount,
+                               int destProcessorCount) {
+            super(collectors, partitioner, partitionCount);
+            this.counts = new int[partitionCount];
+            this.destProcessorCount = destProcessorCount;
+        }
+
+        @Override
+        int partitionOf(Object item) {
+            final int partitionId = super.partitionOf(item);
+            counts[partitionId]++;
+            totalCount++;
+            if (--countUntilDecay == 0) {
+                decay();
+            }
+            if (!isHot(partitionId)) {
+                return partitionId;
+            }
+            if (++spreadCursor == counts.length) {
+                spreadCursor = 0;
+            }
+            return spreadCursor;
+        }
+
+        boolean isHot(int partitionId) {
+            return totalCount >= MIN_SAMPLE_SIZE && (long) counts[partitionId] * destProcessorCount > totalCount;
+        }
+
+        private void decay() {
+            countUntilDecay = DECAY_PERIOD;
+            totalCount = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] >>= 1;
+                totalCount += counts[i];
+            }
+        }
     }
 }
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
@@ -28,6 +29,7 @@ import java.util.BitSet;
 import java.util.Map.Entry;
 import java.util.stream.IntStream;
 
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.util.Preconditions.checkPositive;
 
@@ -36,14 +38,15 @@ public class OutboxImpl implements Outbox {
     private final OutboundCollector[] outstreams;
     private final ProgressTracker progTracker;
     private final SerializationService serializationService;
-    private final int batchSize;
 
     private final int[] singleEdge = {0};
     private final int[] allEdges;
     private final int[] allEdgesAndSnapshot;
     private final int[] snapshotEdge;
     private final BitSet broadcastTracker;
+    private final Counter emittedCount = newSwCounter();
     private Entry<Data, Data> pendingSnapshotEntry;
+    private int batchSize;
     private int numRemainingInBatch;
 
     /**
@@ -112,6 +115,7 @@ public class OutboxImpl implements Outbox {
         }
         if (done) {
             broadcastTracker.clear();
+            emittedCount.inc();
         }
         return done;
     }
@@ -143,10 +147,34 @@ public class OutboxImpl implements Outbox {
         return success;
     }
 
+    /**
+     * Returns the number of items offered successfully. Safe to call from
+     * any thread.
+     */
+    long emittedCount() {
+        return emittedCount.get();
+    }
+
     public void resetBatch() {
         numRemainingInBatch = batchSize;
     }
 
+    /**
+     * Changes the batch size, effective from the next {@link #resetBatch()}.
+     */
+    void setBatchSize(int batchSize) {
+        checkPositive(batchSize, "batchSize must be positive");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Tells whether all the items allowed since the last {@link
+     * #resetBatch()} were offered.
+     */
+    boolean isBatchExhausted() {
+        return numRemainingInBatch == 0;
+    }
+
     private ProgressState doOffer(OutboundCollector collector, Object item) {
         if (item instanceof BroadcastItem) {
             return collector.offerBroadcast((BroadcastItem) item);
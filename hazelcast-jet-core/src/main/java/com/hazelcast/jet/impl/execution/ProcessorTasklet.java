@@ -16,6 +16,8 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Processor;
@@ -30,6 +32,7 @@ import com.hazelcast.util.Preconditions;
 import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Map.Entry;
@@ -37,6 +40,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.TreeMap;
 
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE;
 import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE_EDGE;
@@ -49,14 +53,22 @@ import static com.hazelcast.jet.impl.execution.ProcessorState.PROCESS_WATERMARK;
 import static com.hazelcast.jet.impl.execution.ProcessorState.SAVE_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.IDLE_MESSAGE;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.NO_NEW_WM;
+import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.toWatermark;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Comparator.comparing;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toCollection;
 
 public class ProcessorTasklet implements Tasklet {
 
     private static final int OUTBOX_BATCH_SIZE = 2048;
+    private static final int PERCENT = 100;
+    // number of inbox fills after which an undrained input scores like a full one
+    private static final int STARVATION_FILL_COUNT = 16;
+    // calls are timed one in this many, unless the batch sizer needs every call timed;
+    // also used by the other tasklets reporting callNanos
+    static final int CALL_TIMING_SAMPLE_RATE = 64;
     private final ProgressTracker progTracker = new ProgressTracker();
     private final OutboundEdgeStream[] outstreams;
     private final OutboxImpl outbox;
@@ -69,6 +81,32 @@ public class ProcessorTasklet implements Tasklet {
     private final ArrayDequeInbox inbox = new ArrayDequeInbox(progTracker);
     private final Queue<ArrayList<InboundEdgeStream>> instreamGroupQueue;
     private final WatermarkCoalescer watermarkCoalescer;
+    private final WakeUpSignal wakeUpSignal;
+    private int localityGroup = -1;
+    private AdaptiveBatchSizer batchSizer; // null if the batch size is fixed
+    private int drainLimit = Integer.MAX_VALUE;
+    private int drainedCount;
+    private boolean backlogAwareScheduling;
+    private final long[] ordinalWms; // the last watermark received on each ordinal
+    private final long[] ordinalLastFill; // the value of fillCount when each ordinal was last drained
+    private long fillCount;
+    private long wmThrottleIntervalNanos; // 0 if watermarks aren't throttled
+    private long wmThrottleMinDelta;
+    private long lastWmForwardTime;
+    private Watermark heldWatermark; // the watermark held back by throttling, if any
+    private boolean isPendingWmReleased; // true if the pending watermark passed the throttling
+    private Watermark lastReceivedWm;
+
+    @Probe
+    private final Counter itemsIn = newSwCounter();
+    @Probe
+    private final Counter callCount = newSwCounter();
+    @Probe
+    private final Counter idleCallCount = newSwCounter();
+    @Probe
+    private final Counter callNanos = newSwCounter(); // estimated from sampled calls
+    @Probe
+    private volatile long lastForwardedWm = Long.MIN_VALUE;
 
     private int numActiveOrdinals; // counter for remaining active ordinals
     private CircularListCursor<InboundEdgeStream> instreamCursor;
@@ -84,8 +122,25 @@ public class ProcessorTasklet implements Tasklet {
                             @Nonnull SnapshotContext ssContext,
                             @Nonnull OutboundCollector ssCollector,
                             int maxWatermarkRetainMillis) {
+        this(context, processor, instreams, outstreams, ssContext, ssCollector, maxWatermarkRetainMillis,
+                new WakeUpSignal());
+    }
+
+    /**
+     * @param wakeUpSignal the signal the producers of {@code instreams} raise when
+     *                     they hand over data
+     */
+    public ProcessorTasklet(@Nonnull ProcCtx context,
+                            @Nonnull Processor processor,
+                            @Nonnull List<? extends InboundEdgeStream> instreams,
+                            @Nonnull List<? extends OutboundEdgeStream> outstreams,
+                            @Nonnull SnapshotContext ssContext,
+                            @Nonnull OutboundCollector ssCollector,
+                            int maxWatermarkRetainMillis,
+                            @Nonnull WakeUpSignal wakeUpSignal) {
         Preconditions.checkNotNull(processor, "processor");
         this.context = context;
+        this.wakeUpSignal = wakeUpSignal;
         this.processor = processor;
         this.numActiveOrdinals = instreams.size();
         this.instreamGroupQueue = instreams
@@ -108,6 +163,10 @@ public class ProcessorTasklet implements Tasklet {
         pendingSnapshotId = ssContext.lastSnapshotId() + 1;
 
         watermarkCoalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, instreams.size());
+        int ordinalCount = instreams.stream().mapToInt(InboundEdgeStream::ordinal).max().orElse(-1) + 1;
+        ordinalWms = new long[ordinalCount];
+        Arrays.fill(ordinalWms, Long.MIN_VALUE);
+        ordinalLastFill = new long[ordinalCount];
     }
 
     private OutboxImpl createOutbox(OutboundCollector ssCollector) {
@@ -131,14 +190,33 @@ public class ProcessorTasklet implements Tasklet {
 
     @Override @Nonnull
     public ProgressState call() {
-        return call(watermarkCoalescer.getTime());
+        return call(wmThrottleIntervalNanos > 0 ? System.nanoTime() : watermarkCoalescer.getTime());
     }
 
     // package-visible for testing
     ProgressState call(long now) {
         progTracker.reset();
         outbox.resetBatch();
+        boolean isSampled = callCount.get() % CALL_TIMING_SAMPLE_RATE == 0;
+        boolean isTimed = batchSizer != null || isSampled;
+        long start = isTimed ? System.nanoTime() : 0;
+        drainedCount = -1;
         stateMachineStep(now);
+        long elapsed = isTimed ? System.nanoTime() - start : 0;
+        if (batchSizer != null) {
+            callNanos.inc(elapsed);
+        } else if (isSampled) {
+            callNanos.inc(elapsed * CALL_TIMING_SAMPLE_RATE);
+        }
+        callCount.inc();
+        if (!progTracker.isMadeProgress()) {
+            idleCallCount.inc();
+        }
+        if (batchSizer != null) {
+            batchSizer.update(drainedCount, outbox.isBatchExhausted(), elapsed);
+            drainLimit = batchSizer.size();
+            outbox.setBatchSize(drainLimit);
+        }
         return progTracker.toProgressState();
     }
 
@@ -149,12 +227,18 @@ public class ProcessorTasklet implements Tasklet {
                 progTracker.notDone();
                 if (pendingWatermark == null) {
                     long wm = watermarkCoalescer.checkWmHistory(now);
-                    if (wm == NO_NEW_WM) {
-                        state = PROCESS_INBOX;
-                        stateMachineStep(now); // recursion
-                        break;
+                    if (wm != NO_NEW_WM) {
+                        pendingWatermark = toWatermark(wm, lastReceivedWm);
                     }
-                    pendingWatermark = new Watermark(wm);
+                }
+                if (wmThrottleIntervalNanos > 0 && !isPendingWmReleased) {
+                    pendingWatermark = throttle(pendingWatermark, now);
+                    isPendingWmReleased = pendingWatermark != null;
+                }
+                if (pendingWatermark == null) {
+                    state = PROCESS_INBOX;
+                    stateMachineStep(now); // recursion
+                    break;
                 }
                 if (pendingWatermark.equals(IDLE_MESSAGE) || processor.tryProcessWatermark(pendingWatermark)) {
                     state = EMIT_WATERMARK;
@@ -165,8 +249,13 @@ public class ProcessorTasklet implements Tasklet {
             case EMIT_WATERMARK:
                 progTracker.notDone();
                 if (outbox.offer(pendingWatermark)) {
+                    if (!pendingWatermark.equals(IDLE_MESSAGE)) {
+                        lastForwardedWm = pendingWatermark.timestamp();
+                        lastWmForwardTime = now;
+                    }
                     state = PROCESS_INBOX;
                     pendingWatermark = null;
+                    isPendingWmReleased = false;
                     stateMachineStep(now); // recursion
                 }
                 break;
@@ -175,6 +264,8 @@ public class ProcessorTasklet implements Tasklet {
                 progTracker.notDone();
                 if (inbox.isEmpty() && (isSnapshotInbox() || processor.tryProcess())) {
                     fillInbox(now);
+                    drainedCount = inbox.size();
+                    itemsIn.inc(drainedCount);
                 }
                 if (!inbox.isEmpty()) {
                     if (isSnapshotInbox()) {
@@ -196,6 +287,13 @@ public class ProcessorTasklet implements Tasklet {
                         // we have an empty inbox and received the current snapshot barrier from all active ordinals
                         state = SAVE_SNAPSHOT;
                         return;
+                    } else if (numActiveOrdinals == 0 && heldWatermark != null) {
+                        // forward the watermark held back by throttling before completing
+                        pendingWatermark = heldWatermark;
+                        heldWatermark = null;
+                        isPendingWmReleased = true;
+                        progTracker.madeProgress();
+                        state = PROCESS_WATERMARK;
                     } else if (numActiveOrdinals == 0) {
                         progTracker.madeProgress();
                         state = COMPLETE;
@@ -272,6 +370,10 @@ public class ProcessorTasklet implements Tasklet {
         if (instreamCursor == null) {
             return;
         }
+        fillCount++;
+        if (backlogAwareScheduling) {
+            moveToMostBackloggedInstream();
+        }
         final InboundEdgeStream first = instreamCursor.value();
         ProgressState result;
         do {
@@ -279,12 +381,12 @@ public class ProcessorTasklet implements Tasklet {
             result = NO_PROGRESS;
 
             // skip ordinals where a snapshot barrier has already been received
-            if (ssContext != null && ssContext.processingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
-                    && receivedBarriers.get(currInstream.ordinal())) {
+            if (isWaitingForOtherBarriers(currInstream)) {
                 instreamCursor.advance();
                 continue;
             }
-            result = currInstream.drainTo(inbox::add);
+            result = currInstream.drainTo(inbox, drainLimit);
+            ordinalLastFill[currInstream.ordinal()] = fillCount;
             progTracker.madeProgress(result.isMadeProgress());
 
             if (result.isDone()) {
@@ -292,7 +394,7 @@ public class ProcessorTasklet implements Tasklet {
                 receivedBarriers.clear(currInstream.ordinal());
                 long wm = watermarkCoalescer.queueDone(currInstream.ordinal());
                 if (wm != NO_NEW_WM) {
-                    pendingWatermark = new Watermark(wm);
+                    pendingWatermark = toWatermark(wm, lastReceivedWm);
                 }
                 instreamCursor.remove();
                 numActiveOrdinals--;
@@ -302,10 +404,12 @@ public class ProcessorTasklet implements Tasklet {
             Object lastItem = inbox.peekLast();
             if (lastItem instanceof Watermark) {
                 assert pendingWatermark == null;
-                long newWmValue = ((Watermark) inbox.removeLast()).timestamp();
+                lastReceivedWm = (Watermark) inbox.removeLast();
+                long newWmValue = lastReceivedWm.timestamp();
+                ordinalWms[currInstream.ordinal()] = newWmValue;
                 long wm = watermarkCoalescer.observeWm(now, currInstream.ordinal(), newWmValue);
                 if (wm != NO_NEW_WM) {
-                    pendingWatermark = new Watermark(wm);
+                    pendingWatermark = toWatermark(wm, lastReceivedWm);
                 }
             } else if (lastItem instanceof SnapshotBarrier) {
                 SnapshotBarrier barrier = (SnapshotBarrier) inbox.removeLast();
@@ -322,6 +426,90 @@ public class ProcessorTasklet implements Tasklet {
         } while (!result.isMadeProgress() && instreamCursor.value() != first);
     }
 
+    /**
+     * Points the cursor to the instream of the current priority group that
+     * should be drained first. Its score is its fill ratio, plus 1 if it has
+     * items and its watermark lags behind the group's top watermark (its
+     * items hold the coalesced watermark back), plus up to 1 the longer it
+     * wasn't drained, so that an instream with few items isn't starved. The
+     * instreams after it are drained round-robin as usual if it has nothing.
+     */
+    private void moveToMostBackloggedInstream() {
+        List<InboundEdgeStream> group = instreamCursor.list();
+        if (group.size() < 2) {
+            return;
+        }
+        long topWm = Long.MIN_VALUE;
+        for (InboundEdgeStream instream : group) {
+            topWm = Math.max(topWm, ordinalWms[instream.ordinal()]);
+        }
+        InboundEdgeStream mostBacklogged = null;
+        double topScore = 0;
+        for (InboundEdgeStream instream : group) {
+            if (isWaitingForOtherBarriers(instream)) {
+                continue;
+            }
+            int ordinal = instream.ordinal();
+            double fillRatio = instream.fillRatio();
+            double score = fillRatio
+                    + Math.min(1d, (double) (fillCount - ordinalLastFill[ordinal]) / STARVATION_FILL_COUNT);
+            if (fillRatio > 0 && ordinalWms[ordinal] < topWm) {
+                score++;
+            }
+            if (score > topScore) {
+                topScore = score;
+                mostBacklogged = instream;
+            }
+        }
+        if (mostBacklogged != null) {
+            instreamCursor.moveTo(mostBacklogged);
+        }
+    }
+
+    /**
+     * Decides whether the new watermark, if any, is forwarded now or held
+     * back. A watermark is forwarded if the interval elapsed since the last
+     * forwarded one, or if it's ahead of it by at least the minimum delta.
+     * Otherwise it replaces the held watermark, which is forwarded once the
+     * interval elapses. An idle message is never held, but a held watermark
+     * is forwarded before it.
+     *
+     * @return the watermark to process and forward now or {@code null}
+     */
+    private Watermark throttle(Watermark wm, long now) {
+        if (wm == null) {
+            if (heldWatermark == null
+                    || !heldWatermark.equals(IDLE_MESSAGE) && now - lastWmForwardTime < wmThrottleIntervalNanos) {
+                return null;
+            }
+            wm = heldWatermark;
+            heldWatermark = null;
+            return wm;
+        }
+        if (wm.equals(IDLE_MESSAGE)) {
+            if (heldWatermark == null || heldWatermark.equals(IDLE_MESSAGE)) {
+                heldWatermark = null;
+                return wm;
+            }
+            Watermark held = heldWatermark;
+            heldWatermark = wm;
+            return held;
+        }
+        if (lastForwardedWm == Long.MIN_VALUE
+                || now - lastWmForwardTime >= wmThrottleIntervalNanos
+                || wmThrottleMinDelta > 0 && wm.timestamp() - lastForwardedWm >= wmThrottleMinDelta) {
+            heldWatermark = null;
+            return wm;
+        }
+        heldWatermark = wm;
+        return null;
+    }
+
+    private boolean isWaitingForOtherBarriers(InboundEdgeStream instream) {
+        return ssContext != null && ssContext.processingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
+                && receivedBarriers.get(instream.ordinal());
+    }
+
     private CircularListCursor<InboundEdgeStream> popInstreamGroup() {
         return Optional.ofNullable(instreamGroupQueue.poll())
                        .map(CircularListCursor::new)
@@ -360,4 +548,94 @@ public class ProcessorTasklet implements Tasklet {
     public boolean isCooperative() {
         return processor.isCooperative();
     }
+
+    @Override
+    public WakeUpSignal wakeUpSignal() {
+        return wakeUpSignal;
+    }
+
+    @Override
+    public int localityGroup() {
+        return localityGroup;
+    }
+
+    @Probe
+    long itemsOut() {
+        return outbox.emittedCount();
+    }
+
+    /**
+     * Returns the share of calls that made no progress, in percent.
+     */
+    @Probe
+    long idleRatio() {
+        long calls = callCount.get();
+        return calls == 0 ? 0 : idleCallCount.get() * PERCENT / calls;
+    }
+
+    /**
+     * Returns the time elapsed since the event time of the last forwarded
+     * watermark, in milliseconds. This is meaningful only if the event
+     * timestamps are wall-clock milliseconds; it is -1 before the first
+     * watermark.
+     */
+    @Probe
+    long watermarkLagMillis() {
+        long wm = lastForwardedWm;
+        return wm == Long.MIN_VALUE ? -1 : System.currentTimeMillis() - wm;
+    }
+
+    /**
+     * Returns the current adaptive batch size or -1, if the batch size is
+     * fixed.
+     */
+    @Probe
+    long batchSize() {
+        return batchSizer != null ? batchSizer.size() : -1;
+    }
+
+    public void setLocalityGroup(int localityGroup) {
+        this.localityGroup = localityGroup;
+    }
+
+    /**
+     * Limits how often the tasklet forwards the coalesced watermark, see
+     * {@link com.hazelcast.jet.config.JobConfig#setWatermarkThrottling(int,
+     * long)}. An interval of 0 disables throttling.
+     */
+    public void setWatermarkThrottling(int minIntervalMillis, long minTimestampDelta) {
+        this.wmThrottleIntervalNanos = MILLISECONDS.toNanos(minIntervalMillis);
+        this.wmThrottleMinDelta = minTimestampDelta;
+    }
+
+    /**
+     * Makes the tasklet drain the most backlogged instream of a priority
+     * group first, instead of going round-robin. See {@link
+     * com.hazelcast.jet.config.JobConfig#setBacklogAwareScheduling(boolean)}.
+     */
+    public void setBacklogAwareScheduling(boolean backlogAwareScheduling) {
+        this.backlogAwareScheduling = backlogAwareScheduling;
+    }
+
+    /**
+     * Lets the tasklet adapt its outbox batch size and inbox drain limit to
+     * the observed load, within the given bounds. If {@code minBatchSize ==
+     * maxBatchSize}, the batch size is fixed to that value. If not called,
+     * the outbox batch size is fixed to {@value #OUTBOX_BATCH_SIZE} and the
+     * inbox drain isn't limited.
+     */
+    public void setBatchSizeBounds(int minBatchSize, int maxBatchSize) {
+        Preconditions.checkPositive(minBatchSize, "minBatchSize must be positive");
+        if (maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("maxBatchSize=" + maxBatchSize + " < minBatchSize=" + minBatchSize);
+        }
+        if (minBatchSize == maxBatchSize) {
+            batchSizer = null;
+            drainLimit = Integer.MAX_VALUE;
+        } else {
+            batchSizer = new AdaptiveBatchSizer(minBatchSize, maxBatchSize);
+            drainLimit = batchSizer.size();
+        }
+        outbox.setBatchSize(batchSizer == null ? maxBatchSize : drainLimit);
+    }
 }
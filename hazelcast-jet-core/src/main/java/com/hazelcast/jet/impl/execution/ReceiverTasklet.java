@@ -16,20 +16,31 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
-import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
+import com.hazelcast.internal.util.counters.Counter;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.impl.util.LzCodec;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
 
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.jet.impl.Networking.STREAM_PACKET_HEADER_SIZE;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+import static com.hazelcast.jet.impl.execution.ProcessorTasklet.CALL_TIMING_SAMPLE_RATE;
+import static com.hazelcast.jet.impl.execution.SenderTasklet.FLAG_COMPRESSED;
+import static com.hazelcast.jet.impl.execution.SenderTasklet.FLAG_PARTITION_IDS;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.readVarInt;
 import static java.lang.Math.ceil;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -63,17 +74,47 @@ public class ReceiverTasklet implements Tasklet {
      */
     static final int INITIAL_RECEIVE_WINDOW_COMPRESSED = 800;
 
+    private static final int INITIAL_INBOX_CAPACITY = 64;
+
     /**
      * Receive Window converges towards the amount of data processed per flow-control
      * period multiplied by this number.
      */
     private final int rwinMultiplier;
     private final double flowControlPeriodNs;
+    // called when ackRequestThreshold more bytes were acked, null if disabled
+    private final Runnable ackRequester;
+    private final long ackRequestThreshold;
 
-    private final Queue<BufferObjectDataInput> incoming = new MPSCQueue<>((IdleStrategy) null);
+    private final Queue<byte[]> incoming = new MPSCQueue<>((IdleStrategy) null);
+    // reused for all received packets, holds no payload between the calls
+    private final BufferObjectDataInput packetInput;
+    private byte[] decompressBuffer = new byte[0];
     private final ProgressTracker tracker = new ProgressTracker();
-    private final ArrayDeque<ObjWithPtionIdAndSize> inbox = new ArrayDeque<>();
+
+    // The inbox is made of reusable slots, one per received item, in three
+    // parallel arrays. The items from inboxHead to inboxSize are yet to be
+    // delivered. It is refilled only after it was emptied.
+    private Object[] inboxItems = new Object[INITIAL_INBOX_CAPACITY];
+    private int[] inboxPartitionIds = new int[INITIAL_INBOX_CAPACITY];
+    private int[] inboxItemSizes = new int[INITIAL_INBOX_CAPACITY];
+    private int inboxHead;
+    private int inboxSize;
     private final OutboundCollector collector;
+    private final WakeUpSignal wakeUpSignal = new WakeUpSignal();
+
+    @Probe
+    private final Counter itemsIn = newSwCounter();
+    @Probe
+    private final Counter bytesIn = newSwCounter();
+    @Probe
+    private final Counter packetsIn = newSwCounter();
+    @Probe
+    private final Counter callCount = newSwCounter();
+    @Probe
+    private final Counter idleCallCount = newSwCounter();
+    @Probe
+    private final Counter callNanos = newSwCounter(); // estimated from sampled calls
 
     private boolean receptionDone;
 
@@ -83,6 +124,9 @@ public class ReceiverTasklet implements Tasklet {
     // read by a task scheduler thread, written by a tasklet execution thread
     private volatile long ackedSeq;
 
+    // written by the tasklet execution thread only
+    private long nextAckRequestSeq = Long.MAX_VALUE;
+
     // read and written by updateAndGetSendSeqLimitCompressed(), which is invoked sequentially by a task scheduler
     private int receiveWindowCompressed;
     private int prevAckedSeqCompressed;
@@ -90,45 +134,96 @@ public class ReceiverTasklet implements Tasklet {
 
     //                 END FLOW-CONTROL STATE
 
-    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs) {
+    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs,
+                           InternalSerializationService serializationService) {
+        this(collector, rwinMultiplier, flowControlPeriodMs, serializationService, 0, null);
+    }
+
+    /**
+     * @param ackThresholdBytes the amount of acked data after which {@code
+     *                          ackRequester} is called, see {@link
+     *                          com.hazelcast.jet.config.InstanceConfig#setFlowControlAckThresholdBytes}
+     * @param ackRequester requests a flow-control packet to be sent to the
+     *                     sender ahead of the next flow-control period, null
+     *                     to only send them periodically
+     */
+    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs,
+                           InternalSerializationService serializationService,
+                           int ackThresholdBytes, @Nullable Runnable ackRequester) {
         this.collector = collector;
+        this.packetInput = serializationService.createObjectDataInput(new byte[0]);
         this.rwinMultiplier = rwinMultiplier;
         this.flowControlPeriodNs = (double) MILLISECONDS.toNanos(flowControlPeriodMs);
         this.receiveWindowCompressed = INITIAL_RECEIVE_WINDOW_COMPRESSED;
+        this.ackRequester = ackRequester;
+        // a smaller threshold wouldn't change the reported limit
+        this.ackRequestThreshold = Math.max(ackThresholdBytes, 1L << COMPRESSED_SEQ_UNIT_LOG2);
+        if (ackRequester != null) {
+            this.nextAckRequestSeq = ackRequestThreshold;
+        }
     }
 
     @Override @Nonnull
     public ProgressState call() {
+        final boolean isSampled = callCount.get() % CALL_TIMING_SAMPLE_RATE == 0;
+        final long start = isSampled ? System.nanoTime() : 0;
+        final ProgressState result = deliverReceivedItems();
+        if (isSampled) {
+            callNanos.inc((System.nanoTime() - start) * CALL_TIMING_SAMPLE_RATE);
+        }
+        callCount.inc();
+        if (!result.isMadeProgress()) {
+            idleCallCount.inc();
+        }
+        return result;
+    }
+
+    private ProgressState deliverReceivedItems() {
         if (receptionDone) {
             return collector.offerBroadcast(DONE_ITEM);
         }
         tracker.reset();
         tracker.notDone();
-        tryFillInbox();
-        for (ObjWithPtionIdAndSize o; (o = inbox.peek()) != null; ) {
-            final Object item = o.getItem();
+        if (inboxHead == inboxSize) {
+            tryFillInbox();
+        }
+        for (; inboxHead < inboxSize; inboxHead++) {
+            final Object item = inboxItems[inboxHead];
             if (item == DONE_ITEM) {
                 receptionDone = true;
-                inbox.remove();
-                assert inbox.peek() == null : "Found something in the queue beyond the DONE_ITEM: " + inbox.remove();
+                inboxItems[inboxHead++] = null;
+                assert inboxHead == inboxSize
+                        : "Found something in the queue beyond the DONE_ITEM: " + inboxItems[inboxHead];
                 break;
             }
             ProgressState outcome = item instanceof BroadcastItem
                     ? collector.offerBroadcast((BroadcastItem) item)
-                    : collector.offer(item, o.getPartitionId());
+                    : collector.offer(item, inboxPartitionIds[inboxHead]);
             if (!outcome.isDone()) {
                 tracker.madeProgress(outcome.isMadeProgress());
                 break;
             }
             tracker.madeProgress();
-            inbox.remove();
-            ackItem(o.estimatedMemoryFootprint);
+            inboxItems[inboxHead] = null;
+            ackItem(estimatedMemoryFootprint(inboxItemSizes[inboxHead]));
         }
         return tracker.toProgressState();
     }
 
-    void receiveStreamPacket(BufferObjectDataInput packetInput) {
-        incoming.add(packetInput);
+    /**
+     * Queues a received packet for deserialization on the tasklet's thread.
+     *
+     * @param payload the packet payload, including the header written by
+     *                {@link com.hazelcast.jet.impl.Networking#createStreamPacketHeader}
+     */
+    void receiveStreamPacket(byte[] payload) {
+        incoming.add(payload);
+        wakeUpSignal.wakeUp();
+    }
+
+    @Override
+    public WakeUpSignal wakeUpSignal() {
+        return wakeUpSignal;
     }
 
     /**
@@ -189,10 +284,25 @@ public class ReceiverTasklet implements Tasklet {
         return ackedSeqCompressed + receiveWindowCompressed;
     }
 
+    /**
+     * Returns the upper limit for the compressed value of {@link
+     * SenderTasklet#sentSeq} with the current acked seq and receive window,
+     * without adapting the window. Used for the flow-control packets sent
+     * ahead of the flow-control period, must not be called concurrently with
+     * {@link #updateAndGetSendSeqLimitCompressed()}.
+     */
+    public int getSendSeqLimitCompressed() {
+        return compressSeq(ackedSeq) + receiveWindowCompressed;
+    }
+
     long ackItem(long itemWeight) {
         final long seqNow = ackedSeq;
         final long seqToBe = seqNow + itemWeight;
         ackedSeq = seqToBe;
+        if (seqToBe >= nextAckRequestSeq) {
+            nextAckRequestSeq = seqToBe + ackRequestThreshold;
+            ackRequester.run();
+        }
         return seqToBe;
     }
 
@@ -219,28 +329,82 @@ public class ReceiverTasklet implements Tasklet {
     }
 
     private void tryFillInbox() {
+        inboxHead = 0;
+        inboxSize = 0;
         try {
-            for (BufferObjectDataInput received; (received = incoming.poll()) != null; ) {
-                final int itemCount = received.readInt();
-                for (int i = 0; i < itemCount; i++) {
-                    final int mark = received.position();
-                    final Object item = received.readObject();
-                    final int itemSize = received.position() - mark;
-                    inbox.add(new ObjWithPtionIdAndSize(item, received.readInt(), itemSize));
+            for (byte[] payload; (payload = incoming.poll()) != null; ) {
+                final int flags = initPacketInput(payload);
+                final int itemCount = packetInput.readInt();
+                ensureInboxCapacity(inboxSize + itemCount);
+                for (int i = inboxSize; i < inboxSize + itemCount; i++) {
+                    final int mark = packetInput.position();
+                    inboxItems[i] = packetInput.readObject();
+                    inboxItemSizes[i] = packetInput.position() - mark;
+                }
+                if ((flags & FLAG_PARTITION_IDS) != 0) {
+                    readPartitionIdRuns(inboxSize + itemCount);
+                } else {
+                    Arrays.fill(inboxPartitionIds, inboxSize, inboxSize + itemCount, -1);
                 }
+                inboxSize += itemCount;
+                itemsIn.inc(itemCount);
+                bytesIn.inc(payload.length);
+                packetsIn.inc();
                 tracker.madeProgress();
             }
         } catch (IOException e) {
             throw rethrow(e);
+        } finally {
+            // let the last payload be garbage-collected
+            packetInput.clear();
+        }
+    }
+
+    private void ensureInboxCapacity(int capacity) {
+        if (capacity <= inboxItems.length) {
+            return;
         }
+        final int newCapacity = Math.max(capacity, 2 * inboxItems.length);
+        inboxItems = Arrays.copyOf(inboxItems, newCapacity);
+        inboxPartitionIds = Arrays.copyOf(inboxPartitionIds, newCapacity);
+        inboxItemSizes = Arrays.copyOf(inboxItemSizes, newCapacity);
     }
 
-    private static class ObjWithPtionIdAndSize extends ObjectWithPartitionId {
-        final long estimatedMemoryFootprint;
+    /**
+     * Reads the partition ID runs of the current packet into the slots from
+     * {@code inboxSize} up to {@code end}.
+     */
+    private void readPartitionIdRuns(int end) throws IOException {
+        for (int i = inboxSize; i < end; ) {
+            final int partitionId = readVarInt(packetInput) - 1;
+            final int runEnd = i + readVarInt(packetInput);
+            if (runEnd > end) {
+                throw new JetException("Partition ID runs exceed the item count of the packet");
+            }
+            Arrays.fill(inboxPartitionIds, i, runEnd, partitionId);
+            i = runEnd;
+        }
+    }
 
-        ObjWithPtionIdAndSize(Object item, int partitionId, int itemBlobSize) {
-            super(item, partitionId);
-            this.estimatedMemoryFootprint = estimatedMemoryFootprint(itemBlobSize);
+    /**
+     * Positions the packet input at the item count, decompressing the packet
+     * if needed, and returns the flags of the packet.
+     */
+    private int initPacketInput(byte[] payload) throws IOException {
+        final byte flags = payload[STREAM_PACKET_HEADER_SIZE];
+        packetInput.init(payload, STREAM_PACKET_HEADER_SIZE + 1);
+        if ((flags & FLAG_COMPRESSED) == 0) {
+            return flags;
+        }
+        final int uncompressedLength = packetInput.readInt();
+        final int compressedStart = packetInput.position();
+        if (decompressBuffer.length < uncompressedLength) {
+            decompressBuffer = new byte[uncompressedLength];
         }
+        LzCodec.decompress(payload, compressedStart, payload.length - compressedStart,
+                decompressBuffer, 0, uncompressedLength);
+        // the reading is driven by the item count, the rest of the buffer doesn't matter
+        packetInput.init(decompressBuffer, 0);
+        return flags;
     }
 }
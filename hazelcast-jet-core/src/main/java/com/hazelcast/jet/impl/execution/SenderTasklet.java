@@ -16,6 +16,10 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.Counter;
+import com.hazelcast.jet.impl.DataPlane.DataConnection;
+import com.hazelcast.jet.impl.util.LzCodec;
 import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
@@ -27,58 +31,148 @@ import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
 
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.jet.impl.Networking.createStreamPacketHeader;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+import static com.hazelcast.jet.impl.execution.ProcessorTasklet.CALL_TIMING_SAMPLE_RATE;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.compressSeq;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.estimatedMemoryFootprint;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
 import static com.hazelcast.jet.impl.util.Util.createObjectDataOutput;
 import static com.hazelcast.jet.impl.util.Util.getMemberConnection;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.jet.impl.util.Util.writeVarInt;
+import static java.nio.ByteOrder.BIG_ENDIAN;
 
+/**
+ * Sends to a remote member the data associated with a single edge. A
+ * packet consists of:
+ * <ol><li>
+ *     the header written by {@link
+ *     com.hazelcast.jet.impl.Networking#createStreamPacketHeader}
+ * </li><li>
+ *     a byte with the {@link #FLAG_COMPRESSED} and {@link
+ *     #FLAG_PARTITION_IDS} flags
+ * </li><li>
+ *     if compressed, the int length of the uncompressed rest of the packet
+ * </li><li>
+ *     the int item count, followed by the serialized items
+ * </li><li>
+ *     if partition IDs are present, the runs of equal partition IDs
+ *     written by {@code writePartitionIdRuns()}
+ * </li></ol>
+ */
 public class SenderTasklet implements Tasklet {
 
+    /**
+     * Flag in the byte following the packet header: the rest of the packet
+     * is compressed and preceded by its uncompressed length.
+     */
+    static final byte FLAG_COMPRESSED = 1;
+    /**
+     * Flag in the byte following the packet header: the items are followed by
+     * their partition IDs, encoded as runs of equal IDs. Without it the
+     * receiver uses -1 for all the items.
+     */
+    static final byte FLAG_PARTITION_IDS = 1 << 1;
+
+    private static final int INITIAL_PARTITION_IDS_LENGTH = 64;
+
     private final Connection connection;
+    private final DataConnection dataConnection; // null if the member connection is used
     private final Queue<Object> inbox = new ArrayDeque<>();
     private final ProgressTracker progTracker = new ProgressTracker();
     private final InboundEdgeStream inboundEdgeStream;
     private final BufferObjectDataOutput outputBuffer;
     private final int bufPosPastHeader;
+    private final boolean writePartitionIds;
+    // partition IDs of the items in the packet being written
+    private int[] partitionIds = new int[0];
+    private final LzCodec codec; // null if the packets aren't compressed
+    private byte[] compressBuffer = new byte[0];
     private final int packetSizeLimit;
+    private final WakeUpSignal wakeUpSignal = new WakeUpSignal();
+
+    @Probe
+    private final Counter itemsOut = newSwCounter();
+    @Probe
+    private final Counter bytesOut = newSwCounter();
+    @Probe
+    private final Counter packetsOut = newSwCounter();
+    @Probe
+    private final Counter callCount = newSwCounter();
+    @Probe
+    private final Counter idleCallCount = newSwCounter();
+    @Probe
+    private final Counter callNanos = newSwCounter(); // estimated from sampled calls
 
     private boolean instreamExhausted;
     // read and written by Jet thread
     private long sentSeq;
+    // the number of the last payload queued to the dataConnection
+    private long lastQueuedPayload;
 
     // Written by HZ networking thread, read by Jet thread
     private volatile int sendSeqLimitCompressed;
 
     public SenderTasklet(InboundEdgeStream inboundEdgeStream, NodeEngine nodeEngine, Address destinationAddress,
-                         long executionId, int destinationVertexId, int packetSizeLimit) {
+                         long executionId, int destinationVertexId, int packetSizeLimit,
+                         boolean writePartitionIds, boolean compressionEnabled,
+                         @Nullable DataConnection dataConnection) {
         this.inboundEdgeStream = inboundEdgeStream;
         this.packetSizeLimit = packetSizeLimit;
+        this.writePartitionIds = writePartitionIds;
         this.connection = getMemberConnection(nodeEngine, destinationAddress);
+        this.dataConnection = dataConnection;
         this.outputBuffer = createObjectDataOutput(nodeEngine);
         uncheckRun(() -> outputBuffer.write(createStreamPacketHeader(
                 nodeEngine, executionId, destinationVertexId, inboundEdgeStream.ordinal())));
+        this.codec = compressionEnabled ? new LzCodec() : null;
+        // the flags are written once, tryCompress() adds its flag in the copy it makes
+        uncheckRun(() -> outputBuffer.writeByte(writePartitionIds ? FLAG_PARTITION_IDS : 0));
         bufPosPastHeader = outputBuffer.position();
     }
 
     @Nonnull
     @Override
     public ProgressState call() {
+        final boolean isSampled = callCount.get() % CALL_TIMING_SAMPLE_RATE == 0;
+        final long start = isSampled ? System.nanoTime() : 0;
         progTracker.reset();
-        tryFillInbox();
-        if (progTracker.isDone()) {
-            return progTracker.toProgressState();
+        if (dataConnection != null) {
+            dataConnection.checkNotFailed();
         }
-        if (tryFillOutputBuffer()) {
+        tryFillInbox();
+        if (!progTracker.isDone() && tryFillOutputBuffer()) {
             progTracker.madeProgress();
-            connection.write(new Packet(outputBuffer.toByteArray()).setPacketType(Packet.Type.JET));
+            byte[] payload = outputBuffer.toByteArray();
+            if (codec != null) {
+                payload = tryCompress(payload);
+            }
+            if (dataConnection != null) {
+                lastQueuedPayload = dataConnection.write(payload);
+            } else {
+                connection.write(new Packet(payload).setPacketType(Packet.Type.JET));
+            }
+            bytesOut.inc(payload.length);
+            packetsOut.inc();
+        }
+        if (dataConnection != null && !dataConnection.isWritten(lastQueuedPayload)) {
+            // the connection can still fail and the job must then fail
+            progTracker.notDone();
+        }
+        if (isSampled) {
+            callNanos.inc((System.nanoTime() - start) * CALL_TIMING_SAMPLE_RATE);
+        }
+        callCount.inc();
+        if (!progTracker.isMadeProgress()) {
+            idleCallCount.inc();
         }
         return progTracker.toProgressState();
     }
@@ -92,11 +186,11 @@ public class SenderTasklet implements Tasklet {
             return;
         }
         progTracker.notDone();
-        final ProgressState result = inboundEdgeStream.drainTo(inbox::add);
+        final ProgressState result = inboundEdgeStream.drainTo(inbox);
         progTracker.madeProgress(result.isMadeProgress());
         instreamExhausted = result.isDone();
         if (instreamExhausted) {
-            inbox.add(new ObjectWithPartitionId(DONE_ITEM, -1));
+            inbox.add(DONE_ITEM);
         }
     }
 
@@ -111,20 +205,76 @@ public class SenderTasklet implements Tasklet {
                          && (item = inbox.poll()) != null;
                  writtenCount++
                     ) {
-                ObjectWithPartitionId itemWithpId = item instanceof ObjectWithPartitionId ?
-                        (ObjectWithPartitionId) item : new ObjectWithPartitionId(item, - 1);
+                final boolean hasPartitionId = item instanceof ObjectWithPartitionId;
                 final int mark = outputBuffer.position();
-                outputBuffer.writeObject(itemWithpId.getItem());
+                outputBuffer.writeObject(hasPartitionId ? ((ObjectWithPartitionId) item).getItem() : item);
                 sentSeq += estimatedMemoryFootprint(outputBuffer.position() - mark);
-                outputBuffer.writeInt(itemWithpId.getPartitionId());
+                if (writePartitionIds) {
+                    addPartitionId(writtenCount, hasPartitionId ? ((ObjectWithPartitionId) item).getPartitionId() : -1);
+                }
             }
             outputBuffer.writeInt(bufPosPastHeader, writtenCount);
+            if (writePartitionIds) {
+                writePartitionIdRuns(writtenCount);
+            }
+            itemsOut.inc(writtenCount);
             return writtenCount > 0;
         } catch (IOException e) {
             throw rethrow(e);
         }
     }
 
+    private void addPartitionId(int index, int partitionId) {
+        if (index == partitionIds.length) {
+            partitionIds = Arrays.copyOf(partitionIds, Math.max(INITIAL_PARTITION_IDS_LENGTH, 2 * index));
+        }
+        partitionIds[index] = partitionId;
+    }
+
+    /**
+     * Writes the partition IDs of the items in the packet as pairs of varints:
+     * the partition ID plus one and the number of consecutive items that
+     * have it.
+     */
+    private void writePartitionIdRuns(int itemCount) throws IOException {
+        for (int runStart = 0, runEnd; runStart < itemCount; runStart = runEnd) {
+            final int partitionId = partitionIds[runStart];
+            runEnd = runStart + 1;
+            while (runEnd < itemCount && partitionIds[runEnd] == partitionId) {
+                runEnd++;
+            }
+            writeVarInt(outputBuffer, partitionId + 1);
+            writeVarInt(outputBuffer, runEnd - runStart);
+        }
+    }
+
+    /**
+     * Returns a copy of the packet with everything after the flags
+     * compressed, preceded by its uncompressed length. Returns the packet
+     * itself if compression doesn't make it smaller.
+     */
+    private byte[] tryCompress(byte[] packet) {
+        final int bodyLength = packet.length - bufPosPastHeader;
+        final int maxCompressedLength = bodyLength - Bits.INT_SIZE_IN_BYTES - 1;
+        if (maxCompressedLength <= 0) {
+            return packet;
+        }
+        if (compressBuffer.length < maxCompressedLength) {
+            compressBuffer = new byte[bodyLength];
+        }
+        final int compressedLength =
+                codec.compress(packet, bufPosPastHeader, bodyLength, compressBuffer, 0, maxCompressedLength);
+        if (compressedLength < 0) {
+            return packet;
+        }
+        final byte[] compressed = new byte[bufPosPastHeader + Bits.INT_SIZE_IN_BYTES + compressedLength];
+        System.arraycopy(packet, 0, compressed, 0, bufPosPastHeader);
+        compressed[bufPosPastHeader - 1] |= FLAG_COMPRESSED;
+        Bits.writeInt(compressed, bufPosPastHeader, bodyLength, outputBuffer.getByteOrder() == BIG_ENDIAN);
+        System.arraycopy(compressBuffer, 0, compressed, bufPosPastHeader + Bits.INT_SIZE_IN_BYTES, compressedLength);
+        return compressed;
+    }
+
     /**
      * Updates the upper limit on {@link #sentSeq}, which constrains how much more data this tasklet can send.
      *
@@ -135,6 +285,12 @@ public class SenderTasklet implements Tasklet {
     // Called from HZ networking thread
     public void setSendSeqLimitCompressed(int sendSeqLimitCompressed) {
         this.sendSeqLimitCompressed = sendSeqLimitCompressed;
+        wakeUpSignal.wakeUp();
+    }
+
+    @Override
+    public WakeUpSignal wakeUpSignal() {
+        return wakeUpSignal;
     }
 
     @Override
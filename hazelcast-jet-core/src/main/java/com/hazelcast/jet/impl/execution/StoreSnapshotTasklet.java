@@ -47,6 +47,7 @@ public class StoreSnapshotTasklet implements Tasklet {
     private final boolean isHigherPrioritySource;
     private final String vertexName;
     private final ILogger logger;
+    private final WakeUpSignal wakeUpSignal = new WakeUpSignal();
 
     private final AtomicInteger numActiveFlushes = new AtomicInteger();
     private State state = DRAIN;
@@ -141,6 +142,11 @@ public class StoreSnapshotTasklet implements Tasklet {
         }
     }
 
+    @Override
+    public WakeUpSignal wakeUpSignal() {
+        return wakeUpSignal;
+    }
+
     String currMapName() {
         return SnapshotRepository.snapshotDataMapName(jobId, pendingSnapshotId, vertexName);
     }
@@ -19,6 +19,7 @@ package com.hazelcast.jet.impl.execution;
 import com.hazelcast.jet.impl.util.ProgressState;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.Callable;
 
 public interface Tasklet extends Callable<ProgressState> {
@@ -32,4 +33,23 @@ public interface Tasklet extends Callable<ProgressState> {
     default boolean isCooperative() {
         return true;
     }
+
+    /**
+     * Returns the signal through which the producers of this tasklet's input
+     * wake up the worker running it, or {@code null} if the tasklet has no
+     * such producers.
+     */
+    @Nullable
+    default WakeUpSignal wakeUpSignal() {
+        return null;
+    }
+
+    /**
+     * Returns the group of tasklets this tasklet exchanges most of its data
+     * with, or -1 if it has no preference. When the cooperative threads are
+     * pinned to CPUs, the tasklets of a group are kept on the same NUMA node.
+     */
+    default int localityGroup() {
+        return -1;
+    }
 }
@@ -18,6 +18,10 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.config.BlockingTaskletMode;
+import com.hazelcast.jet.config.IdleStrategyType;
+import com.hazelcast.jet.config.InstanceConfig;
+import com.hazelcast.jet.impl.util.CpuAffinity;
 import com.hazelcast.jet.impl.util.NonCompletableFuture;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.logging.ILogger;
@@ -25,16 +29,22 @@ import com.hazelcast.util.concurrent.BackoffIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -43,32 +53,93 @@ import java.util.concurrent.locks.LockSupport;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 import static java.lang.Thread.currentThread;
+import static java.util.Collections.newSetFromMap;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 
 public class TaskletExecutionService {
 
-    private static final IdleStrategy IDLER =
-            new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), MILLISECONDS.toNanos(1));
+    /**
+     * Cooperative workers measure the time their tasklets spend in {@code
+     * call()} and rebalance the tasklets between them in periods of this
+     * length.
+     */
+    static final long LOAD_SAMPLING_PERIOD_NANOS = MILLISECONDS.toNanos(100);
+
+    /**
+     * The minimum difference in load, as a share of the sampling period,
+     * between the busiest and the least busy worker that triggers moving a
+     * tasklet.
+     */
+    private static final long MIN_LOAD_IMBALANCE_NANOS = LOAD_SAMPLING_PERIOD_NANOS / 10;
 
-    private final ExecutorService blockingTaskletExecutor = newCachedThreadPool(new BlockingTaskThreadFactory());
+    /**
+     * A tasklet isn't moved within this time after it was submitted or last
+     * moved, so that its load is known and it doesn't bounce between workers.
+     */
+    private static final long MOVE_COOLDOWN_NANOS = 3 * LOAD_SAMPLING_PERIOD_NANOS;
+
+    /**
+     * In the {@link BlockingTaskletMode#POOLED} mode, a blocking tasklet that
+     * keeps making progress gives up its thread after this time.
+     */
+    private static final long BLOCKING_TIME_SLICE_NANOS = MILLISECONDS.toNanos(10);
+
+    private final ExecutorService blockingTaskletExecutor;
+    // the same executor as above in the POOLED blocking tasklet mode, null otherwise
+    private final ScheduledExecutorService blockingTaskletScheduler;
+    // the workers of the POOLED mode whose tasklets aren't done yet
+    private final Set<PooledBlockingWorker> pooledWorkers = newSetFromMap(new ConcurrentHashMap<>());
     private final CooperativeWorker[] cooperativeWorkers;
     private final Thread[] cooperativeThreadPool;
     private final String hzInstanceName;
     private final ILogger logger;
     private final AtomicInteger cooperativeThreadIndex = new AtomicInteger();
+    private final IdleStrategy idler;
+    private final long maxIdleNanos;
+    private final boolean isParking;
+    // the CPU each cooperative worker is pinned to, null if they aren't pinned
+    private final int[] workerCpus;
+    // the NUMA node of each cooperative worker's CPU
+    private final int[] workerNumaNodes;
+    // the distinct NUMA nodes of the cooperative workers, in ascending order
+    private final int[] numaNodes;
 
     private volatile boolean isShutdown;
 
     public TaskletExecutionService(HazelcastInstance hz, int threadCount) {
+        this(hz, new InstanceConfig().setCooperativeThreadCount(threadCount));
+    }
+
+    public TaskletExecutionService(HazelcastInstance hz, InstanceConfig config) {
+        final int threadCount = config.getCooperativeThreadCount();
         this.hzInstanceName = hz.getName();
         this.cooperativeWorkers = new CooperativeWorker[threadCount];
         this.cooperativeThreadPool = new Thread[threadCount];
         this.logger = hz.getLoggingService().getLogger(TaskletExecutionService.class);
+        this.maxIdleNanos = MICROSECONDS.toNanos(config.getMaxIdleMicros());
+        this.idler = new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), maxIdleNanos);
+        this.isParking = config.getIdleStrategy() == IdleStrategyType.PARKING;
+        this.blockingTaskletExecutor = newBlockingTaskletExecutor(config);
+        this.blockingTaskletScheduler = blockingTaskletExecutor instanceof ScheduledExecutorService
+                ? (ScheduledExecutorService) blockingTaskletExecutor : null;
+        final String cpuAffinity = config.getCpuAffinity();
+        if (cpuAffinity != null) {
+            final int[] cpus = CpuAffinity.parseCpuList(cpuAffinity);
+            this.workerCpus = new int[threadCount];
+            Arrays.setAll(workerCpus, i -> cpus[i % cpus.length]);
+            this.workerNumaNodes = Arrays.stream(workerCpus).map(CpuAffinity::numaNode).toArray();
+        } else {
+            this.workerCpus = null;
+            this.workerNumaNodes = new int[threadCount];
+        }
+        this.numaNodes = Arrays.stream(workerNumaNodes).distinct().sorted().toArray();
     }
 
     /**
@@ -102,7 +173,13 @@ public class TaskletExecutionService {
 
     public void shutdown() {
         isShutdown = true;
+        // a pooled worker waiting for its next run would never run again after
+        // shutdownNow(), so its tasklet is cancelled and reported done here
+        for (PooledBlockingWorker worker : pooledWorkers) {
+            worker.cancelOnShutdown();
+        }
         blockingTaskletExecutor.shutdownNow();
+        Arrays.stream(cooperativeThreadPool).forEach(LockSupport::unpark);
     }
 
     private void ensureStillRunning() {
@@ -113,11 +190,27 @@ public class TaskletExecutionService {
 
     private void submitBlockingTasklets(ExecutionTracker executionTracker, ClassLoader jobClassLoader,
                                         List<Tasklet> tasklets) {
+        if (blockingTaskletScheduler != null) {
+            final List<PooledBlockingWorker> workers = tasklets
+                    .stream()
+                    .map(t -> new PooledBlockingWorker(new TaskletTracker(t, executionTracker, jobClassLoader)))
+                    .collect(toList());
+            executionTracker.blockingCancellers = workers
+                    .stream()
+                    .<Runnable>map(w -> w::interrupt)
+                    .collect(toList());
+            pooledWorkers.addAll(workers);
+            // the workers don't need to be started before we return: a worker cancelled
+            // before it runs will still see the failed execution and report it's done
+            workers.forEach(blockingTaskletScheduler::execute);
+            return;
+        }
         CountDownLatch startedLatch = new CountDownLatch(tasklets.size());
-        executionTracker.blockingFutures = tasklets
+        executionTracker.blockingCancellers = tasklets
                 .stream()
                 .map(t -> new BlockingWorker(new TaskletTracker(t, executionTracker, jobClassLoader), startedLatch))
                 .map(blockingTaskletExecutor::submit)
+                .<Runnable>map(f -> () -> f.cancel(true))
                 .collect(toList());
 
         // do not return from this method until all workers have started. Otherwise on
@@ -134,32 +227,126 @@ public class TaskletExecutionService {
         Arrays.setAll(trackersByThread, i -> new ArrayList());
         for (Tasklet t : tasklets) {
             t.init();
-            trackersByThread[cooperativeThreadIndex.getAndUpdate(i -> (i + 1) % trackersByThread.length)]
+            trackersByThread[leastLoadedWorker(trackersByThread, t.localityGroup())]
                     .add(new TaskletTracker(t, executionTracker, jobClassLoader));
         }
         for (int i = 0; i < trackersByThread.length; i++) {
-            cooperativeWorkers[i].trackers.addAll(trackersByThread[i]);
+            for (TaskletTracker t : trackersByThread[i]) {
+                cooperativeWorkers[i].bind(t);
+                cooperativeWorkers[i].trackers.add(t);
+            }
         }
         Arrays.stream(cooperativeThreadPool).forEach(LockSupport::unpark);
     }
 
+    /**
+     * Returns the index of the worker with the fewest tasklets, counting
+     * those about to be assigned to it. Ties go to the worker with the lower
+     * measured load. The scan starts at a rotating offset so that full ties
+     * don't always favor the same worker. If the workers span several NUMA
+     * nodes, only the workers on the node preferred by the locality group are
+     * considered.
+     */
+    private int leastLoadedWorker(List<TaskletTracker>[] pendingByThread, int localityGroup) {
+        final int count = cooperativeWorkers.length;
+        final int start = cooperativeThreadIndex.getAndUpdate(i -> (i + 1) % count);
+        final int numaNode = localityGroup < 0 || numaNodes.length < 2
+                ? -1 : numaNodes[localityGroup % numaNodes.length];
+        int best = -1;
+        int bestSize = Integer.MAX_VALUE;
+        for (int n = 0; n < count; n++) {
+            final int i = (start + n) % count;
+            if (numaNode >= 0 && workerNumaNodes[i] != numaNode) {
+                continue;
+            }
+            final int size = cooperativeWorkers[i].trackers.size() + pendingByThread[i].size();
+            if (size < bestSize || size == bestSize && cooperativeWorkers[i].load < cooperativeWorkers[best].load) {
+                best = i;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    private ExecutorService newBlockingTaskletExecutor(InstanceConfig config) {
+        final BlockingTaskletMode mode = config.getBlockingTaskletMode();
+        if (mode == BlockingTaskletMode.THREAD_PER_TASKLET) {
+            return newCachedThreadPool(new BlockingTaskThreadFactory());
+        }
+        if (mode == BlockingTaskletMode.VIRTUAL_THREADS) {
+            final ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+            logger.info("Virtual threads aren't available in this JVM, blocking tasklets will run on a pool of "
+                    + config.getBlockingThreadPoolSize() + " threads");
+        }
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(config.getBlockingThreadPoolSize(), new BlockingTaskThreadFactory());
+        // the runs replaced by a wake-up would otherwise stay queued until their delay elapses
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Returns an executor starting a new virtual thread for each task, or
+     * {@code null} if the JVM doesn't support virtual threads. Uses reflection
+     * because Jet is compiled for Java 8.
+     */
+    @Nullable
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = builderClass
+                    .getMethod("name", String.class, long.class)
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null),
+                            String.format("hz.%s.jet.blocking.virtual-thread-", hzInstanceName), 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
     private synchronized void ensureThreadsStarted() {
         if (cooperativeWorkers[0] != null) {
             return;
         }
-        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(cooperativeWorkers));
+        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(workerCpus != null ? workerCpus[i] : -1));
         Arrays.setAll(cooperativeThreadPool, i -> new Thread(cooperativeWorkers[i],
                 String.format("hz.%s.jet.cooperative.thread-%d", hzInstanceName, i)));
+        for (int i = 0; i < cooperativeWorkers.length; i++) {
+            final int numaNode = workerNumaNodes[i];
+            cooperativeWorkers[i].parkState = new WakeUpSignal.Worker(cooperativeThreadPool[i]);
+            // tasklets are only moved between the workers on the same NUMA node
+            cooperativeWorkers[i].colleagues = range(0, cooperativeWorkers.length)
+                    .filter(j -> workerNumaNodes[j] == numaNode)
+                    .mapToObj(j -> cooperativeWorkers[j])
+                    .toArray(CooperativeWorker[]::new);
+        }
         Arrays.stream(cooperativeThreadPool).forEach(Thread::start);
     }
 
+    private void wakeUpCooperativeWorkers() {
+        for (CooperativeWorker worker : cooperativeWorkers) {
+            if (worker != null) {
+                worker.parkState.wakeUp();
+            }
+        }
+    }
+
     private String trackersToString() {
-        return Arrays.stream(cooperativeWorkers)
-                     .flatMap(w -> w.trackers.stream())
-                     .map(Object::toString)
-                     .sorted()
-                     .collect(joining("\n"))
-                + "\n-----------------";
+        final List<String> result = new ArrayList<>();
+        for (CooperativeWorker w : cooperativeWorkers) {
+            for (int i = 0; i < w.trackers.size(); i++) {
+                final TaskletTracker t = w.trackers.peek(i);
+                if (t != null) {
+                    result.add(t.toString());
+                }
+            }
+        }
+        return result.stream().sorted().collect(joining("\n")) + "\n-----------------";
     }
 
     private final class BlockingWorker implements Runnable {
@@ -175,6 +362,11 @@ public class TaskletExecutionService {
         public void run() {
             final ClassLoader clBackup = currentThread().getContextClassLoader();
             final Tasklet t = tracker.tasklet;
+            final WakeUpSignal.Worker parkState = new WakeUpSignal.Worker(currentThread());
+            final WakeUpSignal signal = t.wakeUpSignal();
+            if (isParking && signal != null) {
+                signal.bindTo(parkState);
+            }
             currentThread().setContextClassLoader(tracker.jobClassLoader);
             try {
                 startedLatch.countDown();
@@ -185,8 +377,14 @@ public class TaskletExecutionService {
                     result = t.call();
                     if (result.isMadeProgress()) {
                         idleCount = 0;
+                        if (parkState.parked) {
+                            parkState.parked = false;
+                        }
+                    } else if (isParking && !parkState.parked) {
+                        // arm the wake-up signal and call the tasklet once more before parking
+                        parkState.parked = true;
                     } else {
-                        IDLER.idle(++idleCount);
+                        idler.idle(++idleCount);
                     }
                 } while (!result.isDone()
                         && !tracker.executionTracker.executionCompletedExceptionally()
@@ -201,81 +399,365 @@ public class TaskletExecutionService {
         }
     }
 
-    private final class CooperativeWorker implements Runnable {
-        private final List<TaskletTracker> trackers;
-        private final CooperativeWorker[] colleagues;
+    /**
+     * Runs a blocking tasklet on a shared pool in the {@link
+     * BlockingTaskletMode#POOLED} mode. Each run of the worker calls the
+     * tasklet until it stops making progress or its time slice runs out and
+     * then schedules the next run, after a backoff delay if the tasklet was
+     * idle. So only the tasklets with work to do occupy the pool threads.
+     */
+    private final class PooledBlockingWorker implements Runnable, WakeUpSignal.Wakeable {
+        private static final int WAITING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
 
-        CooperativeWorker(CooperativeWorker[] colleagues) {
-            this.colleagues = colleagues;
-            this.trackers = new CopyOnWriteArrayList<>();
+        private final TaskletTracker tracker;
+        // WAITING for the next run, RUNNING or DONE, the transition to DONE reports the tasklet done
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        // the thread currently running the tasklet, if any
+        private volatile Thread runningThread;
+        // accessed by one run at a time, the executor ensures visibility between the runs
+        private boolean isInitialized;
+        private long idleCount;
+        // the pending run, wakeUp() replaces a delayed one with an immediate one
+        private final AtomicReference<ScheduledFuture<?>> nextRun = new AtomicReference<>();
+        // raised by wakeUp(), cleared before a call that will see the data handed over
+        private volatile boolean isWakeUpRequested;
+
+        PooledBlockingWorker(TaskletTracker tracker) {
+            this.tracker = tracker;
+            final WakeUpSignal signal = tracker.tasklet.wakeUpSignal();
+            if (isParking && signal != null) {
+                signal.bindTo(this);
+            }
         }
 
         @Override
         public void run() {
+            if (!state.compareAndSet(WAITING, RUNNING)) {
+                // cancelled on shutdown
+                return;
+            }
             final Thread thread = currentThread();
             final ClassLoader clBackup = thread.getContextClassLoader();
+            final Tasklet t = tracker.tasklet;
+            runningThread = thread;
+            thread.setContextClassLoader(tracker.jobClassLoader);
+            // the delay before the next run, -1 if the tasklet is done
+            long nextRunDelayNanos = -1;
+            try {
+                if (!isInitialized) {
+                    isInitialized = true;
+                    t.init();
+                }
+                final long sliceEnd = System.nanoTime() + BLOCKING_TIME_SLICE_NANOS;
+                // check before the call: a run scheduled before a cancellation must not block again
+                while (!tracker.executionTracker.executionCompletedExceptionally() && !isShutdown) {
+                    if (isWakeUpRequested) {
+                        isWakeUpRequested = false;
+                    }
+                    final ProgressState result = t.call();
+                    if (result.isDone()) {
+                        break;
+                    }
+                    if (!result.isMadeProgress()) {
+                        nextRunDelayNanos = isWakeUpRequested ? 0 : idleDelayNanos(++idleCount);
+                        break;
+                    }
+                    idleCount = 0;
+                    if (System.nanoTime() - sliceEnd >= 0) {
+                        nextRunDelayNanos = 0;
+                        break;
+                    }
+                }
+            } catch (Throwable e) {
+                logger.warning("Exception in " + t, e);
+                tracker.executionTracker.exception(new JetException("Exception in " + t + ": " + e, e));
+                nextRunDelayNanos = -1;
+            } finally {
+                runningThread = null;
+                thread.setContextClassLoader(clBackup);
+            }
+            if (nextRunDelayNanos < 0) {
+                done(RUNNING);
+                return;
+            }
+            state.set(WAITING);
+            // checked after the state is set: either this run or shutdown() sees the other
+            if (isShutdown || !scheduleNextRun(nextRunDelayNanos)) {
+                done(WAITING);
+            } else if (isWakeUpRequested) {
+                // woken up after the call, the wakeUp() may have missed the scheduled run
+                wakeUp();
+            }
+        }
+
+        /**
+         * Replaces the delayed next run with an immediate one. Has no effect
+         * if the tasklet is running or its next run is already due, the
+         * running call then sees the raised flag and doesn't back off.
+         */
+        @Override
+        public void wakeUp() {
+            isWakeUpRequested = true;
+            final ScheduledFuture<?> f = nextRun.get();
+            if (f == null || state.get() != WAITING || f.getDelay(NANOSECONDS) <= 0 || !f.cancel(false)) {
+                return;
+            }
+            if (isShutdown || !scheduleNextRun(0)) {
+                done(WAITING);
+            }
+        }
+
+        /**
+         * Called on shutdown: fails the execution and reports the tasklet
+         * done, unless it's running. A running tasklet sees the shutdown and
+         * reports itself done when the run ends.
+         */
+        void cancelOnShutdown() {
+            tracker.executionTracker.exception(new JetException("Execution service shut down"));
+            interrupt();
+            done(WAITING);
+        }
+
+        private void done(int expectedState) {
+            if (state.compareAndSet(expectedState, DONE)) {
+                pooledWorkers.remove(this);
+                tracker.executionTracker.taskletDone();
+            }
+        }
+
+        /**
+         * Interrupts the tasklet if it's running. A tasklet waiting for its
+         * next run notices the cancellation when it runs.
+         */
+        void interrupt() {
+            final Thread thread = runningThread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Backs off the same way as the idle strategy of the other workers: the
+         * delay doubles with each idle run, from one microsecond up to the
+         * maximum idle time.
+         */
+        private long idleDelayNanos(long idleCount) {
+            final long maxShift = Long.numberOfLeadingZeros(MICROSECONDS.toNanos(1)) - 1;
+            return Math.min(maxIdleNanos, MICROSECONDS.toNanos(1) << Math.min(idleCount - 1, maxShift));
+        }
+
+        private boolean scheduleNextRun(long delayNanos) {
+            final ScheduledFuture<?> previous = nextRun.get();
+            try {
+                // the scheduled run may already have scheduled its own next run, keep that one
+                nextRun.compareAndSet(previous, blockingTaskletScheduler.schedule(this, delayNanos, NANOSECONDS));
+                return true;
+            } catch (RejectedExecutionException e) {
+                // the service is shutting down
+                return false;
+            }
+        }
+    }
+
+    private final class CooperativeWorker implements Runnable {
+        private final TrackerRing trackers = new TrackerRing();
+        // the CPU to pin the thread to, -1 to not pin it
+        private final int cpu;
+        // assigned before the thread is started
+        private WakeUpSignal.Worker parkState;
+        private CooperativeWorker[] colleagues;
+        // sum of the loads of this worker's tasklets, see TaskletTracker.load
+        private volatile long load;
+
+        CooperativeWorker(int cpu) {
+            this.cpu = cpu;
+        }
+
+        @Override
+        public void run() {
+            final Thread thread = currentThread();
+            if (cpu >= 0 && !CpuAffinity.pinCurrentThread(cpu)) {
+                logger.warning("Failed to pin " + thread.getName() + " to CPU " + cpu + ", it will run unpinned");
+            }
+            final ClassLoader clBackup = thread.getContextClassLoader();
             long idleCount = 0;
+            long periodStart = System.nanoTime();
+            // each call is timed from the end of the previous one, saving one nanoTime() per call
+            long lastTimestamp = periodStart;
             while (!isShutdown) {
+                trackers.drainIncoming();
                 boolean madeProgress = false;
-                for (TaskletTracker t : trackers) {
+                for (int i = 0; i < trackers.ownedSize; ) {
+                    final TaskletTracker t = trackers.get(i);
                     final CooperativeWorker stealingWorker = t.stealingWorker.get();
                     if (stealingWorker != null) {
                         t.stealingWorker.set(null);
-                        trackers.remove(t);
+                        t.movedAtNanos = lastTimestamp;
+                        // the last tracker is moved to index i, so we don't advance
+                        trackers.remove(i);
+                        stealingWorker.bind(t);
                         stealingWorker.trackers.add(t);
+                        stealingWorker.parkState.wakeUp();
                         continue;
                     }
+                    boolean dismiss = false;
                     try {
                         thread.setContextClassLoader(t.jobClassLoader);
                         final ProgressState result = t.tasklet.call();
-                        if (result.isDone()) {
-                            dismissTasklet(t);
-                        } else {
-                            madeProgress |= result.isMadeProgress();
-                        }
+                        dismiss = result.isDone();
+                        madeProgress |= result.isMadeProgress();
                     } catch (Throwable e) {
                         logger.warning("Exception in " + t.tasklet, e);
                         t.executionTracker.exception(new JetException("Exception in " + t.tasklet + ": " + e, e));
                     }
-                    if (t.executionTracker.executionCompletedExceptionally()) {
-                        dismissTasklet(t);
+                    dismiss |= t.executionTracker.executionCompletedExceptionally();
+                    final long now = System.nanoTime();
+                    t.busyNanos += now - lastTimestamp;
+                    lastTimestamp = now;
+                    if (dismiss) {
+                        dismissTasklet(i);
+                    } else {
+                        i++;
                     }
                 }
+                if (lastTimestamp - periodStart >= LOAD_SAMPLING_PERIOD_NANOS) {
+                    updateLoad();
+                    balanceLoad(lastTimestamp);
+                    periodStart = lastTimestamp;
+                }
                 if (madeProgress) {
                     idleCount = 0;
+                    if (parkState.parked) {
+                        parkState.parked = false;
+                    }
+                } else if (isParking && !parkState.parked) {
+                    // arm the wake-up signals and run the tasklets once more before parking,
+                    // so we don't miss the data handed over in the meantime
+                    parkState.parked = true;
                 } else {
                     thread.setContextClassLoader(clBackup);
-                    IDLER.idle(++idleCount);
+                    idler.idle(++idleCount);
+                    lastTimestamp = System.nanoTime();
                 }
             }
             // Best-effort attempt to release all tasklets. A tasklet can still be added
             // to a dead worker through work stealing.
-            trackers.forEach(t -> t.executionTracker.taskletDone());
+            trackers.drainIncoming();
+            for (int i = 0; i < trackers.ownedSize; i++) {
+                trackers.get(i).executionTracker.taskletDone();
+            }
             trackers.clear();
         }
 
-        private void dismissTasklet(TaskletTracker t) {
-            t.executionTracker.taskletDone();
-            trackers.remove(t);
+        /**
+         * Binds the tasklet's wake-up signal to this worker. Must be called
+         * before the tracker is added to {@link #trackers}.
+         */
+        void bind(TaskletTracker t) {
+            final WakeUpSignal signal = t.tasklet.wakeUpSignal();
+            if (isParking && signal != null) {
+                signal.bindTo(parkState);
+            }
+        }
+
+        /**
+         * Folds the busy time measured in the period that just ended into the
+         * load of each tasklet and of the whole worker.
+         */
+        private void updateLoad() {
+            long total = 0;
+            for (int i = 0; i < trackers.ownedSize; i++) {
+                final TaskletTracker t = trackers.get(i);
+                // exponential moving average with a weight of 1/2 on the last period
+                t.load = (t.load + t.busyNanos) >> 1;
+                t.busyNanos = 0;
+                total += t.load;
+            }
+            load = total;
+        }
+
+        /**
+         * If this is the least loaded worker and the busiest one is more loaded
+         * by at least {@link #MIN_LOAD_IMBALANCE_NANOS}, schedules the move of
+         * the busiest worker's tasklet that best evens out the two loads. The
+         * move itself is done by the busiest worker through the same {@link
+         * TaskletTracker#stealingWorker} hand-off used by {@link #stealWork()}.
+         * <p>
+         * If this is the busiest worker, it just wakes up the least loaded one
+         * in case it is parked, so that it can do the stealing.
+         */
+        private void balanceLoad(long now) {
+            CooperativeWorker leastLoaded = this;
+            CooperativeWorker busiest = this;
+            for (CooperativeWorker w : colleagues) {
+                if (w.load < leastLoaded.load) {
+                    leastLoaded = w;
+                }
+                if (w.load > busiest.load) {
+                    busiest = w;
+                }
+            }
+            final long imbalance = busiest.load - leastLoaded.load;
+            if (imbalance < MIN_LOAD_IMBALANCE_NANOS) {
+                return;
+            }
+            if (busiest == this) {
+                leastLoaded.parkState.wakeUp();
+                return;
+            }
+            if (leastLoaded != this) {
+                return;
+            }
+            TaskletTracker candidate = null;
+            long bestImbalance = imbalance;
+            final TrackerRing victimTrackers = busiest.trackers;
+            for (int i = 0; i < victimTrackers.size(); i++) {
+                final TaskletTracker t = victimTrackers.peek(i);
+                if (t == null) {
+                    continue;
+                }
+                // after moving the tasklet the imbalance would be |imbalance - 2 * t.load|
+                final long imbalanceAfterMove = Math.abs(imbalance - 2 * t.load);
+                if (imbalanceAfterMove < bestImbalance
+                        && now - t.movedAtNanos > MOVE_COOLDOWN_NANOS
+                        && t.stealingWorker.get() == null) {
+                    candidate = t;
+                    bestImbalance = imbalanceAfterMove;
+                }
+            }
+            if (candidate != null) {
+                candidate.stealingWorker.compareAndSet(null, this);
+            }
+        }
+
+        private void dismissTasklet(int index) {
+            trackers.get(index).executionTracker.taskletDone();
+            trackers.remove(index);
             stealWork();
         }
 
         private void stealWork() {
             while (true) {
                 // start with own tasklet list, try to find a longer one
-                List<TaskletTracker> toStealFrom = trackers;
+                TrackerRing toStealFrom = trackers;
+                int toStealFromSize = trackers.size();
                 for (CooperativeWorker w : colleagues) {
-                    if (w.trackers.size() > toStealFrom.size()) {
+                    final int size = w.trackers.size();
+                    if (size > toStealFromSize) {
                         toStealFrom = w.trackers;
+                        toStealFromSize = size;
                     }
                 }
                 // if we couldn't find a list longer by at least two, there's nothing to steal
-                if (toStealFrom.size() < trackers.size() + 2) {
+                if (toStealFromSize < trackers.size() + 2) {
                     return;
                 }
                 // now we must find a task on this list which isn't already scheduled for moving
-                for (TaskletTracker t : toStealFrom) {
-                    if (t.stealingWorker.compareAndSet(null, this)) {
+                for (int i = 0; i < toStealFrom.size(); i++) {
+                    final TaskletTracker t = toStealFrom.peek(i);
+                    if (t != null && t.stealingWorker.compareAndSet(null, this)) {
                         return;
                     }
                 }
@@ -283,12 +765,117 @@ public class TaskletExecutionService {
         }
     }
 
+    /**
+     * The tasklets of a single cooperative worker. Only the worker's thread
+     * modifies the array of tasklets it runs; other threads add tasklets by
+     * pushing them to a lock-free stack of incoming tasklets, which the worker
+     * moves to the array before each pass. The stack is intrusive (linked
+     * through {@link TaskletTracker#nextIncoming}) and removal swaps the last
+     * tasklet into the vacated slot, so neither adding nor removing a tasklet
+     * allocates, apart from growing the array when it gets full.
+     * <p>
+     * Other threads may read {@link #size()} and {@link #peek(int)} to choose a
+     * tasklet to steal. They get a best-effort, possibly stale view, which is
+     * fine because the actual move is always done by the owner.
+     */
+    private static final class TrackerRing {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final AtomicReference<TaskletTracker> incoming = new AtomicReference<>();
+        private final AtomicInteger incomingCount = new AtomicInteger();
+        private volatile TaskletTracker[] trackers = new TaskletTracker[INITIAL_CAPACITY];
+        // written only by the owner, volatile so that other threads see the array elements it covers
+        private volatile int ownedSize;
+
+        /**
+         * Adds the tracker to this ring, can be called from any thread. The
+         * tracker becomes visible to the owner at its next {@link
+         * #drainIncoming()}.
+         */
+        void add(TaskletTracker t) {
+            incomingCount.incrementAndGet();
+            TaskletTracker head;
+            do {
+                head = incoming.get();
+                t.nextIncoming = head;
+            } while (!incoming.compareAndSet(head, t));
+        }
+
+        /**
+         * Returns the number of trackers, including those not yet drained. Can
+         * be called from any thread.
+         */
+        int size() {
+            return ownedSize + incomingCount.get();
+        }
+
+        /**
+         * Returns the tracker at the given index or {@code null}, if there's
+         * none. Can be called from any thread.
+         */
+        TaskletTracker peek(int index) {
+            final TaskletTracker[] trackers = this.trackers;
+            return index < trackers.length ? trackers[index] : null;
+        }
+
+        // the methods below can only be called by the owner
+
+        TaskletTracker get(int index) {
+            return trackers[index];
+        }
+
+        void drainIncoming() {
+            TaskletTracker t = incoming.getAndSet(null);
+            int count = 0;
+            for (; t != null; count++) {
+                final TaskletTracker next = t.nextIncoming;
+                t.nextIncoming = null;
+                append(t);
+                t = next;
+            }
+            if (count > 0) {
+                incomingCount.addAndGet(-count);
+            }
+        }
+
+        void remove(int index) {
+            final int last = ownedSize - 1;
+            trackers[index] = trackers[last];
+            trackers[last] = null;
+            ownedSize = last;
+        }
+
+        void clear() {
+            Arrays.fill(trackers, 0, ownedSize, null);
+            ownedSize = 0;
+        }
+
+        private void append(TaskletTracker t) {
+            final int size = ownedSize;
+            if (size == trackers.length) {
+                trackers = Arrays.copyOf(trackers, size * 2);
+            }
+            trackers[size] = t;
+            // publishes the new element to other threads
+            ownedSize = size + 1;
+        }
+    }
+
     private static final class TaskletTracker {
         final Tasklet tasklet;
         final ExecutionTracker executionTracker;
         final ClassLoader jobClassLoader;
         final AtomicReference<CooperativeWorker> stealingWorker = new AtomicReference<>();
 
+        // link in TrackerRing's stack of incoming trackers
+        TaskletTracker nextIncoming;
+        // time spent in call() in the current sampling period, accessed only by the worker running the tasklet
+        long busyNanos;
+        // moving average of busyNanos per sampling period, read by other workers when balancing the load
+        volatile long load;
+        // System.nanoTime() when the tasklet was submitted or last moved to another worker
+        volatile long movedAtNanos = System.nanoTime();
+
         TaskletTracker(Tasklet tasklet, ExecutionTracker executionTracker, ClassLoader jobClassLoader) {
             this.tasklet = tasklet;
             this.executionTracker = executionTracker;
@@ -319,7 +906,8 @@ public class TaskletExecutionService {
     private final class ExecutionTracker {
 
         final NonCompletableFuture future = new NonCompletableFuture();
-        List<Future> blockingFutures;
+        // cancel the blocking tasklets, interrupting them if they're running
+        List<Runnable> blockingCancellers;
 
         private final AtomicInteger completionLatch;
         private final AtomicReference<Throwable> executionException = new AtomicReference<>();
@@ -334,12 +922,15 @@ public class TaskletExecutionService {
                     return;
                 }
                 exception(e);
-                blockingFutures.forEach(f -> f.cancel(true)); // CompletableFuture.cancel ignores the flag
+                blockingCancellers.forEach(Runnable::run);
             }));
         }
 
         void exception(Throwable t) {
-            executionException.compareAndSet(null, t);
+            if (executionException.compareAndSet(null, t) && isParking) {
+                // parked workers must notice the failure to dismiss the job's tasklets
+                wakeUpCooperativeWorkers();
+            }
         }
 
         void taskletDone() {
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+
+/**
+ * Lets the parties handing data to a tasklet wake up the worker thread
+ * currently running it, if that thread is parked. Used with the {@link
+ * com.hazelcast.jet.config.IdleStrategyType#PARKING PARKING} idle strategy;
+ * with other strategies no worker is ever bound to the signal and {@link
+ * #wakeUp()} is a cheap no-op.
+ * <p>
+ * {@code TaskletExecutionService} binds the signal to a worker when it
+ * assigns the tasklet to it, including after work stealing. A pooled
+ * blocking tasklet binds the signal to itself, waking it up runs the
+ * tasklet without waiting for its next scheduled run.
+ */
+public final class WakeUpSignal {
+
+    private volatile Wakeable worker;
+
+    /**
+     * Unparks the worker running the tasklet, if it is parked. Can be called
+     * from any thread.
+     */
+    public void wakeUp() {
+        Wakeable w = worker;
+        if (w != null) {
+            w.wakeUp();
+        }
+    }
+
+    void bindTo(Wakeable worker) {
+        this.worker = worker;
+    }
+
+    /**
+     * The party running the tasklet, woken up when there is data for it.
+     */
+    interface Wakeable {
+        void wakeUp();
+    }
+
+    /**
+     * The parking state of a worker thread. The thread raises the {@code
+     * parked} flag and then checks its tasklets once more before actually
+     * parking, so that a wake-up issued in between isn't lost.
+     * <p>
+     * This is a Dekker-style handshake: the worker stores the flag and then
+     * loads the queue tail, the producer stores the tail and then loads the
+     * flag. The queues publish the tail with a release-only store, so {@link
+     * #wakeUp()} needs a full fence to keep its load of the flag from being
+     * reordered before that store.
+     */
+    static final class Worker implements Wakeable {
+        final Thread thread;
+        volatile boolean parked;
+
+        Worker(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void wakeUp() {
+            UNSAFE.fullFence();
+            if (parked) {
+                // clearing the flag prevents a burst of unparks for the same park
+                // and tells the worker to re-arm before parking again
+                parked = false;
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.impl.util.TimestampHistory;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 
 import static com.hazelcast.util.Preconditions.checkNotNegative;
@@ -47,6 +48,20 @@ public abstract class WatermarkCoalescer {
 
     private WatermarkCoalescer() { }
 
+    /**
+     * Returns a watermark with the given timestamp. The coalesced watermark
+     * is usually one of the received ones, so it returns {@code received} if
+     * it has the same timestamp, or {@link #IDLE_MESSAGE}, and creates a new
+     * instance only otherwise. Watermarks are immutable, so the instance can
+     * be shared by all the queues it's forwarded to.
+     */
+    public static Watermark toWatermark(long timestamp, @Nullable Watermark received) {
+        if (received != null && received.timestamp() == timestamp) {
+            return received;
+        }
+        return timestamp == IDLE_MESSAGE.timestamp() ? IDLE_MESSAGE : new Watermark(timestamp);
+    }
+
     /**
      * Called when the queue with the given index is exhausted.
      *
@@ -34,6 +34,7 @@ public class EdgeDef implements IdentifiedDataSerializable {
     private int destOrdinal;
     private int priority;
     private boolean isDistributed;
+    private boolean isSplitHotKeys;
     private RoutingPolicy routingPolicy;
     private Partitioner partitioner;
     private EdgeConfig config;
@@ -53,6 +54,7 @@ public class EdgeDef implements IdentifiedDataSerializable {
         this.destOrdinal = edge.getDestOrdinal();
         this.priority = edge.getPriority();
         this.isDistributed = isJobDistributed && edge.isDistributed();
+        this.isSplitHotKeys = edge.isSplitHotKeys();
         this.routingPolicy = edge.getRoutingPolicy();
         this.partitioner = edge.getPartitioner();
         this.config = config;
@@ -73,6 +75,10 @@ public class EdgeDef implements IdentifiedDataSerializable {
         return partitioner;
     }
 
+    public boolean isSplitHotKeys() {
+        return isSplitHotKeys;
+    }
+
     String edgeId() {
         return id;
     }
@@ -125,6 +131,7 @@ public class EdgeDef implements IdentifiedDataSerializable {
         out.writeInt(sourceOrdinal);
         out.writeInt(priority);
         out.writeBoolean(isDistributed);
+        out.writeBoolean(isSplitHotKeys);
         out.writeObject(routingPolicy);
         CustomClassLoadedObject.write(out, partitioner);
         out.writeObject(config);
@@ -137,6 +144,7 @@ public class EdgeDef implements IdentifiedDataSerializable {
         sourceOrdinal = in.readInt();
         priority = in.readInt();
         isDistributed = in.readBoolean();
+        isSplitHotKeys = in.readBoolean();
         routingPolicy = in.readObject();
         partitioner = CustomClassLoadedObject.read(in);
         config = in.readObject();
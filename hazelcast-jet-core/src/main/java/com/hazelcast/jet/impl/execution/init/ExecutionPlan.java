@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution.init;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
 import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
@@ -27,12 +28,16 @@ import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Edge.RoutingPolicy;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.impl.DataPlane;
+import com.hazelcast.jet.impl.DataPlane.DataConnection;
 import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.Networking;
 import com.hazelcast.jet.impl.execution.ConcurrentInboundEdgeStream;
 import com.hazelcast.jet.impl.execution.ConveyorCollector;
 import com.hazelcast.jet.impl.execution.ConveyorCollectorWithPartition;
 import com.hazelcast.jet.impl.execution.InboundEdgeStream;
 import com.hazelcast.jet.impl.execution.OutboundCollector;
+import com.hazelcast.jet.impl.execution.OutboundCollector.HotKeySplitting;
 import com.hazelcast.jet.impl.execution.OutboundEdgeStream;
 import com.hazelcast.jet.impl.execution.ProcessorTasklet;
 import com.hazelcast.jet.impl.execution.ReceiverTasklet;
@@ -40,6 +45,7 @@ import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.jet.impl.execution.SnapshotContext;
 import com.hazelcast.jet.impl.execution.StoreSnapshotTasklet;
 import com.hazelcast.jet.impl.execution.Tasklet;
+import com.hazelcast.jet.impl.execution.WakeUpSignal;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcSupplierCtx;
 import com.hazelcast.logging.ILogger;
@@ -95,7 +101,10 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
     private final Map<String, ConcurrentConveyor<Object>[]> localConveyorMap = new HashMap<>();
     private final Map<String, Map<Address, ConcurrentConveyor<Object>>> edgeSenderConveyorMap = new HashMap<>();
-    private final List<Processor> processors = new ArrayList<>();
+    /** objects registered in the metrics registry, to be deregistered when the execution completes */
+    private final List<Object> probeSources = new ArrayList<>();
+    /** vertex id --> local processor index --> wake-up signal of the processor tasklet */
+    private final Map<Integer, WakeUpSignal[]> processorSignals = new HashMap<>();
 
     private PartitionArrangement ptionArrgmt;
 
@@ -135,7 +144,8 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             Arrays.setAll(snapshotQueues, i -> new OneToOneConcurrentArrayQueue<>(SNAPSHOT_QUEUE_SIZE));
             ConcurrentConveyor<Object> ssConveyor = ConcurrentConveyor.concurrentConveyor(null, snapshotQueues);
             StoreSnapshotTasklet ssTasklet = new StoreSnapshotTasklet(snapshotContext, jobId,
-                    new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, -1),
+                    new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, -1,
+                            processorSignals(srcVertex)),
                     nodeEngine, srcVertex.name(), srcVertex.isHigherPriorityUpstream());
             tasklets.add(ssTasklet);
 
@@ -151,21 +161,33 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                         globalProcessorIndex,
                         jobConfig.getProcessingGuarantee());
 
-                 String probePrefix = String.format("jet.job.%s.%s#%d", idToString(executionId), srcVertex.name(),
-                         localProcessorIdx);
-                 ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(p, probePrefix);
+                String probePrefix = String.format("jet.job.%s.%s#%d", idToString(executionId), srcVertex.name(),
+                        localProcessorIdx);
+                registerMetrics(p, probePrefix);
 
                 // createOutboundEdgeStreams() populates localConveyorMap and edgeSenderConveyorMap.
                 // Also populates instance fields: senderMap, receiverMap, tasklets.
                 List<OutboundEdgeStream> outboundStreams = createOutboundEdgeStreams(srcVertex, localProcessorIdx);
                 List<InboundEdgeStream> inboundStreams = createInboundEdgeStreams(srcVertex, localProcessorIdx);
 
-                OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null);
+                OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null,
+                        ssTasklet.wakeUpSignal());
 
                 ProcessorTasklet processorTasklet = new ProcessorTasklet(context, p, inboundStreams, outboundStreams,
-                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis());
+                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis(),
+                        processorSignals(srcVertex)[localProcessorIdx]);
+                processorTasklet.setLocalityGroup(localityGroup(srcVertex, localProcessorIdx));
+                if (jobConfig.getMaxBatchSize() > 0) {
+                    processorTasklet.setBatchSizeBounds(jobConfig.getMinBatchSize(), jobConfig.getMaxBatchSize());
+                }
+                processorTasklet.setBacklogAwareScheduling(jobConfig.isBacklogAwareSchedulingEnabled());
+                processorTasklet.setWatermarkThrottling(jobConfig.getWatermarkThrottlingMillis(),
+                        jobConfig.getWatermarkThrottlingMinDelta());
+                registerMetrics(processorTasklet, probePrefix);
+                for (InboundEdgeStream instream : inboundStreams) {
+                    registerMetrics(instream, probePrefix + ".ordinal" + instream.ordinal());
+                }
                 tasklets.add(processorTasklet);
-                this.processors.add(p);
                 localProcessorIdx++;
             }
         }
@@ -305,10 +327,16 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             for (Address destAddr : remoteMembers.get()) {
                 final ConcurrentConveyor<Object> conveyor = createConveyorArray(
                         1, edge.sourceVertex().parallelism(), edge.getConfig().getQueueSize())[0];
-                final ConcurrentInboundEdgeStream inboundEdgeStream = newEdgeStream(edge, conveyor);
+                final ConcurrentInboundEdgeStream inboundEdgeStream =
+                        newEdgeStream(edge, conveyor, processorSignals(edge.sourceVertex()));
                 final int destVertexId = edge.destVertex().vertexId();
                 final SenderTasklet t = new SenderTasklet(inboundEdgeStream, nodeEngine,
-                        destAddr, executionId, destVertexId, edge.getConfig().getPacketSizeLimit());
+                        destAddr, executionId, destVertexId, edge.getConfig().getPacketSizeLimit(),
+                        edge.routingPolicy() == RoutingPolicy.PARTITIONED,
+                        edge.getConfig().isPacketCompressionEnabled(),
+                        dataConnection(destAddr, destVertexId, edge.destOrdinal()));
+                registerMetrics(t, edgeProbePrefix(edge, "sender", destAddr));
+                registerMetrics(inboundEdgeStream, edgeProbePrefix(edge, "sender", destAddr));
                 senderMap.computeIfAbsent(destVertexId, xx -> new HashMap<>())
                          .computeIfAbsent(edge.destOrdinal(), xx -> new HashMap<>())
                          .put(destAddr, t);
@@ -335,10 +363,23 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     ) {
         final int totalPtionCount = nodeEngine.getPartitionService().getPartitionCount();
         OutboundCollector[] outboundCollectors = createOutboundCollectors(edge, processorIndex, senderConveyorMap);
-        OutboundCollector compositeCollector = compositeCollector(outboundCollectors, edge, totalPtionCount);
+        OutboundCollector compositeCollector = edge.isSplitHotKeys()
+                && edge.routingPolicy() == RoutingPolicy.PARTITIONED && outboundCollectors.length > 1
+                ? new HotKeySplitting(outboundCollectors, edge.partitioner(), totalPtionCount,
+                        destProcessorCount(edge))
+                : compositeCollector(outboundCollectors, edge, totalPtionCount);
         return new OutboundEdgeStream(edge.sourceOrdinal(), compositeCollector);
     }
 
+    /**
+     * Returns the number of the processors the items on the edge can reach
+     * from this member.
+     */
+    private int destProcessorCount(EdgeDef edge) {
+        final int memberCount = edge.isDistributed() ? ptionArrgmt.remotePartitionAssignment.get().size() + 1 : 1;
+        return edge.destVertex().parallelism() * memberCount;
+    }
+
     private OutboundCollector[] createOutboundCollectors(
             EdgeDef edge, int processorIndex, Map<Address, ConcurrentConveyor<Object>> senderConveyorMap
     ) {
@@ -364,9 +405,11 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             // there is only one producer per consumer for a one to many edge, so queueCount is always 1
             ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.computeIfAbsent(edge.edgeId(),
                     e -> createConveyorArray(downstreamParallelism, 1, queueSize));
+            final WakeUpSignal[] consumerSignals = processorSignals(edge.destVertex());
             return IntStream.range(0, downstreamParallelism)
                             .filter(i -> i % upstreamParallelism == processorIndex)
-                            .mapToObj(i -> new ConveyorCollector(localConveyors[i], 0, ptionsPerProcessor[i]))
+                            .mapToObj(i -> new ConveyorCollector(localConveyors[i], 0, ptionsPerProcessor[i],
+                                    consumerSignals[i]))
                             .toArray(OutboundCollector[]::new);
         }
 
@@ -383,9 +426,10 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                     int queueCount = upstreamParallelism + (edge.isDistributed() ? numRemoteMembers : 0);
                     return createConveyorArray(downstreamParallelism, queueCount, queueSize);
                 });
+        final WakeUpSignal[] consumerSignals = processorSignals(edge.destVertex());
         final OutboundCollector[] localCollectors = new OutboundCollector[downstreamParallelism];
-        Arrays.setAll(localCollectors, n ->
-                new ConveyorCollector(localConveyors[n], processorIndex, ptionsPerProcessor[n]));
+        Arrays.setAll(localCollectors, n -> new ConveyorCollector(
+                localConveyors[n], processorIndex, ptionsPerProcessor[n], consumerSignals[n]));
 
         // in a local edge, we only have the local collectors.
         if (!edge.isDistributed()) {
@@ -403,19 +447,29 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         allCollectors = new OutboundCollector[memberToPartitions.size() + 1];
         allCollectors[0] = compositeCollector(localCollectors, edge, totalPtionCount);
         int index = 1;
+        final Map<Address, SenderTasklet> senders =
+                senderMap.get(edge.destVertex().vertexId()).get(edge.destOrdinal());
+        // only a partitioned edge needs the partition ID on the receiving side
+        final boolean sendPartitionIds = edge.routingPolicy() == RoutingPolicy.PARTITIONED;
         for (Map.Entry<Address, int[]> entry : memberToPartitions.entrySet()) {
-            allCollectors[index++] = new ConveyorCollectorWithPartition(senderConveyorMap.get(entry.getKey()),
-                    processorIndex, entry.getValue());
+            final ConcurrentConveyor<Object> conveyor = senderConveyorMap.get(entry.getKey());
+            final WakeUpSignal senderSignal = senders.get(entry.getKey()).wakeUpSignal();
+            allCollectors[index++] = sendPartitionIds
+                    ? new ConveyorCollectorWithPartition(conveyor, processorIndex, entry.getValue(), senderSignal)
+                    : new ConveyorCollector(conveyor, processorIndex, entry.getValue(), senderSignal);
         }
         return allCollectors;
     }
 
     private void createIfAbsentReceiverTasklet(EdgeDef edge, int[][] ptionsPerProcessor, int totalPtionCount) {
         final ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.get(edge.edgeId());
+        final WakeUpSignal[] consumerSignals = processorSignals(edge.destVertex());
 
         receiverMap.computeIfAbsent(edge.destVertex().vertexId(), x -> new HashMap<>())
                    .computeIfAbsent(edge.destOrdinal(), x -> {
                        Map<Address, ReceiverTasklet> addrToTasklet = new HashMap<>();
+                       final int ackThresholdBytes =
+                               getConfig().getInstanceConfig().getFlowControlAckThresholdBytes();
                        //create a receiver per address
                        int offset = 0;
                        for (Address addr : ptionArrgmt.remotePartitionAssignment.get().keySet()) {
@@ -424,17 +478,44 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                            final int queueOffset = --offset;
                            Arrays.setAll(collectors, n -> new ConveyorCollector(
                                    localConveyors[n], localConveyors[n].queueCount() + queueOffset,
-                                   ptionsPerProcessor[n]));
+                                   ptionsPerProcessor[n], consumerSignals[n]));
                            final OutboundCollector collector = compositeCollector(collectors, edge, totalPtionCount);
                            ReceiverTasklet receiverTasklet = new ReceiverTasklet(
                                    collector, edge.getConfig().getReceiveWindowMultiplier(),
-                                   getConfig().getInstanceConfig().getFlowControlPeriodMs());
+                                   getConfig().getInstanceConfig().getFlowControlPeriodMs(),
+                                   (InternalSerializationService) nodeEngine.getSerializationService(),
+                                   ackThresholdBytes, ackRequester(addr, ackThresholdBytes));
+                           registerMetrics(receiverTasklet, edgeProbePrefix(edge, "receiver", addr));
                            addrToTasklet.put(addr, receiverTasklet);
                        }
                        return addrToTasklet;
                    });
     }
 
+    /**
+     * Returns the action requesting an early flow-control packet to the given
+     * member or {@code null}, if the packets are only sent periodically.
+     */
+    private Runnable ackRequester(Address addr, int ackThresholdBytes) {
+        if (ackThresholdBytes == 0) {
+            return null;
+        }
+        JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
+        Networking networking = service.getNetworking();
+        return () -> networking.requestFlowControlPacket(addr);
+    }
+
+    /**
+     * Returns the data plane connection for the edge to the given member or
+     * {@code null}, if the data should go through the member connection.
+     */
+    private DataConnection dataConnection(Address destAddr, int destVertexId, int destOrdinal) {
+        JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
+        DataPlane dataPlane = service.getDataPlane();
+        return dataPlane == null ? null
+                : dataPlane.connectionTo(destAddr, Objects.hash(executionId, destVertexId, destOrdinal));
+    }
+
     private JetConfig getConfig() {
         JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
         return service.getJetInstance().getConfig();
@@ -445,19 +526,98 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         for (EdgeDef inEdge : srcVertex.inboundEdges()) {
             // each tasklet has one input conveyor per edge
             final ConcurrentConveyor<Object> conveyor = localConveyorMap.get(inEdge.edgeId())[processorIdx];
-            inboundStreams.add(newEdgeStream(inEdge, conveyor));
+            inboundStreams.add(newEdgeStream(inEdge, conveyor, producerSignals(inEdge, conveyor, processorIdx)));
         }
         return inboundStreams;
     }
 
-    private ConcurrentInboundEdgeStream newEdgeStream(EdgeDef inEdge, ConcurrentConveyor<Object> conveyor) {
+    private ConcurrentInboundEdgeStream newEdgeStream(
+            EdgeDef inEdge, ConcurrentConveyor<Object> conveyor, WakeUpSignal[] producerSignals
+    ) {
         return new ConcurrentInboundEdgeStream(conveyor, inEdge.destOrdinal(), inEdge.priority(),
                 lastSnapshotId, jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE,
-                jobConfig.getMaxWatermarkRetainMillis());
+                jobConfig.getMaxWatermarkRetainMillis(), producerSignals);
     }
 
-    public List<Processor> getProcessors() {
-        return processors;
+    /**
+     * Returns the locality group of the given local processor. A processor
+     * fed through an isolated edge shares the group of its single upstream
+     * processor, so a chain of isolated edges stays within one group. The
+     * others are spread over the groups by their index. When the cooperative
+     * threads are pinned to CPUs, the execution service keeps each group on
+     * one NUMA node.
+     */
+    private static int localityGroup(VertexDef vertex, int processorIdx) {
+        for (EdgeDef inEdge : vertex.inboundEdges()) {
+            if (inEdge.routingPolicy() == RoutingPolicy.ISOLATED) {
+                final VertexDef upstream = inEdge.sourceVertex();
+                return localityGroup(upstream, processorIdx % upstream.parallelism());
+            }
+        }
+        return processorIdx;
+    }
+
+    /**
+     * Returns the wake-up signals of the processor tasklets of the given
+     * vertex, indexed by local processor index. The signals are created on
+     * first access because the collectors of an upstream vertex need them
+     * before the downstream tasklets exist.
+     */
+    private WakeUpSignal[] processorSignals(VertexDef vertex) {
+        return processorSignals.computeIfAbsent(vertex.vertexId(), x -> {
+            final WakeUpSignal[] signals = new WakeUpSignal[vertex.parallelism()];
+            Arrays.setAll(signals, i -> new WakeUpSignal());
+            return signals;
+        });
+    }
+
+    /**
+     * Returns the wake-up signals of the tasklets feeding the given inbound
+     * conveyor, indexed by queue index: the upstream processors followed by
+     * the receiver tasklets of a distributed edge, mirroring the queue layout
+     * set up in {@link #createOutboundCollectors} and {@link
+     * #createIfAbsentReceiverTasklet}.
+     */
+    private WakeUpSignal[] producerSignals(EdgeDef inEdge, ConcurrentConveyor<Object> conveyor, int processorIdx) {
+        final WakeUpSignal[] upstreamSignals = processorSignals(inEdge.sourceVertex());
+        final WakeUpSignal[] signals = new WakeUpSignal[conveyor.queueCount()];
+        if (inEdge.routingPolicy() == RoutingPolicy.ISOLATED) {
+            signals[0] = upstreamSignals[processorIdx % upstreamSignals.length];
+            return signals;
+        }
+        System.arraycopy(upstreamSignals, 0, signals, 0, upstreamSignals.length);
+        if (inEdge.isDistributed()) {
+            final Map<Address, ReceiverTasklet> receivers =
+                    receiverMap.get(inEdge.destVertex().vertexId()).get(inEdge.destOrdinal());
+            int queueIndex = signals.length;
+            for (Address addr : ptionArrgmt.remotePartitionAssignment.get().keySet()) {
+                signals[--queueIndex] = receivers.get(addr).wakeUpSignal();
+            }
+        }
+        return signals;
+    }
+
+    /**
+     * Returns the objects registered in the metrics registry. The list is
+     * populated during {@link #initialize}.
+     */
+    public List<Object> getProbeSources() {
+        return probeSources;
+    }
+
+    private void registerMetrics(Object source, String probePrefix) {
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(source, probePrefix);
+        probeSources.add(source);
+    }
+
+    /**
+     * Returns the prefix of the metrics of the sender or receiver tasklet
+     * of a distributed edge, for example {@code
+     * jet.job.<executionId>.<destVertex>.ordinal0.sender.[10.0.0.1]:5701}.
+     */
+    private String edgeProbePrefix(EdgeDef edge, String role, Address remoteAddress) {
+        return String.format("jet.job.%s.%s.ordinal%d.%s.%s", idToString(executionId),
+                edge.destVertex().name(), edge.destOrdinal(), role, remoteAddress);
     }
 
     public long lastSnapshotId() {
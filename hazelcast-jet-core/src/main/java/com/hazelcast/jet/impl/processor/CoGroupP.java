@@ -16,19 +16,24 @@
 
 package com.hazelcast.jet.impl.processor;
 
+import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedSupplier;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
+import java.io.Closeable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static java.util.Collections.singletonList;
 
@@ -37,13 +42,19 @@ import static java.util.Collections.singletonList;
  * aggregate operation on each group. The items may originate from one or
  * more inbound edges. The supplied aggregate operation must have as many
  * accumulation functions as there are inbound edges.
+ * <p>
+ * The accumulators are kept in a {@link KeyedStore}. A non-cooperative
+ * processor can spill them to disk if there are too many keys, a
+ * cooperative one keeps them on the heap since it mustn't block. The
+ * processors created through {@link #supplier} are non-cooperative if
+ * they may spill and their store is disposed when the job completes.
  */
-public class CoGroupP<K, A, R> extends AbstractProcessor {
+public class CoGroupP<K, A, R> extends AbstractProcessor implements Closeable {
     private final List<DistributedFunction<?, ? extends K>> groupKeyFs;
     private final AggregateOperation<A, R> aggrOp;
 
-    private final Map<K, A> keyToAcc = new HashMap<>();
-    private final Traverser<Map.Entry<K, R>> resultTraverser;
+    private KeyedStore<K, A> keyToAcc = new HeapKeyedStore<>();
+    private Traverser<Map.Entry<K, R>> resultTraverser;
 
     public CoGroupP(
             @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFs,
@@ -51,9 +62,6 @@ public class CoGroupP<K, A, R> extends AbstractProcessor {
     ) {
         this.groupKeyFs = groupKeyFs;
         this.aggrOp = aggrOp;
-        this.resultTraverser = traverseStream(keyToAcc
-                .entrySet().stream()
-                .map(e -> entry(e.getKey(), this.aggrOp.finishFn().apply(e.getValue()))));
     }
 
     public <T> CoGroupP(
@@ -63,18 +71,75 @@ public class CoGroupP<K, A, R> extends AbstractProcessor {
         this(singletonList(groupKeyFn), aggrOp);
     }
 
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        // spilling is blocking IO, a cooperative processor keeps the accumulators on the heap
+        if (!isCooperative()) {
+            keyToAcc = KeyedStore.create(context);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         Function<Object, ? extends K> keyFn = (Function<Object, ? extends K>) groupKeyFs.get(ordinal);
         K key = keyFn.apply(item);
-        A acc = keyToAcc.computeIfAbsent(key, k -> aggrOp.createFn().get());
+        A acc = keyToAcc.computeIfAbsent(key, aggrOp.createFn());
         aggrOp.accumulateFn(ordinal).accept(acc, item);
         return true;
     }
 
     @Override
     public boolean complete() {
+        if (resultTraverser == null) {
+            resultTraverser = keyToAcc.entries()
+                                      .<Map.Entry<K, R>>map(e -> entry(e.getKey(), aggrOp.finishFn().apply(e.getValue())))
+                                      .onFirstNull(keyToAcc::dispose);
+        }
         return emitFromTraverser(resultTraverser);
     }
+
+    @Override
+    public void close() {
+        keyToAcc.dispose();
+    }
+
+    /**
+     * Returns a supplier of the processors created by the given function,
+     * which must create {@code CoGroupP} instances, such as the one returned
+     * from {@link com.hazelcast.jet.core.processor.Processors#aggregateByKeyP
+     * Processors.aggregateByKeyP()}.
+     */
+    @Nonnull
+    public static ProcessorSupplier supplier(@Nonnull DistributedSupplier<Processor> newProcessorFn) {
+        return new Supplier(newProcessorFn);
+    }
+
+    private static final class Supplier extends CloseableProcessorSupplier<CoGroupP<?, ?, ?>> {
+
+        static final long serialVersionUID = 1L;
+
+        private transient boolean maySpill;
+
+        Supplier(DistributedSupplier<Processor> newProcessorFn) {
+            super(() -> (CoGroupP<?, ?, ?>) newProcessorFn.get());
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            super.init(context);
+            JetInstance instance = context.jetInstance();
+            maySpill = instance != null && instance.getConfig().getInstanceConfig().getSpillThreshold() > 0;
+        }
+
+        @Nonnull @Override
+        public Collection<CoGroupP<?, ?, ?>> get(int count) {
+            Collection<CoGroupP<?, ?, ?>> processors = super.get(count);
+            if (maySpill) {
+                // the store does blocking file IO
+                processors.forEach(p -> p.setCooperative(false));
+            }
+            return processors;
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * The deadline index of {@link SessionWindowP}: a hashed timing wheel of
+ * (deadline, key) entries. The deadlines are divided into buckets of the
+ * given width and each bucket goes to the slot given by its sequence
+ * {@code deadline / bucketWidth} modulo the number of slots. A slot keeps
+ * its entries in a primitive array of deadlines and a parallel array of
+ * keys, in no particular order. Buckets further than the wheel size apart
+ * share a slot, so the wheel covers any range of deadlines with a fixed
+ * number of slots.
+ * <p>
+ * The entries before a limit are polled one at a time, visiting only the
+ * slots of the buckets passed since the previous polling. Polling doesn't
+ * allocate, the slot arrays are reused. The wheel doesn't support removal,
+ * an entry that became stale is left to the caller to recognize when it's
+ * polled.
+ */
+final class DeadlineWheel {
+
+    private static final int SLOT_COUNT = 1 << 10;
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    private final long bucketWidth;
+    private final long[][] deadlines = new long[SLOT_COUNT][];
+    private final Object[][] keys = new Object[SLOT_COUNT][];
+    private final int[] sizes = new int[SLOT_COUNT];
+    private int size;
+    // no entry is in a bucket below this one
+    private long minSeq;
+
+    // the state of the current polling
+    private long pollLimit;
+    private long pollSeq;
+    private long pollEndSeq = -1;
+    private int pollIndex;
+    private long polledDeadline;
+
+    DeadlineWheel(long bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("bucketWidth must be positive: " + bucketWidth);
+        }
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Adds the entry. The same key can be added more than once. An entry
+     * added during polling with a deadline before the polling limit is
+     * only returned by the next polling.
+     */
+    void add(@Nonnull Object key, long deadline) {
+        long seq = seq(deadline);
+        if (size == 0 || seq < minSeq) {
+            minSeq = seq;
+        }
+        int slot = slot(seq);
+        int slotSize = sizes[slot];
+        if (deadlines[slot] == null) {
+            deadlines[slot] = new long[INITIAL_SLOT_CAPACITY];
+            keys[slot] = new Object[INITIAL_SLOT_CAPACITY];
+        } else if (slotSize == deadlines[slot].length) {
+            deadlines[slot] = Arrays.copyOf(deadlines[slot], slotSize << 1);
+            keys[slot] = Arrays.copyOf(keys[slot], slotSize << 1);
+        }
+        deadlines[slot][slotSize] = deadline;
+        keys[slot][slotSize] = key;
+        sizes[slot] = slotSize + 1;
+        size++;
+    }
+
+    /**
+     * Starts polling the entries with the deadline before the given limit.
+     */
+    void startPolling(long limit) {
+        pollLimit = limit;
+        pollIndex = 0;
+        if (size == 0 || limit == Long.MIN_VALUE || seq(limit - 1) < minSeq) {
+            // nothing to poll
+            pollSeq = 0;
+            pollEndSeq = -1;
+            return;
+        }
+        long lastSeq = seq(limit - 1);
+        long span = lastSeq - minSeq;
+        // if the buckets to visit wrap around the wheel (or the span overflows), visit each slot once
+        pollSeq = span >= 0 && span < SLOT_COUNT ? minSeq : lastSeq - (SLOT_COUNT - 1);
+        pollEndSeq = lastSeq;
+        // the bucket of the limit itself can keep entries not yet due
+        minSeq = lastSeq;
+    }
+
+    /**
+     * Removes and returns the key of the next entry with the deadline
+     * before the limit given to {@link #startPolling}, or returns {@code
+     * null} if there's none left. The deadline of the returned entry is
+     * available from {@link #polledDeadline()}. The entries are returned
+     * in the order of their buckets.
+     */
+    @Nullable
+    Object poll() {
+        for (; pollSeq <= pollEndSeq; pollSeq++, pollIndex = 0) {
+            int slot = slot(pollSeq);
+            for (; pollIndex < sizes[slot]; pollIndex++) {
+                long deadline = deadlines[slot][pollIndex];
+                if (deadline < pollLimit) {
+                    Object key = keys[slot][pollIndex];
+                    removeAt(slot, pollIndex);
+                    polledDeadline = deadline;
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the deadline of the entry last returned from {@link #poll()}.
+     */
+    long polledDeadline() {
+        return polledDeadline;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadlineWheel{bucketWidth=" + bucketWidth + ", size=" + size + '}';
+    }
+
+    private void removeAt(int slot, int index) {
+        // move the last entry into the gap, it will be looked at next
+        int last = --sizes[slot];
+        deadlines[slot][index] = deadlines[slot][last];
+        keys[slot][index] = keys[slot][last];
+        keys[slot][last] = null;
+        size--;
+    }
+
+    private long seq(long deadline) {
+        return Math.floorDiv(deadline, bucketWidth);
+    }
+
+    private static int slot(long seq) {
+        return (int) (seq & (SLOT_COUNT - 1));
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * The frames of {@link SlidingWindowP}: a circular array of frames, indexed
+ * by the frame sequence {@code frameTs / frameLength} modulo the array
+ * length. Each frame maps the grouping key to the accumulator in an
+ * open-addressing hash table. Evicted frames are cleared and reused, so the
+ * steady state of a sliding window doesn't allocate anything per frame.
+ * <p>
+ * The array covers a range of sequences about twice the window size,
+ * starting at the lowest frame in it. The frames outside of that range,
+ * such as the frame of an outlier timestamp or the frames of a long batch
+ * input without watermarks, are kept in a sparse overflow map. The range
+ * moves up as the frames are evicted and takes the overflow frames it
+ * reaches into the array.
+ *
+ * @param <A> type of the accumulator
+ */
+final class FrameRing<A> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final long frameLength;
+    private final Frame<A>[] frames;
+    // the non-empty frames outside the range of the array, by sequence
+    private final TreeMap<Long, Frame<A>> overflow = new TreeMap<>();
+    // the array holds the frames with sequences from baseSeq to baseSeq + frames.length - 1
+    private long baseSeq;
+    // the range of sequences of the non-empty frames in the array, empty if lowSeq > highSeq
+    private long lowSeq = Long.MAX_VALUE;
+    private long highSeq = Long.MIN_VALUE;
+
+    FrameRing(long frameLength, long framesPerWindow) {
+        this.frameLength = frameLength;
+        this.frames = newArray(nextPowerOfTwo(
+                (int) Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, 2 * framesPerWindow))));
+    }
+
+    /**
+     * Returns the frame with the given timestamp, creating it if needed.
+     */
+    @Nonnull
+    Frame<A> frameForUpdate(long frameTs) {
+        long seq = seq(frameTs);
+        if (!isInArray(seq)) {
+            Frame<A> frame = overflow.get(seq);
+            if (frame != null) {
+                return frame;
+            }
+            if (!tryMoveArrayTo(seq)) {
+                frame = new Frame<>(frameTs);
+                overflow.put(seq, frame);
+                return frame;
+            }
+        }
+        lowSeq = Math.min(lowSeq, seq);
+        highSeq = Math.max(highSeq, seq);
+        int slot = slot(seq);
+        Frame<A> frame = frames[slot];
+        if (frame == null) {
+            frame = frames[slot] = new Frame<>(frameTs);
+        } else if (frame.frameTs != frameTs) {
+            assert frame.isEmpty() : "slot of frame " + frameTs + " taken by frame " + frame.frameTs;
+            frame.frameTs = frameTs;
+        }
+        return frame;
+    }
+
+    /**
+     * Returns the non-empty frame with the given timestamp or {@code null}.
+     */
+    @Nullable
+    Frame<A> get(long frameTs) {
+        long seq = seq(frameTs);
+        Frame<A> frame;
+        if (!isInArray(seq)) {
+            frame = overflow.get(seq);
+        } else if (seq < lowSeq || seq > highSeq) {
+            return null;
+        } else {
+            frame = frames[slot(seq)];
+        }
+        return frame != null && frame.frameTs == frameTs && !frame.isEmpty() ? frame : null;
+    }
+
+    /**
+     * Clears the frame with the given timestamp, if there is one.
+     */
+    void evict(long frameTs) {
+        long seq = seq(frameTs);
+        if (!isInArray(seq)) {
+            overflow.remove(seq);
+            if (lowSeq > highSeq && !overflow.isEmpty()) {
+                moveArrayTo(overflow.firstKey());
+            }
+            return;
+        }
+        Frame<A> frame = get(frameTs);
+        if (frame == null) {
+            return;
+        }
+        frame.clear();
+        if (seq == lowSeq) {
+            while (lowSeq <= highSeq && isEmptySlot(lowSeq)) {
+                lowSeq++;
+            }
+        } else if (seq == highSeq) {
+            while (highSeq >= lowSeq && isEmptySlot(highSeq)) {
+                highSeq--;
+            }
+        }
+        if (lowSeq > highSeq) {
+            lowSeq = Long.MAX_VALUE;
+            highSeq = Long.MIN_VALUE;
+            if (!overflow.isEmpty()) {
+                moveArrayTo(overflow.firstKey());
+            }
+        } else if (seq < lowSeq && !overflow.isEmpty()) {
+            moveArrayTo(lowSeq);
+        }
+    }
+
+    boolean isEmpty() {
+        return lowSeq > highSeq && overflow.isEmpty();
+    }
+
+    /**
+     * Returns the timestamp of the lowest non-empty frame. The ring must not
+     * be empty.
+     */
+    long bottomTs() {
+        assert !isEmpty() : "bottomTs() of an empty ring";
+        if (!overflow.isEmpty() && (lowSeq > highSeq || overflow.firstKey() < lowSeq)) {
+            return overflow.firstEntry().getValue().frameTs;
+        }
+        return frames[slot(lowSeq)].frameTs;
+    }
+
+    /**
+     * Returns a traverser over the non-empty frames in the order of their
+     * timestamps. The ring must not change while it's traversed.
+     */
+    @Nonnull
+    Traverser<Frame<A>> frames() {
+        Traverser<Frame<A>> below = traverseIterable(overflow.headMap(baseSeq).values());
+        Traverser<Frame<A>> above = traverseIterable(overflow.tailMap(baseSeq).values());
+        long[] seq = {lowSeq};
+        return () -> {
+            Frame<A> frame = below.next();
+            if (frame != null) {
+                return frame;
+            }
+            for (; seq[0] <= highSeq; seq[0]++) {
+                if (!isEmptySlot(seq[0])) {
+                    return frames[slot(seq[0]++)];
+                }
+            }
+            return above.next();
+        };
+    }
+
+    // for testing
+    int overflowSize() {
+        return overflow.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        Traverser<Frame<A>> traverser = frames();
+        for (Frame<A> frame; (frame = traverser.next()) != null; ) {
+            sb.append(sb.length() > 1 ? ", " : "").append(frame.frameTs).append('=').append(frame);
+        }
+        return sb.append('}').toString();
+    }
+
+    private boolean isInArray(long seq) {
+        // unsigned, so that a difference beyond Long.MAX_VALUE doesn't wrap around
+        return seq >= baseSeq && Long.compareUnsigned(seq - baseSeq, frames.length) < 0;
+    }
+
+    private boolean isEmptySlot(long seq) {
+        Frame<A> frame = frames[slot(seq)];
+        return frame == null || frame.isEmpty() || seq(frame.frameTs) != seq;
+    }
+
+    /**
+     * Moves the range of the array so that it covers the given sequence,
+     * if it can still cover the frames already in it.
+     */
+    private boolean tryMoveArrayTo(long seq) {
+        if (lowSeq > highSeq) {
+            moveArrayTo(seq);
+            return true;
+        }
+        long newBase = Math.min(lowSeq, seq);
+        if (Long.compareUnsigned(Math.max(highSeq, seq) - newBase, frames.length) >= 0) {
+            return false;
+        }
+        moveArrayTo(newBase);
+        return true;
+    }
+
+    /**
+     * Sets the start of the range of the array and moves the overflow frames
+     * that fall into it into the array. The frames already in the array must
+     * stay in its range.
+     */
+    private void moveArrayTo(long newBaseSeq) {
+        baseSeq = newBaseSeq;
+        for (Iterator<Entry<Long, Frame<A>>> it = overflow.tailMap(baseSeq).entrySet().iterator(); it.hasNext(); ) {
+            Entry<Long, Frame<A>> e = it.next();
+            long seq = e.getKey();
+            if (!isInArray(seq)) {
+                break;
+            }
+            it.remove();
+            frames[slot(seq)] = e.getValue();
+            lowSeq = Math.min(lowSeq, seq);
+            highSeq = Math.max(highSeq, seq);
+        }
+    }
+
+    private long seq(long frameTs) {
+        return Math.floorDiv(frameTs, frameLength);
+    }
+
+    private int slot(long seq) {
+        return (int) (seq & (frames.length - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> Frame<A>[] newArray(int length) {
+        return new Frame[length];
+    }
+
+    /**
+     * A frame: an open-addressing hash table from the grouping key to the
+     * accumulator, with linear probing. Keys are only added, the whole frame
+     * is cleared on eviction. A cleared frame that was mostly empty shrinks,
+     * so a burst of keys doesn't keep its table large for good.
+     *
+     * @param <A> type of the accumulator
+     */
+    static final class Frame<A> {
+
+        private static final int INITIAL_CAPACITY = 8;
+        private static final int INT_PHI = 0x9E3779B9;
+        // a table is shrunk on clear() if it was filled less than this fraction
+        private static final int SHRINK_FILL_DIVISOR = 8;
+
+        long frameTs;
+        private Object[] keys = new Object[INITIAL_CAPACITY];
+        private Object[] accs = new Object[INITIAL_CAPACITY];
+        private int size;
+
+        Frame(long frameTs) {
+            this.frameTs = frameTs;
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        A get(@Nonnull Object key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].equals(key)) {
+                    return (A) accs[i];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        A computeIfAbsent(@Nonnull Object key, @Nonnull Supplier<? extends A> createFn) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].equals(key)) {
+                    return (A) accs[i];
+                }
+            }
+            A acc = createFn.get();
+            insert(i, key, acc);
+            return acc;
+        }
+
+        /**
+         * Adds the accumulator, unless the key is already present.
+         *
+         * @return {@code false} if the key was already present
+         */
+        boolean putIfAbsent(@Nonnull Object key, @Nonnull A acc) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].equals(key)) {
+                    return false;
+                }
+            }
+            insert(i, key, acc);
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(@Nonnull BiConsumer<Object, ? super A> action) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    action.accept(keys[i], (A) accs[i]);
+                }
+            }
+        }
+
+        /**
+         * Returns a traverser over the results of the mapping function
+         * applied to each key and its accumulator, without allocating an
+         * entry for them. The frame must not change while it's traversed.
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        <R> Traverser<R> traverse(@Nonnull BiFunction<Object, ? super A, ? extends R> mapFn) {
+            int[] index = {0};
+            return () -> {
+                for (int i; (i = index[0]++) < keys.length; ) {
+                    if (keys[i] != null) {
+                        return mapFn.apply(keys[i], (A) accs[i]);
+                    }
+                }
+                return null;
+            };
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            if (size == 0) {
+                return;
+            }
+            if (keys.length > INITIAL_CAPACITY && size < keys.length / SHRINK_FILL_DIVISOR) {
+                // room for twice the keys of the cleared frame within the load factor
+                int capacity = Math.max(INITIAL_CAPACITY, nextPowerOfTwo(4 * size));
+                keys = new Object[capacity];
+                accs = new Object[capacity];
+            } else {
+                Arrays.fill(keys, null);
+                Arrays.fill(accs, null);
+            }
+            size = 0;
+        }
+
+        // for testing
+        int capacity() {
+            return keys.length;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            forEach((k, acc) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(acc));
+            return sb.append('}').toString();
+        }
+
+        private void insert(int i, Object key, A acc) {
+            keys[i] = key;
+            accs[i] = acc;
+            // keep the load factor at most 1/2
+            if (++size > keys.length >> 1) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            Object[] oldKeys = keys;
+            Object[] oldAccs = accs;
+            keys = new Object[oldKeys.length << 1];
+            accs = new Object[oldKeys.length << 1];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != null) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    accs[i] = oldAccs[j];
+                }
+            }
+        }
+
+        private static int hash(Object key) {
+            int h = key.hashCode() * INT_PHI;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.ResettableSingletonTraverser;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedPredicate;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Processor which applies a chain of stateless map, filter and flat-map
+ * steps to each received item and emits the results. It takes the place of
+ * a chain of vertices that would otherwise each run their own processor
+ * and exchange the items over local edges.
+ * <p>
+ * Map and filter steps are applied in a plain loop; a flat-map step
+ * applies the rest of the chain to each item of its traverser.
+ */
+public class FusedTransformP extends AbstractProcessor {
+
+    private final Step[] steps;
+    // one traverser per chain position, see applyFrom()
+    private final ResettableSingletonTraverser<Object>[] singletons;
+    private final FlatMapper<Object, Object> flatMapper;
+
+    /**
+     * Constructs a processor that applies the given steps in order.
+     */
+    @SuppressWarnings("unchecked")
+    public FusedTransformP(@Nonnull List<Step> steps) {
+        this.steps = steps.toArray(new Step[0]);
+        this.singletons = new ResettableSingletonTraverser[this.steps.length];
+        for (int i = 0; i < singletons.length; i++) {
+            singletons[i] = new ResettableSingletonTraverser<>();
+        }
+        this.flatMapper = flatMapper(item -> applyFrom(0, item));
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+        return flatMapper.tryProcess(item);
+    }
+
+    /**
+     * Applies the steps from {@code start} onwards to the item. The result
+     * for a given {@code start} is always fully drained before the method is
+     * called with the same {@code start} again, therefore the singleton
+     * traverser at that position can be reused.
+     */
+    @SuppressWarnings("unchecked")
+    private Traverser<Object> applyFrom(int start, Object item) {
+        Object current = item;
+        for (int i = start; i < steps.length; i++) {
+            Step step = steps[i];
+            if (step.flatMapFn == null) {
+                current = step.mapFn.apply(current);
+                if (current == null) {
+                    break;
+                }
+            } else {
+                Traverser<Object> trav = (Traverser<Object>) step.flatMapFn.apply(current);
+                int next = i + 1;
+                return next == steps.length ? trav : trav.flatMap(t -> applyFrom(next, t));
+            }
+        }
+        ResettableSingletonTraverser<Object> trav = singletons[start];
+        trav.accept(current);
+        return trav;
+    }
+
+    /**
+     * A single step of the fused chain. A map step whose function returns
+     * {@code null} filters the item out.
+     */
+    public static final class Step implements Serializable {
+        private final DistributedFunction<Object, Object> mapFn;
+        private final DistributedFunction<Object, ? extends Traverser<?>> flatMapFn;
+
+        private Step(DistributedFunction<Object, Object> mapFn,
+                     DistributedFunction<Object, ? extends Traverser<?>> flatMapFn) {
+            this.mapFn = mapFn;
+            this.flatMapFn = flatMapFn;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static Step map(@Nonnull DistributedFunction<?, ?> mapFn) {
+            return new Step((DistributedFunction<Object, Object>) mapFn, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        public static Step filter(@Nonnull DistributedPredicate<?> filterFn) {
+            DistributedPredicate<Object> predicate = (DistributedPredicate<Object>) filterFn;
+            return new Step(item -> predicate.test(item) ? item : null, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        public static Step flatMap(@Nonnull DistributedFunction<?, ? extends Traverser<?>> flatMapFn) {
+            return new Step(null, (DistributedFunction<Object, ? extends Traverser<?>>) flatMapFn);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+
+/**
+ * A {@link KeyedStore} keeping all the accumulators in a {@code HashMap}.
+ *
+ * @param <K> type of the key
+ * @param <A> type of the accumulator
+ */
+final class HeapKeyedStore<K, A> implements KeyedStore<K, A> {
+
+    private final Map<K, A> keyToAcc = new HashMap<>();
+
+    @Nonnull @Override
+    public A computeIfAbsent(@Nonnull K key, @Nonnull Supplier<? extends A> createFn) {
+        return keyToAcc.computeIfAbsent(key, k -> createFn.get());
+    }
+
+    @Nonnull @Override
+    public Traverser<Entry<K, A>> entries() {
+        return traverseIterable(keyToAcc.entrySet());
+    }
+
+    @Override
+    public String toString() {
+        return keyToAcc.toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.config.InstanceConfig;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.logging.ILogger;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+/**
+ * The keyed state of a batch processor: a map from the grouping key to
+ * the accumulator, which doesn't have to keep all the accumulators on the
+ * heap.
+ * <p>
+ * An accumulator returned from {@link #computeIfAbsent} can be updated
+ * until the next call to the store, after that it may be written out and
+ * the updates to it would be lost.
+ *
+ * @param <K> type of the key
+ * @param <A> type of the accumulator
+ */
+interface KeyedStore<K, A> {
+
+    /**
+     * Returns the accumulator of the key, creating it if needed.
+     */
+    @Nonnull
+    A computeIfAbsent(@Nonnull K key, @Nonnull Supplier<? extends A> createFn);
+
+    /**
+     * Returns a traverser over all the keys and accumulators in the store.
+     * The store must not change while it's traversed.
+     */
+    @Nonnull
+    Traverser<Entry<K, A>> entries();
+
+    /**
+     * Releases the resources of the store, it can't be used afterwards.
+     * Calling it again has no effect.
+     */
+    default void dispose() {
+    }
+
+    /**
+     * Returns the store for a processor with the given context: a {@link
+     * SpillingKeyedStore} if the {@linkplain InstanceConfig#setSpillThreshold
+     * spill threshold} is set, otherwise a {@link HeapKeyedStore}.
+     */
+    @Nonnull
+    static <K, A> KeyedStore<K, A> create(@Nonnull Processor.Context context) throws IOException {
+        JetInstance instance = context.jetInstance();
+        if (instance == null || !(context instanceof ProcCtx)) {
+            return new HeapKeyedStore<>();
+        }
+        InstanceConfig config = instance.getConfig().getInstanceConfig();
+        if (config.getSpillThreshold() == 0) {
+            return new HeapKeyedStore<>();
+        }
+        ILogger logger = context.logger();
+        File file = File.createTempFile("jet-spill-", ".bin", new File(config.getTempDir()));
+        logger.fine("Spilling the accumulators beyond " + config.getSpillThreshold() + " keys to " + file);
+        return new SpillingKeyedStore<>(config.getSpillThreshold(), file, ((ProcCtx) context).getSerializationService());
+    }
+}
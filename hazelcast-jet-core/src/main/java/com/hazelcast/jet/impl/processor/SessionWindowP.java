@@ -33,22 +33,13 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
-import java.util.SortedMap;
 import java.util.StringJoiner;
-import java.util.TreeMap;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
 import static java.lang.Math.min;
 import static java.lang.System.arraycopy;
@@ -66,10 +57,11 @@ import static java.lang.System.arraycopy;
  */
 public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
     private static final Watermark COMPLETING_WM = new Watermark(Long.MAX_VALUE);
+    private static final int DEADLINE_BUCKETS_PER_TIMEOUT = 16;
 
     // exposed for testing, to check for memory leaks
     final Map<K, Windows> keyToWindows = new HashMap<>();
-    final SortedMap<Long, Set<K>> deadlineToKeys = new TreeMap<>();
+    final DeadlineWheel deadlineWheel;
 
     private final long sessionTimeout;
     private final DistributedToLongFunction<? super T> getTimestampFn;
@@ -78,6 +70,7 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
     private final BiConsumer<? super A, ? super T> accumulateFn;
     private final DistributedFunction<? super A, R> finishAccumulationFn;
     private final DistributedBiConsumer<? super A, ? super A> combineAccFn;
+    private final ExpiredSessionTraverser expiredSessionTraverser = new ExpiredSessionTraverser();
     private final FlatMapper<Watermark, Session<K, R>> expiredSessionFlatmapper;
     private Traverser snapshotTraverser;
 
@@ -94,7 +87,8 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         this.combineAccFn = aggrOp.combineFn();
         this.finishAccumulationFn = aggrOp.finishFn();
         this.sessionTimeout = sessionTimeout;
-        this.expiredSessionFlatmapper = flatMapper(this::expiredSessionTraverser);
+        this.deadlineWheel = new DeadlineWheel(Math.max(1, sessionTimeout / DEADLINE_BUCKETS_PER_TIMEOUT));
+        this.expiredSessionFlatmapper = flatMapper(wm -> expiredSessionTraverser.reset(wm.timestamp()));
     }
 
     @Override
@@ -117,36 +111,6 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         return expiredSessionFlatmapper.tryProcess(COMPLETING_WM);
     }
 
-    private Traverser<Session<K, R>> expiredSessionTraverser(Watermark wm) {
-        List<K> distinctKeys = deadlineToKeys
-                .headMap(wm.timestamp())
-                .values().stream()
-                .flatMap(Set::stream)
-                .distinct()
-                .collect(Collectors.toList());
-
-        deadlineToKeys.headMap(wm.timestamp()).clear();
-
-        Stream<List<Session<K, R>>> listStream = distinctKeys.stream()
-                                              .map(key -> closeWindows(keyToWindows.get(key), key, wm.timestamp()));
-        Stream<Session<K, R>> sessions = listStream
-                                                     .flatMap(List::stream);
-
-        return traverseStream(sessions);
-    }
-
-    private void addToDeadlines(K key, long deadline) {
-        deadlineToKeys.computeIfAbsent(deadline, x -> new HashSet<>()).add(key);
-    }
-
-    private void removeFromDeadlines(K key, long deadline) {
-        Set<K> ks = deadlineToKeys.get(deadline);
-        ks.remove(key);
-        if (ks.isEmpty()) {
-            deadlineToKeys.remove(deadline);
-        }
-    }
-
     @Override
     public boolean saveToSnapshot() {
         if (snapshotTraverser == null) {
@@ -163,35 +127,34 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
 
     @Override
     public boolean finishSnapshotRestore() {
-        assert deadlineToKeys.isEmpty();
-        // populate deadlineToKeys
+        assert deadlineWheel.isEmpty();
+        // populate deadlineWheel, the deadlines aren't part of the snapshot
         for (Entry<K, Windows> entry : keyToWindows.entrySet()) {
-            for (long end : entry.getValue().ends) {
-                addToDeadlines(entry.getKey(), end);
-            }
+            updateDeadline(entry.getKey(), entry.getValue());
         }
         return true;
     }
 
     private void addEvent(Windows<A> w, K key, long timestamp, T event) {
-        accumulateFn.accept(resolveAcc(w, key, timestamp), event);
+        accumulateFn.accept(resolveAcc(w, timestamp), event);
+        updateDeadline(key, w);
     }
 
-    private List<Session<K, R>> closeWindows(Windows<A> w, K key, long wm) {
-        List<Session<K, R>> sessions = new ArrayList<>();
-        int i = 0;
-        for (; i < w.size && w.ends[i] < wm; i++) {
-            sessions.add(new Session<>(key, w.starts[i], w.ends[i], finishAccumulationFn.apply(w.accs[i])));
+    /**
+     * Adds the key to the deadline wheel if its first window now ends
+     * before the deadline it's in the wheel with. A key is in the wheel
+     * with the end of its first window or earlier, the entries with other
+     * deadlines are stale and ignored when polled. This way extending a
+     * session doesn't touch the wheel at all.
+     */
+    private void updateDeadline(K key, Windows<A> w) {
+        if (w.ends[0] < w.deadline) {
+            w.deadline = w.ends[0];
+            deadlineWheel.add(key, w.deadline);
         }
-        if (i != w.size) {
-            w.removeHead(i);
-        } else {
-            keyToWindows.remove(key);
-        }
-        return sessions;
     }
 
-    private A resolveAcc(Windows<A> w, K key, long timestamp) {
+    private A resolveAcc(Windows<A> w, long timestamp) {
         long eventEnd = timestamp + sessionTimeout;
         int i = 0;
         for (; i < w.size && w.starts[i] <= eventEnd; i++) {
@@ -211,20 +174,16 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
                 // the window `i + 1` doesn't overlap the event interval
                 w.starts[i] = min(w.starts[i], timestamp);
                 if (w.ends[i] < eventEnd) {
-                    removeFromDeadlines(key, w.ends[i]);
                     w.ends[i] = eventEnd;
-                    addToDeadlines(key, w.ends[i]);
                 }
                 return w.accs[i];
             }
             // both `i` and `i + 1` windows overlap the event interval
-            removeFromDeadlines(key, w.ends[i]);
             w.ends[i] = w.ends[i + 1];
             combineAccFn.accept(w.accs[i], w.accs[i + 1]);
             w.removeWindow(i + 1);
             return w.accs[i];
         }
-        addToDeadlines(key, eventEnd);
         return insertWindow(w, i, timestamp, eventEnd);
     }
 
@@ -238,7 +197,74 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         return w.accs[idx];
     }
 
+    /**
+     * Traverses the sessions closed by a watermark, polling the expired keys
+     * from the deadline wheel one at a time. It's reused for each watermark.
+     */
+    private final class ExpiredSessionTraverser implements Traverser<Session<K, R>> {
+        private long wm;
+        private K key;
+        private Windows<A> windows;
+        private int closedCount;
+        private int index;
+
+        ExpiredSessionTraverser reset(long wm) {
+            this.wm = wm;
+            deadlineWheel.startPolling(wm);
+            return this;
+        }
+
+        @Override
+        public Session<K, R> next() {
+            while (index == closedCount) {
+                if (windows != null) {
+                    removeClosedWindows();
+                }
+                if (!pollKey()) {
+                    return null;
+                }
+            }
+            int i = index++;
+            return new Session<>(key, windows.starts[i], windows.ends[i], finishAccumulationFn.apply(windows.accs[i]));
+        }
+
+        private boolean pollKey() {
+            for (Object polledKey; (polledKey = deadlineWheel.poll()) != null; ) {
+                Windows<A> w = keyToWindows.get(polledKey);
+                if (w == null || w.deadline != deadlineWheel.polledDeadline()) {
+                    // a stale entry
+                    continue;
+                }
+                key = (K) polledKey;
+                windows = w;
+                index = 0;
+                closedCount = 0;
+                while (closedCount < w.size && w.ends[closedCount] < wm) {
+                    closedCount++;
+                }
+                // if no window is closed, the session was extended: the key is put back to the wheel
+                return true;
+            }
+            key = null;
+            index = closedCount = 0;
+            return false;
+        }
+
+        private void removeClosedWindows() {
+            if (closedCount == windows.size) {
+                keyToWindows.remove(key);
+            } else {
+                windows.removeHead(closedCount);
+                windows.deadline = Long.MAX_VALUE;
+                updateDeadline(key, windows);
+            }
+            windows = null;
+        }
+    }
+
     public static class Windows<A> implements IdentifiedDataSerializable {
+        // the deadline the key is in the deadline wheel with, not part of the snapshot
+        private long deadline = Long.MAX_VALUE;
         private int size;
         private long[] starts = new long[2];
         private long[] ends = new long[2];
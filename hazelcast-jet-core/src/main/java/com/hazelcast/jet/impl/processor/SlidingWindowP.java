@@ -27,25 +27,24 @@ import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.jet.impl.processor.FrameRing.Frame;
 
 import javax.annotation.Nonnull;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.LongStream;
 
 import static com.hazelcast.jet.Traversers.traverseIterable;
-import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
-import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
-import static java.util.Collections.emptyMap;
 
 /**
  * Handles various setups of sliding and tumbling window aggregation.
@@ -58,8 +57,9 @@ import static java.util.Collections.emptyMap;
 public class SlidingWindowP<T, A, R> extends AbstractProcessor {
 
     // package-visible for testing
-    final Map<Long, Map<Object, A>> tsToKeyToAcc = new HashMap<>();
+    final FrameRing<A> tsToKeyToAcc;
     Map<Object, A> slidingWindow;
+    TwoStacksWindow<A> twoStacksWindow;
     long nextWinToEmit = Long.MIN_VALUE;
 
     private final WindowDefinition wDef;
@@ -71,12 +71,15 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     private final FlatMapper<Watermark, ?> wmFlatMapper;
 
     private final A emptyAcc;
+    // keys whose result may differ from the last completed window, null unless
+    // only the changed keys are emitted
+    private final Set<Object> changedKeys;
+    private long lastCompletedWinTs = Long.MIN_VALUE;
     private Traverser<Object> flushTraverser;
     private Traverser<Entry> snapshotTraverser;
 
-    // This field tracks the upper bounds for the keyset of
-    // tsToKeyToAcc. It serves as an optimization that avoids a full scan
-    // over the entire keyset.
+    // This field tracks the upper bound of the frame timestamps in
+    // tsToKeyToAcc, the frames are flushed up to it.
     private long topTs = Long.MIN_VALUE;
 
     // value to be used temporarily during snapshot restore
@@ -89,6 +92,25 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             WindowDefinition winDef,
             AggregateOperation1<? super T, A, R> aggrOp,
             boolean isLastStage
+    ) {
+        this(getKeyFn, getFrameTsFn, winDef, aggrOp, isLastStage, false);
+    }
+
+    /**
+     * @param emitsChangedKeysOnly if the processor emits, for each position
+     *                             of a sliding window, only the keys whose
+     *                             result may have changed since the previous
+     *                             position. The result of the empty
+     *                             accumulator must not be {@code null}, it's
+     *                             emitted for the keys that left the window.
+     */
+    public SlidingWindowP(
+            Function<? super T, ?> getKeyFn,
+            DistributedToLongFunction<? super T> getFrameTsFn,
+            WindowDefinition winDef,
+            AggregateOperation1<? super T, A, R> aggrOp,
+            boolean isLastStage,
+            boolean emitsChangedKeysOnly
     ) {
         if (!winDef.isTumbling()) {
             checkNotNull(aggrOp.combineFn(), "AggregateOperation lacks the combine primitive");
@@ -103,6 +125,13 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
                         .onFirstNull(() -> nextWinToEmit = wDef.higherFrameTs(wm.timestamp()))
         );
         this.emptyAcc = aggrOp.createFn().get();
+        this.tsToKeyToAcc = new FrameRing<>(winDef.frameLength(), winDef.windowLength() / winDef.frameLength());
+        this.changedKeys = emitsChangedKeysOnly && isLastStage && !winDef.isTumbling() ? new HashSet<>() : null;
+        if (changedKeys != null && finish(aggrOp.createFn().get()) == null) {
+            throw new IllegalArgumentException("Emitting only the changed keys requires an AggregateOperation " +
+                    "whose result of the empty accumulator isn't null, it replaces the result of a key that left " +
+                    "the window");
+        }
     }
 
     @Override
@@ -129,8 +158,7 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
         }
 
         final Object key = getKeyFn.apply(t);
-        A acc = tsToKeyToAcc.computeIfAbsent(frameTs, x -> new HashMap<>())
-                            .computeIfAbsent(key, k -> aggrOp.createFn().get());
+        A acc = tsToKeyToAcc.frameForUpdate(frameTs).computeIfAbsent(key, aggrOp.createFn());
         aggrOp.accumulateFn().accept(acc, t);
         topTs = max(topTs, frameTs);
         return true;
@@ -152,10 +180,9 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             return flushBuffers();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = traverseIterable(tsToKeyToAcc.entrySet())
-                    .<Entry>flatMap(e -> traverseIterable(e.getValue().entrySet())
-                            .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue()))
-                    )
+            snapshotTraverser = tsToKeyToAcc.frames()
+                    .<Entry>flatMap(frame -> frame.traverse(
+                            (key, acc) -> entry(new SnapshotKey(frame.frameTs, key), acc)))
                     .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
                     .onFirstNull(() -> snapshotTraverser = null);
         }
@@ -175,8 +202,7 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             return;
         }
         SnapshotKey k = (SnapshotKey) key;
-        if (tsToKeyToAcc.computeIfAbsent(k.timestamp, x -> new HashMap<>())
-                        .put(k.key, (A) value) != null) {
+        if (!tsToKeyToAcc.frameForUpdate(k.timestamp).putIfAbsent(k.key, (A) value)) {
             throw new JetException("Duplicate key in snapshot: " + k);
         }
         topTs = max(topTs, k.timestamp);
@@ -210,24 +236,66 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             // initialized using the "add leading/deduct trailing" approach because we
             // start from a window that covers at most one existing frame -- the lowest
             // one on record.
-            long bottomTs = tsToKeyToAcc
-                    .keySet().stream()
-                    .min(naturalOrder())
-                    .orElseThrow(() -> new AssertionError("Failed to find the min key in a non-empty map"));
-            rangeStart = min(bottomTs, wDef.floorFrameTs(wm));
+            rangeStart = min(tsToKeyToAcc.bottomTs(), wDef.floorFrameTs(wm));
         }
-        return traverseStream(range(rangeStart, wm, wDef.frameLength()).boxed())
-                .flatMap(window -> traverseIterable(computeWindow(window).entrySet())
-                        .map(e -> new TimestampedEntry<>(window, e.getKey(), aggrOp.finishFn().apply(e.getValue())))
-                        .onFirstNull(() -> completeWindow(window)));
+        return new WindowTraverser(rangeStart, wm);
     }
 
-    private Map<Object, A> computeWindow(long frameTs) {
+    /**
+     * Returns the results of the window with the given end timestamp. In the
+     * changed-keys mode, if the previous window was emitted, these are only
+     * the results of the keys in the leading-edge frame of this window and in
+     * the trailing-edge frame of the previous window; the other keys have the
+     * same result as in the previous window.
+     */
+    private Traverser<TimestampedEntry<Object, R>> windowResults(long winTs) {
         if (wDef.isTumbling()) {
-            return tsToKeyToAcc.getOrDefault(frameTs, emptyMap());
+            Frame<A> frame = tsToKeyToAcc.get(winTs);
+            return frame == null
+                    ? Traversers.empty()
+                    : frame.traverse((key, acc) -> new TimestampedEntry<>(winTs, key, finish(acc)));
+        }
+        updateWindow(winTs);
+        if (changedKeys == null || lastCompletedWinTs != winTs - wDef.frameLength()) {
+            return windowAccs()
+                    .map(e -> new TimestampedEntry<>(winTs, e.getKey(), finish(e.getValue())));
+        }
+        Frame<A> leadingFrame = tsToKeyToAcc.get(winTs);
+        if (leadingFrame != null) {
+            leadingFrame.forEach((key, acc) -> changedKeys.add(key));
         }
+        // a key that left the window gets the result of the empty accumulator
+        return traverseIterable(changedKeys)
+                .map(key -> {
+                    A acc = windowAcc(key);
+                    return new TimestampedEntry<>(winTs, key, finish(acc != null ? acc : aggrOp.createFn().get()));
+                });
+    }
+
+    private R finish(A acc) {
+        return aggrOp.finishFn().apply(acc);
+    }
+
+    /**
+     * Adds the leading-edge frame to the sliding window, or initializes the
+     * window with all its frames if it's the first one computed. With the
+     * deduct primitive, the window keeps one accumulator per key, otherwise it
+     * keeps the frames of each key in a {@link TwoStacksWindow}.
+     */
+    private void updateWindow(long frameTs) {
         if (aggrOp.deductFn() == null) {
-            return recomputeWindow(frameTs);
+            long firstFrameTs = frameTs;
+            if (twoStacksWindow == null) {
+                twoStacksWindow = new TwoStacksWindow<>(aggrOp.createFn(), aggrOp.combineFn());
+                firstFrameTs = frameTs - wDef.windowLength() + wDef.frameLength();
+            }
+            for (long ts = firstFrameTs; ts <= frameTs; ts += wDef.frameLength()) {
+                Frame<A> frame = tsToKeyToAcc.get(ts);
+                if (frame != null) {
+                    frame.forEach(twoStacksWindow::add);
+                }
+            }
+            return;
         }
         if (slidingWindow == null) {
             slidingWindow = recomputeWindow(frameTs);
@@ -235,40 +303,61 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             // add leading-edge frame
             patchSlidingWindow(aggrOp.combineFn(), tsToKeyToAcc.get(frameTs));
         }
-        return slidingWindow;
+    }
+
+    private Traverser<Entry<Object, A>> windowAccs() {
+        return twoStacksWindow != null ? twoStacksWindow.results() : traverseIterable(slidingWindow.entrySet());
+    }
+
+    private A windowAcc(Object key) {
+        return twoStacksWindow != null ? twoStacksWindow.result(key) : slidingWindow.get(key);
     }
 
     private Map<Object, A> recomputeWindow(long frameTs) {
         Map<Object, A> window = new HashMap<>();
         for (long ts = frameTs - wDef.windowLength() + wDef.frameLength(); ts <= frameTs; ts += wDef.frameLength()) {
-            tsToKeyToAcc.getOrDefault(ts, emptyMap())
-                        .forEach((key, currAcc) -> aggrOp.combineFn().accept(
-                                window.computeIfAbsent(key, k -> aggrOp.createFn().get()),
-                                currAcc));
+            Frame<A> frame = tsToKeyToAcc.get(ts);
+            if (frame != null) {
+                frame.forEach((key, currAcc) -> aggrOp.combineFn().accept(
+                        window.computeIfAbsent(key, k -> aggrOp.createFn().get()),
+                        currAcc));
+            }
         }
         return window;
     }
 
-    private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, Map<Object, A> patchingFrame) {
+    private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, Frame<A> patchingFrame) {
         if (patchingFrame == null) {
             return;
         }
-        for (Entry<Object, A> e : patchingFrame.entrySet()) {
-            slidingWindow.compute(e.getKey(), (k, acc) -> {
-                A result = acc != null ? acc : aggrOp.createFn().get();
-                patchOp.accept(result, e.getValue());
-                return result.equals(emptyAcc) ? null : result;
-            });
-        }
+        patchingFrame.forEach((key, frameAcc) ->
+                slidingWindow.compute(key, (k, acc) -> {
+                    A result = acc != null ? acc : aggrOp.createFn().get();
+                    patchOp.accept(result, frameAcc);
+                    return result.equals(emptyAcc) ? null : result;
+                }));
     }
 
     private void completeWindow(long frameTs) {
         long frameToEvict = frameTs - wDef.windowLength() + wDef.frameLength();
-        Map<Object, A> evictedFrame = tsToKeyToAcc.remove(frameToEvict);
+        Frame<A> evictedFrame = tsToKeyToAcc.get(frameToEvict);
         if (!wDef.isTumbling() && aggrOp.deductFn() != null) {
             // deduct trailing-edge frame
             patchSlidingWindow(aggrOp.deductFn(), evictedFrame);
         }
+        if (twoStacksWindow != null && evictedFrame != null) {
+            // remove trailing-edge frame
+            evictedFrame.forEach((key, acc) -> twoStacksWindow.removeOldest(key));
+        }
+        if (changedKeys != null) {
+            // the keys of the trailing-edge frame change in the next window
+            changedKeys.clear();
+            if (evictedFrame != null) {
+                evictedFrame.forEach((key, acc) -> changedKeys.add(key));
+            }
+        }
+        lastCompletedWinTs = frameTs;
+        tsToKeyToAcc.evict(frameToEvict);
     }
 
     private boolean flushBuffers() {
@@ -283,13 +372,37 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     }
 
     /**
-     * Returns a stream of {@code long}s:
-     * {@code for (long i = start; i <= end; i += step) yield i;}
+     * Traverses the results of the windows with end timestamps from {@code
+     * start} up to {@code end}, completing each window after its results.
      */
-    private static LongStream range(long start, long end, long step) {
-        return start > end
-                ? LongStream.empty()
-                : LongStream.iterate(start, n -> n + step).limit(1 + (end - start) / step);
+    private final class WindowTraverser implements Traverser<Object> {
+        private final long end;
+        private long winTs;
+        private Traverser<?> results; // null before the current window is computed
+
+        WindowTraverser(long start, long end) {
+            this.winTs = start;
+            this.end = end;
+        }
+
+        @Override
+        public Object next() {
+            for (;;) {
+                if (results != null) {
+                    Object result = results.next();
+                    if (result != null) {
+                        return result;
+                    }
+                    results = null;
+                    completeWindow(winTs);
+                    winTs += wDef.frameLength();
+                }
+                if (winTs > end) {
+                    return null;
+                }
+                results = windowResults(winTs);
+            }
+        }
     }
 
     // package-visible for test
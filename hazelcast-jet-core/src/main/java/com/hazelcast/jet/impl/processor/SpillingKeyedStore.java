@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * A {@link KeyedStore} keeping the accumulators of at most the given
+ * number of keys on the heap, in the order of the last access. When there
+ * are more keys, the accumulator of the least recently used one is
+ * serialized and spilled to a file. Reading the key again loads the
+ * accumulator back to the heap.
+ * <p>
+ * The spilled records are collected in a page and the full pages are
+ * appended to the file. A record is the length followed by the serialized
+ * key and accumulator. For each spilled key the index keeps the position
+ * of its record in the file. The file isn't compacted, the record of a
+ * loaded key stays in it, but it's no longer in the index. At the end the
+ * file is read sequentially and the records that are still in the index
+ * are returned.
+ * <p>
+ * The file is read and written on the calling thread.
+ *
+ * @param <K> type of the key
+ * @param <A> type of the accumulator
+ */
+final class SpillingKeyedStore<K, A> implements KeyedStore<K, A> {
+
+    static final int PAGE_SIZE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxHeapKeys;
+    private final File file;
+    private final FileChannel channel;
+    private final InternalSerializationService serService;
+    private final BufferObjectDataOutput out;
+    private final LinkedHashMap<K, A> heapKeyToAcc = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final Map<K, Long> spilledKeyToPosition = new HashMap<>();
+    private final ByteBuffer lengthBuf = ByteBuffer.allocate(INT_SIZE_IN_BYTES);
+
+    private byte[] page = new byte[PAGE_SIZE];
+    private int pageSize;
+    // the position of the page in the file
+    private long pagePosition;
+
+    SpillingKeyedStore(int maxHeapKeys, @Nonnull File file, @Nonnull SerializationService serService)
+            throws IOException {
+        if (maxHeapKeys <= 0) {
+            throw new IllegalArgumentException("maxHeapKeys must be positive: " + maxHeapKeys);
+        }
+        this.maxHeapKeys = maxHeapKeys;
+        this.file = file;
+        this.serService = (InternalSerializationService) serService;
+        this.out = this.serService.createObjectDataOutput(PAGE_SIZE);
+        try {
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    @Nonnull @Override
+    public A computeIfAbsent(@Nonnull K key, @Nonnull Supplier<? extends A> createFn) {
+        A acc = heapKeyToAcc.get(key);
+        if (acc != null) {
+            return acc;
+        }
+        try {
+            Long position = spilledKeyToPosition.remove(key);
+            acc = position != null ? load(position) : createFn.get();
+            heapKeyToAcc.put(key, acc);
+            if (heapKeyToAcc.size() > maxHeapKeys) {
+                spillEldest();
+            }
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+        return acc;
+    }
+
+    @Nonnull @Override
+    public Traverser<Entry<K, A>> entries() {
+        Traverser<Entry<K, A>> heapEntries = traverseIterable(heapKeyToAcc.entrySet());
+        if (spilledKeyToPosition.isEmpty()) {
+            return heapEntries;
+        }
+        Traverser<Entry<K, A>> spilledEntries;
+        try {
+            flushPage();
+            spilledEntries = spilledEntries();
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+        return () -> {
+            Entry<K, A> e = heapEntries.next();
+            return e != null ? e : spilledEntries.next();
+        };
+    }
+
+    int heapKeyCount() {
+        return heapKeyToAcc.size();
+    }
+
+    int spilledKeyCount() {
+        return spilledKeyToPosition.size();
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the file is deleted anyway
+        }
+        deleteQuietly(file);
+    }
+
+    @Override
+    public String toString() {
+        return "SpillingKeyedStore{file=" + file + ", heapKeys=" + heapKeyToAcc.size()
+                + ", spilledKeys=" + spilledKeyToPosition.size() + '}';
+    }
+
+    private void spillEldest() throws IOException {
+        Iterator<Entry<K, A>> it = heapKeyToAcc.entrySet().iterator();
+        Entry<K, A> eldest = it.next();
+        it.remove();
+
+        out.clear();
+        out.writeObject(eldest.getKey());
+        out.writeObject(eldest.getValue());
+        byte[] record = out.toByteArray();
+        int recordSize = INT_SIZE_IN_BYTES + record.length;
+        if (pageSize + recordSize > page.length) {
+            flushPage();
+            if (recordSize > page.length) {
+                page = new byte[recordSize];
+            }
+        }
+        spilledKeyToPosition.put(eldest.getKey(), pagePosition + pageSize);
+        Bits.writeInt(page, pageSize, record.length, true);
+        System.arraycopy(record, 0, page, pageSize + INT_SIZE_IN_BYTES, record.length);
+        pageSize += recordSize;
+    }
+
+    private void flushPage() throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(page, 0, pageSize);
+        while (buf.hasRemaining()) {
+            channel.write(buf, pagePosition + buf.position());
+        }
+        pagePosition += pageSize;
+        pageSize = 0;
+    }
+
+    private A load(long position) throws IOException {
+        byte[] record;
+        if (position >= pagePosition) {
+            // the record is still in the page
+            int offset = (int) (position - pagePosition);
+            int length = Bits.readInt(page, offset, true);
+            record = Arrays.copyOfRange(page, offset + INT_SIZE_IN_BYTES, offset + INT_SIZE_IN_BYTES + length);
+        } else {
+            lengthBuf.clear();
+            readFully(lengthBuf, position);
+            record = new byte[lengthBuf.getInt(0)];
+            readFully(ByteBuffer.wrap(record), position + INT_SIZE_IN_BYTES);
+        }
+        BufferObjectDataInput in = serService.createObjectDataInput(record);
+        // skip the key
+        in.readObject();
+        return in.readObject();
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException("Unexpected end of the spill file " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads the file sequentially and returns the records still in the
+     * index. It's only used at the end, when the store doesn't change.
+     */
+    private Traverser<Entry<K, A>> spilledEntries() throws IOException {
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), PAGE_SIZE));
+        long[] position = {0};
+        return () -> {
+            try {
+                while (position[0] < pagePosition) {
+                    long recordPosition = position[0];
+                    byte[] record = new byte[in.readInt()];
+                    in.readFully(record);
+                    position[0] += INT_SIZE_IN_BYTES + record.length;
+                    BufferObjectDataInput recordIn = serService.createObjectDataInput(record);
+                    K key = recordIn.readObject();
+                    Long indexedPosition = spilledKeyToPosition.get(key);
+                    if (indexedPosition != null && indexedPosition == recordPosition) {
+                        return entry(key, recordIn.readObject());
+                    }
+                }
+                return null;
+            } catch (IOException e) {
+                throw sneakyThrow(e);
+            }
+        };
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+        }
+    }
+}
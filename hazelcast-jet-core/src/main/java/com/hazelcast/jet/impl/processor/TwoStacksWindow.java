@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * The sliding window of {@link SlidingWindowP} for an aggregate operation
+ * without the deduct primitive. For each key it keeps the frame
+ * accumulators in the window in a queue made of two stacks, which gives
+ * the window result with an amortized constant number of combines per
+ * slide, instead of combining all the frames of the window.
+ * <p>
+ * The frames are added at the back and removed from the front, in the order
+ * of their timestamps. The back stack keeps the frames as added, together
+ * with their combined accumulator. The front stack keeps, for each frame,
+ * the combined accumulator of that frame and all the newer frames in the
+ * front stack. When the front stack is empty and a frame is removed, the
+ * back stack is moved to the front stack. The combine primitive is applied
+ * in the order of the frames, so it doesn't have to be commutative.
+ *
+ * @param <A> type of the accumulator
+ */
+final class TwoStacksWindow<A> {
+
+    private final Supplier<A> createFn;
+    private final BiConsumer<? super A, ? super A> combineFn;
+    private final Map<Object, Stacks> keyToStacks = new HashMap<>();
+
+    TwoStacksWindow(@Nonnull Supplier<A> createFn, @Nonnull BiConsumer<? super A, ? super A> combineFn) {
+        this.createFn = createFn;
+        this.combineFn = combineFn;
+    }
+
+    /**
+     * Adds the key's accumulator of the frame entering the window. The
+     * accumulator must not change afterwards.
+     */
+    void add(@Nonnull Object key, @Nonnull A frameAcc) {
+        keyToStacks.computeIfAbsent(key, k -> new Stacks()).push(frameAcc);
+    }
+
+    /**
+     * Removes the key's accumulator of the oldest frame in the window.
+     */
+    void removeOldest(@Nonnull Object key) {
+        Stacks stacks = keyToStacks.get(key);
+        assert stacks != null : "no frames for key " + key;
+        if (stacks.pop()) {
+            keyToStacks.remove(key);
+        }
+    }
+
+    /**
+     * Returns a new accumulator combined from all the key's frames in the
+     * window, or {@code null} if the key has no frames in it.
+     */
+    @Nullable
+    A result(@Nonnull Object key) {
+        Stacks stacks = keyToStacks.get(key);
+        return stacks != null ? stacks.result() : null;
+    }
+
+    /**
+     * Returns a traverser over the keys and their {@linkplain #result(Object)
+     * results}.
+     */
+    @Nonnull
+    Traverser<Entry<Object, A>> results() {
+        return traverseIterable(keyToStacks.entrySet())
+                .map(e -> entry(e.getKey(), e.getValue().result()));
+    }
+
+    boolean isEmpty() {
+        return keyToStacks.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return keyToStacks.keySet().toString();
+    }
+
+    private final class Stacks {
+        private static final int INITIAL_CAPACITY = 4;
+
+        // front[frontSize - 1] is the oldest frame, combined with all the newer ones in the front stack
+        private Object[] front = new Object[INITIAL_CAPACITY];
+        private int frontSize;
+        private Object[] back = new Object[INITIAL_CAPACITY];
+        private int backSize;
+        private A backResult;
+
+        void push(A frameAcc) {
+            if (backSize == back.length) {
+                back = Arrays.copyOf(back, backSize << 1);
+            }
+            back[backSize++] = frameAcc;
+            if (backResult == null) {
+                backResult = createFn.get();
+            }
+            combineFn.accept(backResult, frameAcc);
+        }
+
+        /**
+         * Removes the oldest frame.
+         *
+         * @return {@code true} if no frames are left
+         */
+        boolean pop() {
+            if (frontSize == 0) {
+                flip();
+            }
+            front[--frontSize] = null;
+            return frontSize == 0 && backSize == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        A result() {
+            A result = createFn.get();
+            if (frontSize > 0) {
+                combineFn.accept(result, (A) front[frontSize - 1]);
+            }
+            if (backResult != null) {
+                combineFn.accept(result, backResult);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void flip() {
+            assert backSize > 0 : "pop() on empty stacks";
+            if (front.length < backSize) {
+                front = new Object[back.length];
+            }
+            A newer = null;
+            for (int i = backSize - 1; i >= 0; i--) {
+                A combined = createFn.get();
+                combineFn.accept(combined, (A) back[i]);
+                if (newer != null) {
+                    combineFn.accept(combined, newer);
+                }
+                front[frontSize++] = combined;
+                newer = combined;
+                back[i] = null;
+            }
+            backSize = 0;
+            backResult = null;
+        }
+    }
+}
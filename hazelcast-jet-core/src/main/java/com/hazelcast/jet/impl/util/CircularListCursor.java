@@ -64,6 +64,22 @@ public class CircularListCursor<E> {
         index = 0;
     }
 
+    /**
+     * Positions the cursor at the given element, which must be in the list.
+     */
+    public void moveTo(E element) {
+        int i = list.indexOf(element);
+        assert i >= 0 : "Element not in the list: " + element;
+        index = i;
+    }
+
+    /**
+     * Returns the underlying list.
+     */
+    public List<E> list() {
+        return list;
+    }
+
     /**
      * Removes the current item from the underlying collection and points the cursor
      * to the previous item, wrapping around to the last item if necessary.
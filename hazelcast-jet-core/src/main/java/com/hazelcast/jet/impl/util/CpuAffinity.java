@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilities to pin threads to CPUs without native dependencies. Pinning
+ * is supported on Linux only: the thread looks up its native ID in {@code
+ * /proc/thread-self} and applies the affinity using the {@code taskset}
+ * utility. On other platforms, or when {@code taskset} is not available,
+ * {@link #pinCurrentThread(int)} just returns {@code false}.
+ */
+public final class CpuAffinity {
+
+    private static final String CPU_SYSFS_DIR = "/sys/devices/system/cpu/cpu";
+    private static final long TASKSET_TIMEOUT_SECONDS = 10;
+
+    private CpuAffinity() {
+    }
+
+    /**
+     * Parses a CPU list in the format used by Linux, for example {@code
+     * "0-3,8,10-11"}, and returns the CPU numbers in ascending order.
+     *
+     * @throws IllegalArgumentException if the list is empty or malformed
+     */
+    @Nonnull
+    public static int[] parseCpuList(@Nonnull String cpuList) {
+        final BitSet cpus = new BitSet();
+        for (String range : cpuList.split(",")) {
+            final String trimmed = range.trim();
+            final int dash = trimmed.indexOf('-');
+            try {
+                final int from = Integer.parseInt(dash < 0 ? trimmed : trimmed.substring(0, dash).trim());
+                final int to = dash < 0 ? from : Integer.parseInt(trimmed.substring(dash + 1).trim());
+                if (from < 0 || to < from) {
+                    throw new IllegalArgumentException("Invalid CPU range '" + trimmed + "' in '" + cpuList + '\'');
+                }
+                cpus.set(from, to + 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list '" + cpuList + '\'', e);
+            }
+        }
+        return cpus.stream().toArray();
+    }
+
+    /**
+     * Returns the NUMA node the given CPU belongs to or 0, if it can't be
+     * determined.
+     */
+    public static int numaNode(int cpu) {
+        final String[] entries = new File(CPU_SYSFS_DIR + cpu).list();
+        if (entries != null) {
+            for (String entry : entries) {
+                if (entry.startsWith("node")) {
+                    try {
+                        return Integer.parseInt(entry.substring("node".length()));
+                    } catch (NumberFormatException ignored) {
+                        // not a node link, try the next entry
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Pins the current thread to the given CPU.
+     *
+     * @return whether the thread was pinned
+     */
+    public static boolean pinCurrentThread(int cpu) {
+        final Path threadSelf = Paths.get("/proc/thread-self");
+        if (!Files.isSymbolicLink(threadSelf)) {
+            return false;
+        }
+        try {
+            // the link points to "<pid>/task/<tid>"
+            final Path tid = Files.readSymbolicLink(threadSelf).getFileName();
+            if (tid == null) {
+                return false;
+            }
+            final Process taskset = new ProcessBuilder("taskset", "-p", "-c", String.valueOf(cpu), tid.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(Redirect.appendTo(new File("/dev/null")))
+                    .start();
+            if (!taskset.waitFor(TASKSET_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                taskset.destroy();
+                return false;
+            }
+            return taskset.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
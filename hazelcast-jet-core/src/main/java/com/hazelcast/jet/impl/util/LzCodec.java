@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.jet.JetException;
+
+import java.util.Arrays;
+
+/**
+ * A fast LZ77 block codec in the style of LZ4, used to compress the
+ * packets of distributed edges. It favors speed over the compression ratio:
+ * repeated sequences are found through a single-entry hash table and
+ * incompressible input is skipped over with growing steps.
+ * <p>
+ * The compressed block is a series of sequences. Each sequence starts with
+ * a token byte: its high nibble is the number of literals and its low
+ * nibble the length of the match minus {@value #MIN_MATCH}. A nibble value
+ * of 15 means the length continues in the following bytes, each of them
+ * adding up to 255. The literals follow, then a 2-byte little-endian
+ * offset of the match and the rest of the match length. The last sequence
+ * has only literals.
+ * <p>
+ * An instance holds the hash table of the compressor and isn't thread-safe.
+ */
+public final class LzCodec {
+
+    static final int MIN_MATCH = 4;
+
+    private static final int HASH_LOG = 12;
+    private static final int HASH_MULTIPLIER = -1640531535;
+    private static final int MAX_OFFSET = (1 << 16) - 1;
+    private static final int RUN_MASK = 0xF;
+    private static final int TOKEN_SHIFT = 4;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int MAX_LENGTH_BYTE = 255;
+    private static final int SKIP_SHIFT = 6;
+    private static final int OFFSET_BYTES = 2;
+
+    // positions of the recently seen 4-byte sequences, relative to the block start plus one
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * Compresses {@code srcLen} bytes of {@code src}, starting at {@code
+     * srcOff}, into {@code dst}.
+     *
+     * @param dstLen the maximum number of bytes to write to {@code dst}
+     * @return the length of the compressed block or -1, if it would be longer
+     *         than {@code dstLen}
+     */
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        Arrays.fill(hashTable, 0);
+        final int srcEnd = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+        int anchor = srcOff;
+        int ip = srcOff;
+        int op = dstOff;
+        while (ip <= srcEnd - MIN_MATCH) {
+            int seq = readInt(src, ip);
+            int h = (seq * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_LOG);
+            int ref = srcOff + hashTable[h] - 1;
+            hashTable[h] = ip - srcOff + 1;
+            if (ref < srcOff || ip - ref > MAX_OFFSET || readInt(src, ref) != seq) {
+                // the longer we don't find a match, the bigger steps we take
+                ip += 1 + ((ip - anchor) >>> SKIP_SHIFT);
+                continue;
+            }
+            int matchLen = MIN_MATCH;
+            while (ip + matchLen < srcEnd && src[ref + matchLen] == src[ip + matchLen]) {
+                matchLen++;
+            }
+            op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLen, dst, op, dstEnd);
+            if (op < 0) {
+                return -1;
+            }
+            ip += matchLen;
+            anchor = ip;
+        }
+        op = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dst, op, dstEnd);
+        return op < 0 ? -1 : op - dstOff;
+    }
+
+    /**
+     * Decompresses the block of {@code srcLen} bytes starting at {@code
+     * srcOff} into {@code dst}.
+     *
+     * @param dstLen the exact length of the decompressed data
+     * @throws JetException if the block is malformed or doesn't decompress
+     *         to {@code dstLen} bytes
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        final int srcEnd = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+        int ip = srcOff;
+        int op = dstOff;
+        try {
+            while (true) {
+                // the last sequence has only literals, a block can't end after a match
+                checkBlock(ip < srcEnd);
+                final int token = src[ip++] & BYTE_MASK;
+                int litLen = token >>> TOKEN_SHIFT;
+                if (litLen == RUN_MASK) {
+                    for (int b = MAX_LENGTH_BYTE; b == MAX_LENGTH_BYTE; litLen += b) {
+                        b = src[ip++] & BYTE_MASK;
+                    }
+                }
+                checkBlock(ip + litLen <= srcEnd && op + litLen <= dstEnd);
+                System.arraycopy(src, ip, dst, op, litLen);
+                ip += litLen;
+                op += litLen;
+                if (ip == srcEnd) {
+                    break;
+                }
+                final int offset = (src[ip] & BYTE_MASK) | (src[ip + 1] & BYTE_MASK) << Byte.SIZE;
+                ip += OFFSET_BYTES;
+                int matchLen = token & RUN_MASK;
+                if (matchLen == RUN_MASK) {
+                    for (int b = MAX_LENGTH_BYTE; b == MAX_LENGTH_BYTE; matchLen += b) {
+                        b = src[ip++] & BYTE_MASK;
+                    }
+                }
+                matchLen += MIN_MATCH;
+                checkBlock(offset > 0 && op - offset >= dstOff && op + matchLen <= dstEnd);
+                copyMatch(dst, op - offset, op, matchLen);
+                op += matchLen;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new JetException("Malformed compressed block", e);
+        }
+        checkBlock(op == dstEnd);
+    }
+
+    private static int writeSequence(
+            byte[] src, int litStart, int litLen, int offset, int matchLen, byte[] dst, int op, int dstEnd
+    ) {
+        int required = 1 + litLen + litLen / MAX_LENGTH_BYTE + 1
+                + (matchLen == 0 ? 0 : OFFSET_BYTES + matchLen / MAX_LENGTH_BYTE + 1);
+        if (op + required > dstEnd) {
+            return -1;
+        }
+        final int tokenPos = op++;
+        int token;
+        if (litLen >= RUN_MASK) {
+            token = RUN_MASK << TOKEN_SHIFT;
+            op = writeLength(dst, op, litLen - RUN_MASK);
+        } else {
+            token = litLen << TOKEN_SHIFT;
+        }
+        System.arraycopy(src, litStart, dst, op, litLen);
+        op += litLen;
+        if (matchLen > 0) {
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> Byte.SIZE);
+            int extraLen = matchLen - MIN_MATCH;
+            if (extraLen >= RUN_MASK) {
+                token |= RUN_MASK;
+                op = writeLength(dst, op, extraLen - RUN_MASK);
+            } else {
+                token |= extraLen;
+            }
+        }
+        dst[tokenPos] = (byte) token;
+        return op;
+    }
+
+    private static int writeLength(byte[] dst, int op, int length) {
+        int remaining = length;
+        for (; remaining >= MAX_LENGTH_BYTE; remaining -= MAX_LENGTH_BYTE) {
+            dst[op++] = (byte) MAX_LENGTH_BYTE;
+        }
+        dst[op++] = (byte) remaining;
+        return op;
+    }
+
+    private static void copyMatch(byte[] dst, int from, int to, int length) {
+        if (to - from >= length) {
+            System.arraycopy(dst, from, dst, to, length);
+            return;
+        }
+        // overlapping match, repeats the bytes between from and to
+        for (int i = 0; i < length; i++) {
+            dst[to + i] = dst[from + i];
+        }
+    }
+
+    private static int readInt(byte[] buf, int pos) {
+        int low = (buf[pos] & BYTE_MASK) | (buf[pos + 1] & BYTE_MASK) << Byte.SIZE;
+        int high = (buf[pos + 2] & BYTE_MASK) | (buf[pos + 3] & BYTE_MASK) << Byte.SIZE;
+        return low | high << Short.SIZE;
+    }
+
+    private static void checkBlock(boolean condition) {
+        if (!condition) {
+            throw new JetException("Malformed compressed block");
+        }
+    }
+}
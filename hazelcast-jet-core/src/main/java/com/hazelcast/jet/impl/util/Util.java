@@ -73,6 +73,8 @@ public final class Util {
 
     private static final int BUFFER_SIZE = 1 << 15;
     private static final char[] ID_TEMPLATE = "0000-0000-0000-0000".toCharArray();
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = (1 << VARINT_PAYLOAD_BITS) - 1;
 
     private Util() {
     }
@@ -208,6 +210,33 @@ public final class Util {
         return list;
     }
 
+    /**
+     * Writes a non-negative int using 7 bits per byte, the highest bit of
+     * each byte telling whether another byte follows. Values below 128 take a
+     * single byte.
+     */
+    public static void writeVarInt(@Nonnull ObjectDataOutput output, int value) throws IOException {
+        assert value >= 0 : "negative value: " + value;
+        int remaining = value;
+        for (; (remaining & ~VARINT_PAYLOAD_MASK) != 0; remaining >>>= VARINT_PAYLOAD_BITS) {
+            output.writeByte((remaining & VARINT_PAYLOAD_MASK) | ~VARINT_PAYLOAD_MASK);
+        }
+        output.writeByte(remaining);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarInt}.
+     */
+    public static int readVarInt(@Nonnull ObjectDataInput input) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        for (; (b = input.readByte()) < 0; shift += VARINT_PAYLOAD_BITS) {
+            value |= (b & VARINT_PAYLOAD_MASK) << shift;
+        }
+        return value | b << shift;
+    }
+
     public static long addClamped(long a, long b) {
         long sum = a + b;
         return sumHadOverflow(a, b, sum)
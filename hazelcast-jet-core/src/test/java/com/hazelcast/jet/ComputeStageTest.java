@@ -40,6 +40,7 @@ import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
 import static com.hazelcast.jet.datamodel.ItemsByTag.itemsByTag;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
@@ -123,6 +124,58 @@ public class ComputeStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void when_chainedStatelessStages_then_fusedIntoOneVertex() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        srcStage.filter(i -> i % 2 == 0)
+                .flatMap(i -> traverseIterable(asList(i, -i)))
+                .map(Object::toString)
+                .drainTo(sink);
+        int vertexCount = 0;
+        for (Object ignored : pipeline.toDag()) {
+            vertexCount++;
+        }
+        execute();
+
+        // Then
+        assertEquals("source, fused transforms and sink expected", 3, vertexCount);
+        List<String> expected = input.stream()
+                                     .filter(i -> i % 2 == 0)
+                                     .flatMap(i -> Stream.of(i, -i))
+                                     .map(String::valueOf)
+                                     .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void when_peekBetweenStatelessStages_then_notFusedAcrossPeek() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        srcStage.map(i -> i + 1)
+                .peek()
+                .map(Object::toString)
+                .drainTo(sink);
+        int vertexCount = 0;
+        for (Object ignored : pipeline.toDag()) {
+            vertexCount++;
+        }
+        execute();
+
+        // Then
+        assertEquals(4, vertexCount);
+        List<String> expected = input.stream()
+                                     .map(i -> String.valueOf(i + 1))
+                                     .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
     @Test
     public void groupBy() {
         //Given
@@ -143,6 +196,56 @@ public class ComputeStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void when_groupByEntryKeyOfMapSource_then_singleStageOnOwner() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.<String, Integer>map(srcName))
+                .groupBy(entryKey(), counting())
+                .drainTo(sink);
+        int vertexCount = 0;
+        for (Object ignored : pipeline.toDag()) {
+            vertexCount++;
+        }
+        execute();
+
+        // Then
+        assertEquals("source, single-stage aggregation and sink expected", 3, vertexCount);
+        List<Entry<String, Long>> expected = srcMap.keySet().stream()
+                                                   .map(key -> entry(key, 1L))
+                                                   .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void when_groupByDerivedKeyOfMapSource_then_twoStages() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.<String, Integer>map(srcName))
+                .groupBy(e -> e.getValue() % 3, counting())
+                .drainTo(sink);
+        int vertexCount = 0;
+        for (Object ignored : pipeline.toDag()) {
+            vertexCount++;
+        }
+        execute();
+
+        // Then
+        assertEquals("source, two aggregation stages and sink expected", 4, vertexCount);
+        List<Entry<Integer, Long>> expected = IntStream.range(0, 3)
+                                                       .mapToObj(k -> entry(k, input.stream()
+                                                                                    .filter(i -> i % 3 == k)
+                                                                                    .count()))
+                                                       .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
     @Test
     public void hashJoinTwo() {
         // Given
@@ -25,6 +25,7 @@ import org.junit.runner.RunWith;
 import static com.hazelcast.jet.core.processor.Processors.noopP;
 import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -115,6 +116,19 @@ public class EdgeTest {
         assertEquals(13, partitioner.getPartition(13, 0));
     }
 
+    @Test
+    public void whenSplitHotKeys_thenSet() {
+        // Given
+        final Edge e = Edge.from(a).partitioned(wholeItem());
+        assertFalse(e.isSplitHotKeys());
+
+        // When
+        e.splitHotKeys();
+
+        // Then
+        assertTrue(e.isSplitHotKeys());
+    }
+
     @Test
     public void whenPartitionedByKey_thenPartitionerExtractsKey() {
         // Given
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.core.TestProcessors.Identity;
+import com.hazelcast.jet.core.TestProcessors.StuckProcessor;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+public class ExecutionMetricsTest extends JetTestSupport {
+
+    private static final int NODE_COUNT = 2;
+    private static final int LOCAL_PARALLELISM = 2;
+
+    private JetInstance instance;
+
+    @Before
+    public void setup() {
+        StuckProcessor.proceedLatch = new CountDownLatch(1);
+        StuckProcessor.executionStarted = new CountDownLatch(NODE_COUNT * LOCAL_PARALLELISM);
+
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setCooperativeThreadCount(LOCAL_PARALLELISM);
+        // the probes have the INFO level, which is not collected by default
+        config.getHazelcastConfig().setProperty("hazelcast.diagnostics.metric.level", "info");
+        instance = createJetMember(config);
+        createJetMember(config);
+    }
+
+    @Test
+    public void when_jobRunning_then_taskletAndEdgeMetricsRegistered() throws Exception {
+        // Given
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", () -> new StuckProcessor()).localParallelism(LOCAL_PARALLELISM);
+        Vertex sink = dag.newVertex("sink", Identity::new).localParallelism(LOCAL_PARALLELISM);
+        dag.edge(between(source, sink).distributed());
+        MetricsRegistry registry = getNodeEngineImpl(instance).getMetricsRegistry();
+
+        // When
+        Job job = instance.newJob(dag);
+        StuckProcessor.executionStarted.await();
+
+        // Then
+        Set<String> names = registry.getNames();
+        assertHasMetric(names, ".sink#0.itemsIn");
+        assertHasMetric(names, ".sink#0.itemsOut");
+        assertHasMetric(names, ".sink#0.idleRatio");
+        assertHasMetric(names, ".sink#0.ordinal0.queuesSize");
+        assertHasMetric(names, ".source#1.callNanos");
+        assertHasMetric(names, ".sink.ordinal0.sender.");
+        assertHasMetric(names, ".bytesOut");
+        assertHasMetric(names, ".packetsIn");
+
+        StuckProcessor.proceedLatch.countDown();
+        job.join();
+        assertTrueEventually(() -> assertFalse("metrics not deregistered",
+                registry.getNames().stream().anyMatch(name -> name.startsWith("jet.job."))));
+    }
+
+    private static void assertHasMetric(Set<String> names, String part) {
+        assertTrue("no metric containing '" + part + "' in " + names,
+                names.stream().anyMatch(name -> name.startsWith("jet.job.") && name.contains(part)));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.core.TestProcessors.ListSource;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PacketCompressionTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    private JetInstance instance;
+
+    @Before
+    public void setup() {
+        instance = createJetMember();
+        createJetMember();
+    }
+
+    @Test
+    public void when_compressionEnabled_then_allItemsDelivered() {
+        // Given
+        List<String> items = range(0, ITEM_COUNT)
+                .mapToObj(i -> "{\"id\": " + i + ", \"name\": \"item\", \"tags\": [\"a\", \"b\"]}")
+                .collect(toList());
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", () -> new ListSource(items)).localParallelism(1);
+        Vertex sink = dag.newVertex("sink", writeListP("sink")).localParallelism(1);
+        dag.edge(between(source, sink)
+                .distributed()
+                .allToOne()
+                .setConfig(new EdgeConfig().setPacketCompressionEnabled(true)));
+
+        // When
+        instance.newJob(dag).join();
+
+        // Then
+        // each member's source emits all the items
+        List<Object> expected = items.stream().flatMap(item -> Stream.of(item, item))
+                                     .sorted().collect(toList());
+        assertEquals(expected, instance.getHazelcastInstance().getList("sink").stream().sorted().collect(toList()));
+    }
+}
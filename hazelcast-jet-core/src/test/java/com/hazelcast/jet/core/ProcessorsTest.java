@@ -16,13 +16,17 @@
 
 package com.hazelcast.jet.core;
 
+import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.core.Processor.Context;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.core.test.TestInbox;
 import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorSupplierContext;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.impl.processor.CoGroupP;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
 import org.junit.Test;
@@ -45,6 +49,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 public class ProcessorsTest {
@@ -159,6 +164,25 @@ public class ProcessorsTest {
                 new HashSet<>(asList(result1, result2)));
     }
 
+    @Test
+    public void when_spillThresholdSet_then_coGroupSupplierNonCooperative() {
+        // Given
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setSpillThreshold(10);
+        JetInstance instance = mock(JetInstance.class);
+        when(instance.getConfig()).thenReturn(config);
+        ProcessorSupplier supplier =
+                CoGroupP.supplier(Processors.aggregateByKeyP(Object::toString, aggregateToListAndString()));
+
+        // When
+        supplier.init(new TestProcessorSupplierContext().setJetInstance(instance));
+        Processor p = supplier.get(1).iterator().next();
+
+        // Then
+        assertFalse(p.isCooperative());
+        assertTrue(Processors.aggregateByKeyP(Object::toString, aggregateToListAndString()).get().isCooperative());
+    }
+
     @Test
     public void accumulateByKey() {
         final Processor p = processorFrom(Processors.accumulateByKeyP(Object::toString, aggregateToListAndString()));
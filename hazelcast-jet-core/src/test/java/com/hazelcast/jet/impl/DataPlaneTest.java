@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.config.SymmetricEncryptionConfig;
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.TestProcessors.ListSource;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+public class DataPlaneTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    private JetInstance instance1;
+    private JetInstance instance2;
+
+    @Test
+    public void when_dataPlaneEnabled_then_edgeDataGoesThroughIt() {
+        // Given
+        startMembers(0);
+
+        // When
+        runAllToOneJob();
+
+        // Then
+        DataPlane dataPlane1 = getJetService(instance1).getDataPlane();
+        DataPlane dataPlane2 = getJetService(instance2).getDataPlane();
+        assertNotNull(dataPlane1);
+        assertNotNull(dataPlane2);
+        assertTrue("no packets received through the data plane",
+                dataPlane1.receivedFrameCount() + dataPlane2.receivedFrameCount() > 0);
+        assertEquals(0, dataPlane1.receivedSharedMemoryFrameCount() + dataPlane2.receivedSharedMemoryFrameCount());
+    }
+
+    @Test
+    public void when_sharedMemoryEnabled_then_edgeDataGoesThroughRing() {
+        // Given
+        // smaller than the data, so that the ring wraps around
+        startMembers(1 << 12);
+
+        // When
+        runAllToOneJob();
+
+        // Then
+        DataPlane dataPlane1 = getJetService(instance1).getDataPlane();
+        DataPlane dataPlane2 = getJetService(instance2).getDataPlane();
+        assertTrue("no packets received through shared memory",
+                dataPlane1.receivedSharedMemoryFrameCount() + dataPlane2.receivedSharedMemoryFrameCount() > 0);
+    }
+
+    @Test
+    public void when_connectFails_then_memberConnectionUsed() throws IOException {
+        // Given
+        startMembers(0);
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        for (JetInstance instance : new JetInstance[] {instance1, instance2}) {
+            instance.getCluster().getLocalMember().setIntAttribute(DataPlane.PORT_ATTRIBUTE, closedPort);
+        }
+        assertTrueEventually(() -> {
+            for (Member member : instance1.getCluster().getMembers()) {
+                assertEquals(closedPort, (int) member.getIntAttribute(DataPlane.PORT_ATTRIBUTE));
+            }
+            for (Member member : instance2.getCluster().getMembers()) {
+                assertEquals(closedPort, (int) member.getIntAttribute(DataPlane.PORT_ATTRIBUTE));
+            }
+        });
+
+        // When
+        runAllToOneJob();
+
+        // Then
+        DataPlane dataPlane1 = getJetService(instance1).getDataPlane();
+        DataPlane dataPlane2 = getJetService(instance2).getDataPlane();
+        assertEquals(0, dataPlane1.receivedFrameCount() + dataPlane2.receivedFrameCount());
+    }
+
+    @Test
+    public void when_symmetricEncryptionEnabled_then_dataPlaneDisabled() {
+        // Given
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setDataPlaneConnectionCount(2);
+        config.getHazelcastConfig().getNetworkConfig()
+              .setSymmetricEncryptionConfig(new SymmetricEncryptionConfig().setEnabled(true));
+
+        // When
+        JetInstance instance = createJetMember(config);
+
+        // Then
+        assertNull(getJetService(instance).getDataPlane());
+    }
+
+    private void startMembers(int sharedMemoryBufferSize) {
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setDataPlaneConnectionCount(2);
+        config.getInstanceConfig().setSharedMemoryBufferSize(sharedMemoryBufferSize);
+        instance1 = createJetMember(config);
+        instance2 = createJetMember(config);
+    }
+
+    private void runAllToOneJob() {
+        List<Integer> items = range(0, ITEM_COUNT).boxed().collect(toList());
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", () -> new ListSource(items)).localParallelism(1);
+        Vertex sink = dag.newVertex("sink", writeListP("sink")).localParallelism(1);
+        dag.edge(between(source, sink).distributed().allToOne());
+
+        instance1.newJob(dag).join();
+
+        // each member's source emits all the items
+        List<Object> expected = items.stream().flatMap(item -> Stream.of(item, item)).sorted().collect(toList());
+        List<Object> actual = instance1.getHazelcastInstance().getList("sink").stream().sorted().collect(toList());
+        assertEquals(expected, actual);
+    }
+}
@@ -17,7 +17,10 @@
 package com.hazelcast.jet.impl.config;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.jet.config.BlockingTaskletMode;
 import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.config.IdleStrategyType;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.impl.util.Util;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -32,11 +35,14 @@ import java.io.InputStream;
 import java.util.Properties;
 
 import static com.hazelcast.jet.config.InstanceConfig.DEFAULT_FLOW_CONTROL_PERIOD_MS;
+import static com.hazelcast.jet.config.InstanceConfig.DEFAULT_MAX_IDLE_MICROS;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 public class XmlConfigTest {
@@ -55,6 +61,10 @@ public class XmlConfigTest {
         assertEquals(Runtime.getRuntime().availableProcessors(),
                 jetConfig.getInstanceConfig().getCooperativeThreadCount());
         assertEquals(DEFAULT_FLOW_CONTROL_PERIOD_MS, jetConfig.getInstanceConfig().getFlowControlPeriodMs());
+        assertEquals(IdleStrategyType.BACKOFF, jetConfig.getInstanceConfig().getIdleStrategy());
+        assertEquals(DEFAULT_MAX_IDLE_MICROS, jetConfig.getInstanceConfig().getMaxIdleMicros());
+        assertNull(jetConfig.getInstanceConfig().getCpuAffinity());
+        assertEquals(BlockingTaskletMode.THREAD_PER_TASKLET, jetConfig.getInstanceConfig().getBlockingTaskletMode());
         assertDefaultMemberConfig(jetConfig.getHazelcastConfig());
     }
 
@@ -158,6 +168,53 @@ public class XmlConfigTest {
         assertThat(jetConfig.getHazelcastConfig().getGroupConfig().getPassword(), equalTo(WORLDS_MOST_COMMON_PASSWORD));
     }
 
+    @Test
+    public void when_idleStrategySpecified_usesSpecified() {
+        // Given
+        Properties properties = new Properties();
+        properties.put(XmlJetConfigLocator.HAZELCAST_JET_CONFIG_PROPERTY, "classpath:" + TEST_XML_1);
+
+        // When
+        JetConfig jetConfig = XmlJetConfigBuilder.getConfig(properties);
+
+        // Then
+        InstanceConfig instanceConfig = jetConfig.getInstanceConfig();
+        assertEquals("idleStrategy", IdleStrategyType.PARKING, instanceConfig.getIdleStrategy());
+        assertEquals("maxIdleMicros", 50_000, instanceConfig.getMaxIdleMicros());
+    }
+
+    @Test
+    public void when_cpuAffinitySpecified_usesSpecified() {
+        // Given
+        Properties properties = new Properties();
+        properties.put(XmlJetConfigLocator.HAZELCAST_JET_CONFIG_PROPERTY, "classpath:" + TEST_XML_1);
+
+        // When
+        JetConfig jetConfig = XmlJetConfigBuilder.getConfig(properties);
+
+        // Then
+        assertEquals("cpuAffinity", "0-3, 8", jetConfig.getInstanceConfig().getCpuAffinity());
+    }
+
+    @Test
+    public void when_blockingTaskletModeSpecified_usesSpecified() {
+        // Given
+        Properties properties = new Properties();
+        properties.put(XmlJetConfigLocator.HAZELCAST_JET_CONFIG_PROPERTY, "classpath:" + TEST_XML_1);
+
+        // When
+        JetConfig jetConfig = XmlJetConfigBuilder.getConfig(properties);
+
+        // Then
+        InstanceConfig instanceConfig = jetConfig.getInstanceConfig();
+        assertEquals("blockingTaskletMode", BlockingTaskletMode.POOLED, instanceConfig.getBlockingTaskletMode());
+        assertEquals("blockingThreadPoolSize", 7, instanceConfig.getBlockingThreadPoolSize());
+        assertEquals("dataPlaneConnectionCount", 4, instanceConfig.getDataPlaneConnectionCount());
+        assertEquals("sharedMemoryBufferSize", 8 << 20, instanceConfig.getSharedMemoryBufferSize());
+        assertEquals("spillThreshold", 1_000_000, instanceConfig.getSpillThreshold());
+        assertEquals("flowControlAckThresholdBytes", 1 << 20, instanceConfig.getFlowControlAckThresholdBytes());
+    }
+
     @Test
     public void when_edgeDefaultsSpecified_usesSpecified() {
         // Given
@@ -172,6 +229,7 @@ public class XmlConfigTest {
         assertEquals("queueSize", 999, edgeConfig.getQueueSize());
         assertEquals("packetSizeLimit", 997, edgeConfig.getPacketSizeLimit());
         assertEquals("receiveWindowMultiplier", 996, edgeConfig.getReceiveWindowMultiplier());
+        assertTrue("packetCompressionEnabled", edgeConfig.isPacketCompressionEnabled());
     }
 
     private static void assertConfig(JetConfig jetConfig) {
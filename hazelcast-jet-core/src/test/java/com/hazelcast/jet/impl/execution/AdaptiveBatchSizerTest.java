@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.jet.impl.execution.AdaptiveBatchSizer.MAX_CALL_NANOS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class AdaptiveBatchSizerTest {
+
+    private final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(16, 1024);
+
+    @Test
+    public void when_created_then_minSize() {
+        assertEquals(16, sizer.size());
+    }
+
+    @Test
+    public void when_inboxFull_then_growsUpToMax() {
+        for (int i = 0; i < 20; i++) {
+            sizer.update(sizer.size(), false, 0);
+        }
+        assertEquals(1024, sizer.size());
+    }
+
+    @Test
+    public void when_outboxExhausted_then_grows() {
+        sizer.update(-1, true, 0);
+        assertEquals(32, sizer.size());
+    }
+
+    @Test
+    public void when_callTooLong_then_shrinksDownToMin() {
+        growToMax();
+        sizer.update(1024, true, MAX_CALL_NANOS + 1);
+        assertEquals(512, sizer.size());
+        for (int i = 0; i < 20; i++) {
+            sizer.update(1024, true, MAX_CALL_NANOS + 1);
+        }
+        assertEquals(16, sizer.size());
+    }
+
+    @Test
+    public void when_inputSparse_then_slowlyShrinks() {
+        growToMax();
+        sizer.update(0, false, 0);
+        int size = sizer.size();
+        assertTrue("size=" + size, size < 1024 && size > 512);
+        for (int i = 0; i < 100; i++) {
+            sizer.update(0, false, 0);
+        }
+        assertEquals(16, sizer.size());
+    }
+
+    @Test
+    public void when_inboxNotFilled_then_sizeUnchanged() {
+        growToMax();
+        sizer.update(-1, false, 0);
+        assertEquals(1024, sizer.size());
+    }
+
+    private void growToMax() {
+        for (int i = 0; i < 20; i++) {
+            sizer.update(-1, true, 0);
+        }
+    }
+}
@@ -251,6 +251,63 @@ public class ConcurrentInboundEdgeStreamTest_WmRetainDisabled {
         drainAndAssert(MADE_PROGRESS, wm(1));
     }
 
+    @Test
+    public void when_itemsAfterWmInSameQueue_then_drainedAfterWm() {
+        add(q1, 1, wm(1), 2, 3);
+        add(q2, wm(1), 4);
+        drainToCollectionAndAssert(MADE_PROGRESS, 1, wm(1));
+        drainToCollectionAndAssert(MADE_PROGRESS, 2, 3, 4);
+    }
+
+    @Test
+    public void when_itemsLeftAfterWm_then_countedInQueuesSize() {
+        // Given
+        add(q1, 1, wm(1), 2, 3);
+        add(q2, wm(1), 4);
+
+        // When
+        drainToCollectionAndAssert(MADE_PROGRESS, 1, wm(1));
+
+        // Then
+        assertEquals(3, stream.queuesSize());
+        drainToCollectionAndAssert(MADE_PROGRESS, 2, 3, 4);
+        assertEquals(0, stream.queuesSize());
+    }
+
+    @Test
+    public void when_itemsAfterBarrierInSameQueue_then_drainedAfterBarrier() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, maxWatermarkRetainMillis);
+        add(q1, 1, barrier(0), 2);
+        add(q2, 3);
+        drainToCollectionAndAssert(MADE_PROGRESS, 1, 3);
+
+        // q1 is not drained until the barrier is received from q2
+        add(q2, barrier(0), 4);
+        drainToCollectionAndAssert(MADE_PROGRESS, barrier(0));
+        drainToCollectionAndAssert(MADE_PROGRESS, 2, 4);
+    }
+
+    @Test
+    public void when_drainWithLimit_then_limitedAndQueuesTakeTurns() {
+        add(q1, 1, 2, 3);
+        add(q2, 4, 5);
+        drainWithLimitAndAssert(2, 1, 2);
+        drainWithLimitAndAssert(2, 4, 5);
+        drainWithLimitAndAssert(2, 3);
+    }
+
+    private void drainWithLimitAndAssert(int limit, Object... expectedItems) {
+        List<Object> list = new ArrayList<>();
+        assertEquals("progressState", MADE_PROGRESS, stream.drainTo(list, limit));
+        assertEquals(Arrays.asList(expectedItems), list);
+    }
+
+    private void drainToCollectionAndAssert(ProgressState expectedState, Object... expectedItems) {
+        List<Object> list = new ArrayList<>();
+        assertEquals("progressState", expectedState, stream.drainTo(list));
+        assertEquals(Arrays.asList(expectedItems), list);
+    }
+
     private void drainAndAssert(ProgressState expectedState, Object... expectedItems) {
         List<Object> list = new ArrayList<>();
         assertEquals("progressState", expectedState, stream.drainTo(list::add));
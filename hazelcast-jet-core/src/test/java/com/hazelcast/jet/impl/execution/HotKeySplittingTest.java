@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.impl.execution.OutboundCollector.HotKeySplitting;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jet.impl.execution.OutboundCollector.HotKeySplitting.MIN_SAMPLE_SIZE;
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class HotKeySplittingTest {
+
+    private static final int PARTITION_COUNT = 4;
+
+    // collector 0 owns the even partitions, collector 1 the odd ones
+    private final RecordingCollector even = new RecordingCollector(0, 2);
+    private final RecordingCollector odd = new RecordingCollector(1, 3);
+    private final Partitioner<Integer> partitioner = (item, partitionCount) -> item % partitionCount;
+    private final HotKeySplitting collector = new HotKeySplitting(
+            new OutboundCollector[] {even, odd}, partitioner, PARTITION_COUNT, 2);
+
+    @Test
+    public void when_uniformKeys_then_routedByPartition() {
+        // When
+        for (int i = 0; i < 4 * MIN_SAMPLE_SIZE; i++) {
+            assertEquals(DONE, collector.offer(i));
+        }
+
+        // Then
+        assertEquals(2 * MIN_SAMPLE_SIZE, even.items.size());
+        assertEquals(2 * MIN_SAMPLE_SIZE, odd.items.size());
+        assertTrue(even.items.stream().allMatch(i -> i % 2 == 0));
+        assertTrue(odd.items.stream().allMatch(i -> i % 2 == 1));
+    }
+
+    @Test
+    public void when_hotKey_then_spreadAfterSample() {
+        // When
+        for (int i = 0; i < 4 * MIN_SAMPLE_SIZE; i++) {
+            assertEquals(DONE, collector.offer(0));
+        }
+
+        // Then
+        // items before the sample is complete stay in place, the rest is spread evenly
+        assertEquals(MIN_SAMPLE_SIZE - 1 + 3 * MIN_SAMPLE_SIZE / 2, even.items.size());
+        assertEquals(3 * MIN_SAMPLE_SIZE / 2 + 1, odd.items.size());
+    }
+
+    private static final class RecordingCollector implements OutboundCollector {
+        final List<Integer> items = new ArrayList<>();
+        private final int[] partitions;
+
+        RecordingCollector(int... partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public ProgressState offer(Object item) {
+            items.add((Integer) item);
+            return DONE;
+        }
+
+        @Override
+        public int[] getPartitions() {
+            return partitions;
+        }
+    }
+}
@@ -38,6 +38,7 @@ public class MockInboundStream implements InboundEdgeStream {
 
     private int dataIndex;
     private boolean done;
+    private int capacity; // for fillRatio(), 0 if unbounded
 
     MockInboundStream(int priority, List<?> mockData, int chunkSize) {
         this.priority = priority;
@@ -53,6 +54,10 @@ public class MockInboundStream implements InboundEdgeStream {
         this.ordinal = ordinal;
     }
 
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
     @Override
     public ProgressState drainTo(Consumer<Object> dest) {
         if (done) {
@@ -78,6 +83,11 @@ public class MockInboundStream implements InboundEdgeStream {
         return done ? DONE : MADE_PROGRESS;
     }
 
+    @Override
+    public double fillRatio() {
+        return capacity == 0 ? 0 : Math.min(1d, (double) (mockData.size() - dataIndex) / capacity);
+    }
+
     @Override
     public boolean isDone() {
         return done;
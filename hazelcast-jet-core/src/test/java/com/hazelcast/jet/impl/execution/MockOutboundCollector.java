@@ -24,23 +24,39 @@ import java.util.List;
 class MockOutboundCollector implements OutboundCollector {
 
     private final ArrayList<Object> buffer;
+    private final ArrayList<Integer> partitionIds;
     private final int capacity;
 
     MockOutboundCollector(int capacity) {
         this.capacity = capacity;
         this.buffer = new ArrayList<>(capacity);
+        this.partitionIds = new ArrayList<>(capacity);
     }
 
     List<Object> getBuffer() {
         return buffer;
     }
 
+    /**
+     * Returns the partition IDs the items in the buffer were offered with, -1
+     * for the items offered without one.
+     */
+    List<Integer> getPartitionIds() {
+        return partitionIds;
+    }
+
     @Override
     public ProgressState offer(Object item) {
+        return offer(item, -1);
+    }
+
+    @Override
+    public ProgressState offer(Object item, int partitionId) {
         if (buffer.size() == capacity) {
             return ProgressState.NO_PROGRESS;
         }
         buffer.add(item);
+        partitionIds.add(partitionId);
         return ProgressState.DONE;
     }
 
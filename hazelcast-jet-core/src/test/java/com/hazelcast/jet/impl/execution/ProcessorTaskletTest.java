@@ -128,6 +128,24 @@ public class ProcessorTaskletTest {
         assertEquals(mockInput, outstream1.getBuffer());
     }
 
+    @Test
+    public void when_adaptiveBatchSize_then_outstreamGetsAll() {
+        // Given
+        mockInput.add(DONE_ITEM);
+        MockInboundStream instream1 = new MockInboundStream(0, mockInput, mockInput.size());
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+        instreams.add(instream1);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet();
+        tasklet.setBatchSizeBounds(2, 4);
+
+        // When
+        callUntil(tasklet, DONE);
+
+        // Then
+        assertEquals(mockInput, outstream1.getBuffer());
+    }
+
     @Test
     public void when_3instreams_then_pushAllIntoOutstream() {
         // Given
@@ -246,6 +264,35 @@ public class ProcessorTaskletTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void when_backlogAwareScheduling_then_fullerInstreamDrainedFirst() {
+        // Given
+        MockInboundStream instream1 = new MockInboundStream(0, mockInput.subList(0, 2), 4);
+        MockInboundStream instream2 = new MockInboundStream(0, mockInput.subList(2, 10), 4);
+        instream1.setCapacity(8);
+        instream2.setCapacity(8);
+        instream1.push(DONE_ITEM);
+        instream2.push(DONE_ITEM);
+        instreams.addAll(asList(instream1, instream2));
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet();
+        tasklet.setBacklogAwareScheduling(true);
+
+        // When
+        tasklet.call();
+
+        // Then
+        assertEquals(mockInput.subList(2, 6), outstream1.getBuffer());
+
+        // When
+        callUntil(tasklet, DONE);
+
+        // Then
+        mockInput.add(DONE_ITEM);
+        assertEquals(new HashSet<>(mockInput), new HashSet<>(outstream1.getBuffer()));
+    }
+
     private ProcessorTasklet createTasklet() {
         for (int i = 0; i < instreams.size(); i++) {
             instreams.get(i).setOrdinal(i);
@@ -273,10 +320,8 @@ public class ProcessorTaskletTest {
 
         @Override
         public void process(int ordinal, @Nonnull Inbox inbox) {
-            for (Object item; (item = inbox.poll()) != null; ) {
-                if (!outbox.offer(item)) {
-                    return;
-                }
+            for (Object item; (item = inbox.peek()) != null && outbox.offer(item); ) {
+                inbox.remove();
             }
         }
 
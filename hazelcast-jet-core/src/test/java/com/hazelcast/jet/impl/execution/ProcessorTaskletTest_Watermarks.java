@@ -34,7 +34,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
+import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.IDLE_MESSAGE;
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Arrays.asList;
@@ -42,6 +44,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -176,6 +179,87 @@ public class ProcessorTaskletTest_Watermarks {
     }
 
 
+    @Test
+    public void when_wmForwardedUnchanged_then_sameInstance() {
+        // Given
+        Watermark wm = wm(100);
+        MockInboundStream instream1 = new MockInboundStream(0, singletonList(wm), 1000);
+        MockOutboundStream outstream1 = new MockOutboundStream(0, 128);
+        instreams.add(instream1);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet(-1);
+
+        // When
+        callUntil(400, tasklet, NO_PROGRESS);
+
+        // Then
+        assertSame(wm, outstream1.getBuffer().get(1));
+    }
+
+    @Test
+    public void when_throttled_then_latestWmForwardedAfterInterval() {
+        // Given
+        MockInboundStream instream1 = new MockInboundStream(0, asList(wm(100), wm(101), wm(102)), 1000);
+        MockOutboundStream outstream1 = new MockOutboundStream(0, 128);
+        instreams.add(instream1);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet(-1);
+        tasklet.setWatermarkThrottling(100, 0);
+
+        // When
+        callUntil(400, tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(asList("wm(100)-0", wm(100)), outstream1.getBuffer());
+        outstream1.flush();
+
+        // When
+        callUntil(499, tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(emptyList(), outstream1.getBuffer());
+
+        // When
+        callUntil(500, tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(asList("wm(102)-0", wm(102)), outstream1.getBuffer());
+    }
+
+    @Test
+    public void when_throttledAndWmAdvancesByMinDelta_then_forwardedImmediately() {
+        // Given
+        MockInboundStream instream1 = new MockInboundStream(0, asList(wm(100), wm(105), wm(110)), 1000);
+        MockOutboundStream outstream1 = new MockOutboundStream(0, 128);
+        instreams.add(instream1);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet(-1);
+        tasklet.setWatermarkThrottling(100, 10);
+
+        // When
+        callUntil(400, tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(asList("wm(100)-0", wm(100), "wm(110)-0", wm(110)), outstream1.getBuffer());
+    }
+
+    @Test
+    public void when_throttledAndInputCompletes_then_heldWmForwardedBeforeDone() {
+        // Given
+        MockInboundStream instream1 = new MockInboundStream(0, asList(wm(100), wm(101), DONE_ITEM), 1000);
+        MockOutboundStream outstream1 = new MockOutboundStream(0, 128);
+        instreams.add(instream1);
+        outstreams.add(outstream1);
+        ProcessorTasklet tasklet = createTasklet(-1);
+        tasklet.setWatermarkThrottling(100, 0);
+
+        // When
+        callUntil(400, tasklet, DONE);
+
+        // Then
+        assertEquals(asList("wm(100)-0", wm(100), "wm(101)-0", wm(101), DONE_ITEM), outstream1.getBuffer());
+    }
+
     // #### IDLE_MESSAGE related tests ####
 
     @Test
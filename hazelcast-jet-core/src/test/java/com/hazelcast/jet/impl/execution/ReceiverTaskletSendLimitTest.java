@@ -16,11 +16,14 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.hazelcast.jet.config.InstanceConfig.DEFAULT_FLOW_CONTROL_PERIOD_MS;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.COMPRESSED_SEQ_UNIT_LOG2;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.INITIAL_RECEIVE_WINDOW_COMPRESSED;
@@ -43,7 +46,8 @@ public class ReceiverTaskletSendLimitTest {
 
     @Before
     public void before() {
-        tasklet = new ReceiverTasklet(null, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS);
+        tasklet = new ReceiverTasklet(null, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS,
+                new DefaultSerializationServiceBuilder().build());
     }
 
     @Test
@@ -134,4 +138,47 @@ public class ReceiverTaskletSendLimitTest {
         final long rwin = seqLimitAfterRecover - ackedSeqCompressed;
         assertTrue(rwin >= RWIN_MULTIPLIER * ackedSeqsPerIterCompressed);
     }
+
+    @Test
+    public void when_ackThresholdCrossed_then_ackRequestedOncePerThreshold() {
+        // Given
+        final int threshold = 4 << COMPRESSED_SEQ_UNIT_LOG2;
+        final AtomicInteger ackRequestCount = new AtomicInteger();
+        tasklet = new ReceiverTasklet(null, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS,
+                new DefaultSerializationServiceBuilder().build(), threshold, ackRequestCount::incrementAndGet);
+
+        // When
+        tasklet.ackItem(threshold - 1);
+
+        // Then
+        assertEquals(0, ackRequestCount.get());
+
+        // When
+        tasklet.ackItem(1);
+        tasklet.ackItem(threshold - 1);
+
+        // Then
+        assertEquals(1, ackRequestCount.get());
+
+        // When
+        tasklet.ackItem(1);
+
+        // Then
+        assertEquals(2, ackRequestCount.get());
+    }
+
+    @Test
+    public void when_getSendSeqLimit_then_rwinNotAdapted() {
+        // Given
+        final long acked = 10L << COMPRESSED_SEQ_UNIT_LOG2;
+        tasklet.updateAndGetSendSeqLimitCompressed(START);
+
+        // When
+        tasklet.ackItem(acked);
+        final int seqLimit = tasklet.getSendSeqLimitCompressed();
+
+        // Then
+        assertEquals(10 + INITIAL_RECEIVE_WINDOW_COMPRESSED, seqLimit);
+        assertEquals(seqLimit, tasklet.getSendSeqLimitCompressed());
+    }
 }
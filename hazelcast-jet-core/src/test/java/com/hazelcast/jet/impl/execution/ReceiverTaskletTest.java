@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.impl.util.LzCodec;
 import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
@@ -26,6 +27,10 @@ import org.junit.runner.RunWith;
 
 import java.io.IOException;
 
+import static com.hazelcast.jet.impl.Networking.STREAM_PACKET_HEADER_SIZE;
+import static com.hazelcast.jet.impl.execution.SenderTasklet.FLAG_COMPRESSED;
+import static com.hazelcast.jet.impl.execution.SenderTasklet.FLAG_PARTITION_IDS;
+import static com.hazelcast.jet.impl.util.Util.writeVarInt;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 
@@ -38,9 +43,9 @@ public class ReceiverTaskletTest {
 
     @Before
     public void before() {
-        collector = new MockOutboundCollector(2);
-        t = new ReceiverTasklet(collector, 3, 100);
+        collector = new MockOutboundCollector(10);
         serService = new DefaultSerializationServiceBuilder().build();
+        t = new ReceiverTasklet(collector, 3, 100, serService);
     }
 
     @Test
@@ -48,15 +53,93 @@ public class ReceiverTaskletTest {
         pushObjects(1, 2);
         t.call();
         assertEquals(asList(1, 2), collector.getBuffer());
+        assertEquals(asList(-1, -1), collector.getPartitionIds());
+    }
+
+    @Test
+    public void when_partitionIdRuns_then_emitWithPartitionIds() throws IOException {
+        // Given
+        BufferObjectDataOutput out = packetWithHeader(FLAG_PARTITION_IDS);
+        out.write(packetBody("a", "b", "c", "d"));
+        // a run of two items in partition 7, then one in partition -1 and one in 300
+        writeRun(out, 7, 2);
+        writeRun(out, -1, 1);
+        writeRun(out, 300, 1);
+
+        // When
+        t.receiveStreamPacket(out.toByteArray());
+        t.call();
+
+        // Then
+        assertEquals(asList("a", "b", "c", "d"), collector.getBuffer());
+        assertEquals(asList(7, 7, -1, 300), collector.getPartitionIds());
+    }
+
+    @Test
+    public void when_collectorFull_then_restDeliveredAfterNextPackets() throws IOException {
+        // Given
+        collector = new MockOutboundCollector(2);
+        t = new ReceiverTasklet(collector, 3, 100, serService);
+        pushObjects(1, 2, 3);
+        t.call();
+        assertEquals(asList(1, 2), collector.getBuffer());
+
+        // When
+        pushObjects(4);
+        collector.getBuffer().clear();
+        t.call();
+        assertEquals(asList(3), collector.getBuffer());
+        collector.getBuffer().clear();
+        t.call();
+
+        // Then
+        assertEquals(asList(4), collector.getBuffer());
+    }
+
+    @Test
+    public void when_compressedAndUncompressedPackets_then_allReceived() throws IOException {
+        // Given
+        byte[] body = packetBody("text-text-text-1", "text-text-text-2", "text-text-text-3");
+        byte[] compressedBody = new byte[body.length];
+        int compressedLength = new LzCodec().compress(body, 0, body.length, compressedBody, 0, body.length);
+
+        // When
+        BufferObjectDataOutput out = packetWithHeader(FLAG_COMPRESSED);
+        out.writeInt(body.length);
+        out.write(compressedBody, 0, compressedLength);
+        t.receiveStreamPacket(out.toByteArray());
+        pushObjects("plain");
+        t.call();
+
+        // Then
+        assertEquals(asList("text-text-text-1", "text-text-text-2", "text-text-text-3", "plain"),
+                collector.getBuffer());
     }
 
     private void pushObjects(Object... objs) throws IOException {
+        final BufferObjectDataOutput out = packetWithHeader(0);
+        out.write(packetBody(objs));
+        t.receiveStreamPacket(out.toByteArray());
+    }
+
+    private BufferObjectDataOutput packetWithHeader(int flags) throws IOException {
+        final BufferObjectDataOutput out = serService.createObjectDataOutput();
+        out.write(new byte[STREAM_PACKET_HEADER_SIZE]);
+        out.writeByte(flags);
+        return out;
+    }
+
+    private byte[] packetBody(Object... objs) throws IOException {
         final BufferObjectDataOutput out = serService.createObjectDataOutput();
         out.writeInt(objs.length);
         for (Object obj : objs) {
             out.writeObject(obj);
-            out.writeInt(Math.abs(obj.hashCode())); // partition id
         }
-        t.receiveStreamPacket(serService.createObjectDataInput(out.toByteArray()));
+        return out.toByteArray();
+    }
+
+    private static void writeRun(BufferObjectDataOutput out, int partitionId, int length) throws IOException {
+        writeVarInt(out, partitionId + 1);
+        writeVarInt(out, length);
     }
 }
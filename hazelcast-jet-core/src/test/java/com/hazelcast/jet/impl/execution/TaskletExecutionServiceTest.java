@@ -17,6 +17,10 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
+import com.hazelcast.jet.config.BlockingTaskletMode;
+import com.hazelcast.jet.config.IdleStrategyType;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.core.JetTestSupport;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.logging.ILogger;
@@ -37,9 +41,12 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
+import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.ProgressState.DONE;
@@ -47,6 +54,8 @@ import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -64,10 +73,11 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
 
     private TaskletExecutionService es;
     private ClassLoader classLoaderMock;
+    private HazelcastInstance hzMock;
 
     @Before
     public void before() {
-        HazelcastInstance hzMock = mock(HazelcastInstance.class);
+        hzMock = mock(HazelcastInstance.class);
         LoggingService loggingService = mock(LoggingService.class);
         ILogger mockLogger = mock(ILogger.class);
         Mockito.when(hzMock.getName()).thenReturn("test-hz-instance");
@@ -187,6 +197,25 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         tasklets.forEach(MockTasklet::assertDone);
     }
 
+    @Test
+    public void when_manyJobsWithUnevenTasklets_then_allComplete() {
+        // Given
+        final List<List<MockTasklet>> jobs =
+                Stream.generate(() -> Stream.generate(() -> new MockTasklet().callsBeforeDone(random(1, 2000)))
+                                            .limit(50).collect(toList()))
+                      .limit(20).collect(toList());
+
+        // When
+        final List<CompletableFuture<Void>> futures = jobs
+                .stream()
+                .map(tasklets -> es.beginExecute(tasklets, new CompletableFuture<>(), classLoaderMock))
+                .collect(toList());
+        futures.forEach(CompletableFuture::join);
+
+        // Then
+        jobs.forEach(tasklets -> tasklets.forEach(MockTasklet::assertDone));
+    }
+
     @Test
     public void when_nonBlockingTaskletIsCancelled_then_completesEarly() throws Exception {
         // Given
@@ -242,6 +271,89 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         cancellationFuture.get();
     }
 
+    @Test
+    public void when_pooledBlockingTasklets_then_allComplete() {
+        // Given
+        TaskletExecutionService pooledEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setBlockingTaskletMode(BlockingTaskletMode.POOLED)
+                .setBlockingThreadPoolSize(2));
+        try {
+            final List<MockTasklet> tasklets =
+                    Stream.generate(() -> new MockTasklet().blocking().callsBeforeDone(1000))
+                          .limit(20).collect(toList());
+
+            // When
+            pooledEs.beginExecute(tasklets, cancellationFuture, classLoaderMock).join();
+
+            // Then
+            tasklets.forEach(MockTasklet::assertDone);
+        } finally {
+            pooledEs.shutdown();
+        }
+    }
+
+    @Test
+    public void when_pooledBlockingSleepingTaskletIsCancelled_then_completeEarly() throws Exception {
+        // Given
+        TaskletExecutionService pooledEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setBlockingTaskletMode(BlockingTaskletMode.POOLED)
+                .setBlockingThreadPoolSize(4));
+        try {
+            final List<MockTasklet> tasklets =
+                    Stream.generate(() -> new MockTasklet().sleeping().callsBeforeDone(Integer.MAX_VALUE))
+                          .limit(100).collect(toList());
+
+            // When
+            CompletableFuture<Void> f = pooledEs.beginExecute(tasklets, cancellationFuture, classLoaderMock);
+            cancellationFuture.cancel(true);
+
+            // Then
+            tasklets.forEach(MockTasklet::assertNotDone);
+            assertTrueEventually(f::isDone);
+        } finally {
+            pooledEs.shutdown();
+        }
+    }
+
+    @Test
+    public void when_shutdownWithPooledTaskletsWaiting_then_futureCompletes() {
+        // Given
+        TaskletExecutionService pooledEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setBlockingTaskletMode(BlockingTaskletMode.POOLED)
+                .setBlockingThreadPoolSize(1));
+        final List<MockTasklet> tasklets =
+                Stream.generate(() -> new MockTasklet().sleeping().callsBeforeDone(Integer.MAX_VALUE))
+                      .limit(10).collect(toList());
+        CompletableFuture<Void> f = pooledEs.beginExecute(tasklets, cancellationFuture, classLoaderMock);
+
+        // When
+        pooledEs.shutdown();
+
+        // Then
+        assertTrueEventually(() -> assertTrue(f.isCompletedExceptionally()));
+    }
+
+    @Test
+    public void when_virtualThreadsMode_then_blockingTaskletsComplete() {
+        // Given
+        TaskletExecutionService virtualEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setBlockingTaskletMode(BlockingTaskletMode.VIRTUAL_THREADS));
+        try {
+            final List<MockTasklet> tasklets =
+                    Stream.generate(() -> new MockTasklet().blocking().callsBeforeDone(100))
+                          .limit(100).collect(toList());
+
+            // When
+            virtualEs.beginExecute(tasklets, cancellationFuture, classLoaderMock).join();
+
+            // Then
+            // -- on JVMs without virtual threads the tasklets run on the pool
+            tasklets.forEach(MockTasklet::assertDone);
+        } finally {
+            virtualEs.shutdown();
+        }
+    }
+
     @Test
     public void when_nonBlockingCancelled_then_doneCallBackFiredAfterActualDone() throws Exception {
         // Given
@@ -335,6 +447,135 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         }
     }
 
+    @Test
+    public void when_parkingIdleStrategy_then_wokenUpBySignal() throws Exception {
+        // Given
+        TaskletExecutionService parkingEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setCooperativeThreadCount(1)
+                .setIdleStrategy(IdleStrategyType.PARKING)
+                .setMaxIdleMicros(MINUTES.toMicros(10)));
+        try {
+            SignalledTasklet t = new SignalledTasklet();
+            CompletableFuture<Void> f = parkingEs.beginExecute(singletonList(t), cancellationFuture, classLoaderMock);
+            // give the worker time to park
+            Thread.sleep(500);
+
+            // When
+            t.hasData = true;
+            t.wakeUpSignal.wakeUp();
+
+            // Then
+            f.get(10, SECONDS);
+        } finally {
+            parkingEs.shutdown();
+        }
+    }
+
+    @Test
+    public void when_parkingAndItemsHandedOverOneByOne_then_noWakeUpLost() throws Exception {
+        // Given
+        TaskletExecutionService parkingEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setCooperativeThreadCount(1)
+                .setIdleStrategy(IdleStrategyType.PARKING)
+                .setMaxIdleMicros(SECONDS.toMicros(5)));
+        try {
+            // When-Then
+            assertItemsHandedOverQuickly(parkingEs, new QueueTasklet(true));
+        } finally {
+            parkingEs.shutdown();
+        }
+    }
+
+    @Test
+    public void when_parkingAndPooledTaskletIdle_then_wokenUpBySignal() throws Exception {
+        // Given
+        TaskletExecutionService pooledEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setBlockingTaskletMode(BlockingTaskletMode.POOLED)
+                .setBlockingThreadPoolSize(2)
+                .setIdleStrategy(IdleStrategyType.PARKING)
+                .setMaxIdleMicros(SECONDS.toMicros(5)));
+        try {
+            // When-Then
+            assertItemsHandedOverQuickly(pooledEs, new QueueTasklet(false));
+        } finally {
+            pooledEs.shutdown();
+        }
+    }
+
+    /**
+     * Hands the items over one at a time and asserts that each is consumed
+     * well within the maximum idle time of the service, that is the worker
+     * is woken up instead of waiting for its idle timeout.
+     */
+    private void assertItemsHandedOverQuickly(TaskletExecutionService service, QueueTasklet t) throws Exception {
+        long maxLatencyNanos = SECONDS.toNanos(1);
+        CompletableFuture<Void> f = service.beginExecute(singletonList(t), cancellationFuture, classLoaderMock);
+        long maxLatency = 0;
+        for (int i = 0; i < 20_000; i++) {
+            long start = System.nanoTime();
+            assertTrue(t.queue.offer(i));
+            t.wakeUpSignal.wakeUp();
+            while (t.consumedCount.get() <= i) {
+                assertTrue("wake-up lost for item " + i, System.nanoTime() - start < maxLatencyNanos);
+                Thread.yield();
+            }
+            maxLatency = Math.max(maxLatency, System.nanoTime() - start);
+        }
+        t.queue.offer(DONE_ITEM);
+        t.wakeUpSignal.wakeUp();
+
+        f.get(10, SECONDS);
+        assertTrue("maxLatency=" + maxLatency, maxLatency < maxLatencyNanos);
+    }
+
+    @Test
+    public void when_cpuAffinity_then_allComplete() {
+        // Given
+        TaskletExecutionService pinnedEs = new TaskletExecutionService(hzMock, new InstanceConfig()
+                .setCooperativeThreadCount(2)
+                .setCpuAffinity("0"));
+        try {
+            final List<MockTasklet> tasklets =
+                    Stream.generate(() -> new MockTasklet().callsBeforeDone(100)).limit(10).collect(toList());
+
+            // When
+            pinnedEs.beginExecute(tasklets, cancellationFuture, classLoaderMock).join();
+
+            // Then
+            tasklets.forEach(MockTasklet::assertDone);
+        } finally {
+            pinnedEs.shutdown();
+        }
+    }
+
+    @Test
+    public void when_twoHeavyTaskletsOnSameWorker_then_oneIsMoved() throws Exception {
+        // Given
+        TaskletExecutionService twoThreadEs = new TaskletExecutionService(hzMock, 2);
+        try {
+            List<LoadTasklet> tasklets = Stream.generate(LoadTasklet::new).limit(4).collect(toList());
+            CompletableFuture<Void> f = twoThreadEs.beginExecute(tasklets, cancellationFuture, classLoaderMock);
+            assertTrueEventually(() -> assertTrue(tasklets.stream().allMatch(t -> t.lastThread != null)));
+            LoadTasklet t1 = tasklets.get(0);
+            LoadTasklet t2 = tasklets.stream().skip(1).filter(t -> t.lastThread == t1.lastThread).findFirst().get();
+
+            // When
+            t1.heavy = true;
+            t2.heavy = true;
+
+            // Then
+            assertTrueEventually(() -> assertNotEquals(t1.lastThread, t2.lastThread));
+            tasklets.forEach(t -> t.done = true);
+            f.get(10, SECONDS);
+        } finally {
+            twoThreadEs.shutdown();
+        }
+    }
+
+    private static int random(int min, int max) {
+        return ThreadLocalRandom.current().nextInt(min, max);
+    }
+
     private void executeAndJoin(List<MockTasklet> tasklets) {
         CompletableFuture<Void> f = es.beginExecute(tasklets, cancellationFuture, classLoaderMock);
         f.join();
@@ -429,6 +670,80 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         }
     }
 
+    private static class SignalledTasklet implements Tasklet {
+
+        final WakeUpSignal wakeUpSignal = new WakeUpSignal();
+        volatile boolean hasData;
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            return hasData ? DONE : NO_PROGRESS;
+        }
+
+        @Override
+        public WakeUpSignal wakeUpSignal() {
+            return wakeUpSignal;
+        }
+    }
+
+    private static class QueueTasklet implements Tasklet {
+
+        final WakeUpSignal wakeUpSignal = new WakeUpSignal();
+        final OneToOneConcurrentArrayQueue<Object> queue = new OneToOneConcurrentArrayQueue<>(16);
+        final AtomicInteger consumedCount = new AtomicInteger();
+        private final boolean isCooperative;
+
+        QueueTasklet(boolean isCooperative) {
+            this.isCooperative = isCooperative;
+        }
+
+        @Override
+        public boolean isCooperative() {
+            return isCooperative;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            Object item = queue.poll();
+            if (item == null) {
+                return NO_PROGRESS;
+            }
+            if (item == DONE_ITEM) {
+                return DONE;
+            }
+            consumedCount.incrementAndGet();
+            return MADE_PROGRESS;
+        }
+
+        @Override
+        public WakeUpSignal wakeUpSignal() {
+            return wakeUpSignal;
+        }
+    }
+
+    private static class LoadTasklet implements Tasklet {
+
+        volatile boolean heavy;
+        volatile boolean done;
+        volatile Thread lastThread;
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            lastThread = Thread.currentThread();
+            if (done) {
+                return DONE;
+            }
+            if (!heavy) {
+                return NO_PROGRESS;
+            }
+            LockSupport.parkNanos(1_000_000);
+            return MADE_PROGRESS;
+        }
+    }
+
     private static class TaskletAssertingThreadLocal implements Tasklet {
 
         private static ThreadLocal<Integer> threadLocal = ThreadLocal.withInitial(() -> 0);
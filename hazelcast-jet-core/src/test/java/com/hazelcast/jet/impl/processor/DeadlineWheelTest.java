@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class DeadlineWheelTest {
+
+    private final DeadlineWheel wheel = new DeadlineWheel(10);
+
+    @Test
+    public void when_polled_then_onlyDeadlinesBeforeLimitReturned() {
+        // Given
+        wheel.add("a", 5);
+        wheel.add("b", 25);
+        wheel.add("c", 29);
+        wheel.add("d", 30);
+
+        // When
+        List<Object> polled = poll(29);
+
+        // Then
+        assertEquals(asList("a", "b"), polled);
+        assertEquals(2, wheel.size());
+        assertEquals(asList("c", "d"), poll(31));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void when_polled_then_deadlineReported() {
+        // Given
+        wheel.add("a", 12);
+
+        // When
+        wheel.startPolling(20);
+        Object key = wheel.poll();
+
+        // Then
+        assertEquals("a", key);
+        assertEquals(12, wheel.polledDeadline());
+        assertNull(wheel.poll());
+    }
+
+    @Test
+    public void when_deadlinesShareSlot_then_laterOnesKept() {
+        // Given
+        // the buckets 1 and 1025 share a slot
+        wheel.add("a", 15);
+        wheel.add("b", 10_255);
+
+        // When
+        List<Object> polled = poll(100);
+
+        // Then
+        assertEquals(asList("a"), polled);
+        assertEquals(asList("b"), poll(10_256));
+    }
+
+    @Test
+    public void when_limitJumpsOverWholeWheel_then_allDuePolled() {
+        // Given
+        List<Object> expected = new ArrayList<>();
+        for (long deadline = -5_000; deadline < 50_000; deadline += 7) {
+            wheel.add(deadline, deadline);
+            expected.add(deadline);
+        }
+        wheel.add("late", 1_000_000);
+
+        // When
+        List<Object> polled = poll(50_000);
+
+        // Then
+        assertEquals(new HashSet<>(expected), new HashSet<>(polled));
+        assertEquals(expected.size(), polled.size());
+        assertEquals(asList("late"), poll(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void when_addedBelowPreviousLimit_then_polledNextTime() {
+        // Given
+        wheel.add("a", 100);
+        assertEquals(emptyList(), poll(50));
+
+        // When
+        wheel.add("b", 20);
+
+        // Then
+        assertEquals(asList("b"), poll(60));
+        assertEquals(asList("a"), poll(101));
+    }
+
+    @Test
+    public void when_sameKeyAddedTwice_then_polledTwice() {
+        // Given
+        wheel.add("a", 10);
+        wheel.add("a", 40);
+
+        // When
+        List<Object> polled = poll(100);
+
+        // Then
+        assertEquals(asList("a", "a"), polled);
+    }
+
+    private List<Object> poll(long limit) {
+        List<Object> result = new ArrayList<>();
+        wheel.startPolling(limit);
+        for (Object key; (key = wheel.poll()) != null; ) {
+            result.add(key);
+        }
+        return result;
+    }
+}
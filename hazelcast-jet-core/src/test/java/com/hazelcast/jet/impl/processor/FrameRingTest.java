@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.impl.processor.FrameRing.Frame;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class FrameRingTest {
+
+    private final FrameRing<long[]> ring = new FrameRing<>(10, 4);
+
+    @Test
+    public void when_framesAdded_then_traversedInOrder() {
+        // When
+        ring.frameForUpdate(30).computeIfAbsent("a", () -> new long[1]);
+        ring.frameForUpdate(10).computeIfAbsent("b", () -> new long[1]);
+        ring.frameForUpdate(-20).computeIfAbsent("c", () -> new long[1]);
+
+        // Then
+        assertEquals(-20, ring.bottomTs());
+        assertEquals(asList(-20L, 10L, 30L), frameTimestamps());
+        assertNull(ring.get(20));
+    }
+
+    @Test
+    public void when_framesSpanMoreThanCapacity_then_restKeptInOverflow() {
+        // When
+        for (long ts = 0; ts < 1000; ts += 10) {
+            ring.frameForUpdate(ts).computeIfAbsent(ts, () -> new long[] {1});
+        }
+
+        // Then
+        // the ring has 16 slots
+        assertEquals(100 - 16, ring.overflowSize());
+        for (long ts = 0; ts < 1000; ts += 10) {
+            Frame<long[]> frame = ring.get(ts);
+            assertEquals(1, frame.size());
+            assertEquals(1, frame.get(ts)[0]);
+        }
+        assertEquals(0, ring.bottomTs());
+
+        // When
+        for (long ts = 0; ts < 500; ts += 10) {
+            ring.evict(ts);
+        }
+
+        // Then
+        assertEquals(50 - 16, ring.overflowSize());
+        assertEquals(500, ring.bottomTs());
+        assertEquals(50, frameTimestamps().size());
+    }
+
+    @Test
+    public void when_farFutureOutlierFrame_then_keptInOverflow() {
+        // Given
+        long outlierTs = 10_000_000_000L;
+        for (long ts = 0; ts < 40; ts += 10) {
+            ring.frameForUpdate(ts).computeIfAbsent("a", () -> new long[1]);
+        }
+
+        // When
+        ring.frameForUpdate(outlierTs).computeIfAbsent("b", () -> new long[1]);
+        ring.frameForUpdate(40).computeIfAbsent("a", () -> new long[1]);
+
+        // Then
+        assertEquals(1, ring.overflowSize());
+        assertEquals(0, ring.bottomTs());
+        assertEquals(asList(0L, 10L, 20L, 30L, 40L, outlierTs), frameTimestamps());
+        assertEquals(1, ring.get(outlierTs).size());
+
+        // When
+        for (long ts = 0; ts <= 40; ts += 10) {
+            ring.evict(ts);
+        }
+
+        // Then
+        assertEquals(0, ring.overflowSize());
+        assertEquals(outlierTs, ring.bottomTs());
+
+        // When
+        ring.frameForUpdate(50).computeIfAbsent("a", () -> new long[1]);
+
+        // Then
+        assertEquals(1, ring.overflowSize());
+        assertEquals(50, ring.bottomTs());
+        assertEquals(asList(50L, outlierTs), frameTimestamps());
+
+        // When
+        ring.evict(50);
+        ring.evict(outlierTs);
+
+        // Then
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void when_lowestFrameEvicted_then_bottomTsAdvances() {
+        // Given
+        ring.frameForUpdate(10).computeIfAbsent("a", () -> new long[1]);
+        ring.frameForUpdate(40).computeIfAbsent("a", () -> new long[1]);
+
+        // When
+        ring.evict(10);
+
+        // Then
+        assertNull(ring.get(10));
+        assertEquals(40, ring.bottomTs());
+
+        // When
+        ring.evict(40);
+
+        // Then
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void when_slotReused_then_frameReused() {
+        // Given
+        Frame<long[]> frame = ring.frameForUpdate(0);
+        frame.computeIfAbsent("a", () -> new long[1]);
+        ring.evict(0);
+
+        // When
+        // the ring has 16 slots, so the frame 160 takes the slot of the frame 0
+        Frame<long[]> reused = ring.frameForUpdate(160);
+
+        // Then
+        assertSame(frame, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(160, reused.frameTs);
+    }
+
+    @Test
+    public void when_manyKeysInFrame_then_allRetained() {
+        // Given
+        Frame<long[]> frame = ring.frameForUpdate(0);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            frame.computeIfAbsent(i, () -> new long[1])[0] += i;
+            assertFalse(frame.putIfAbsent(i, new long[1]));
+        }
+
+        // Then
+        assertEquals(1000, frame.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, frame.get(i)[0]);
+        }
+        assertNull(frame.get(1000));
+    }
+
+    @Test
+    public void when_traversed_then_mapFnAppliedToAllKeys() {
+        // Given
+        Frame<long[]> frame = ring.frameForUpdate(0);
+        frame.computeIfAbsent("a", () -> new long[] {1});
+        frame.computeIfAbsent("b", () -> new long[] {2});
+
+        // When
+        Traverser<String> traverser = frame.traverse((key, acc) -> key + "=" + acc[0]);
+
+        // Then
+        List<String> result = new ArrayList<>();
+        for (String s; (s = traverser.next()) != null; ) {
+            result.add(s);
+        }
+        result.sort(null);
+        assertEquals(asList("a=1", "b=2"), result);
+    }
+
+    @Test
+    public void when_mostlyEmptyFrameCleared_then_shrinks() {
+        // Given
+        Frame<long[]> frame = ring.frameForUpdate(0);
+        for (int i = 0; i < 1000; i++) {
+            frame.computeIfAbsent(i, () -> new long[1]);
+        }
+        frame.clear();
+        int grownCapacity = frame.capacity();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            frame.computeIfAbsent(i, () -> new long[1]);
+        }
+        frame.clear();
+
+        // Then
+        assertTrue("capacity=" + frame.capacity(), frame.capacity() < grownCapacity);
+        for (int i = 0; i < 100; i++) {
+            frame.computeIfAbsent(i, () -> new long[1]);
+        }
+        assertEquals(100, frame.size());
+    }
+
+    private List<Long> frameTimestamps() {
+        List<Long> result = new ArrayList<>();
+        Traverser<Frame<long[]>> frames = ring.frames();
+        for (Frame<long[]> frame; (frame = frames.next()) != null; ) {
+            result.add(frame.frameTs);
+        }
+        return result;
+    }
+}
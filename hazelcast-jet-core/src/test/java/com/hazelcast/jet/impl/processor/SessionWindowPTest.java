@@ -67,7 +67,7 @@ public class SessionWindowPTest {
     public void after() {
         // Check against memory leaks
         assertTrue("keyToWindows not empty", lastSuppliedProcessor.keyToWindows.isEmpty());
-        assertTrue("deadlineToKeys not empty", lastSuppliedProcessor.deadlineToKeys.isEmpty());
+        assertTrue("deadlineWheel not empty", lastSuppliedProcessor.deadlineWheel.isEmpty());
     }
 
     @Test
@@ -24,6 +24,7 @@ import com.hazelcast.jet.core.TimestampKind;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.datamodel.TimestampedEntry;
+import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.test.HazelcastParametersRunnerFactory;
 import com.hazelcast.test.annotation.ParallelTest;
@@ -73,6 +74,7 @@ public class SlidingWindowPTest {
     public boolean singleStageProcessor;
 
     private DistributedSupplier<Processor> supplier;
+    private DistributedSupplier<Processor> changedKeysSupplier;
     private SlidingWindowP<?, ?, Long> lastSuppliedProcessor;
 
     @Parameters(name = "hasDeduct={0}, singleStageProcessor={1}")
@@ -89,12 +91,7 @@ public class SlidingWindowPTest {
     public void before() {
         WindowDefinition windowDef = slidingWindowDef(4, 1);
 
-        AggregateOperation1<Entry<?, Long>, LongAccumulator, Long> operation = AggregateOperation
-                .withCreate(LongAccumulator::new)
-                .andAccumulate((LongAccumulator acc, Entry<?, Long> item) -> acc.addExact(item.getValue()))
-                .andCombine(LongAccumulator::addExact)
-                .andDeduct(hasDeduct ? LongAccumulator::subtractExact : null)
-                .andFinish(LongAccumulator::get);
+        AggregateOperation1<Entry<?, Long>, LongAccumulator, Long> operation = summingOperation(LongAccumulator::get);
 
         DistributedSupplier<Processor> procSupplier = singleStageProcessor
                 ? aggregateToSlidingWindowP(
@@ -105,16 +102,25 @@ public class SlidingWindowPTest {
                             operation)
                 : combineToSlidingWindowP(windowDef, operation);
 
+        DistributedSupplier<Processor> changedKeysProcSupplier = changedKeysProcSupplier(operation);
+
         // new supplier to save the last supplied instance
         supplier = () -> lastSuppliedProcessor = (SlidingWindowP<?, ?, Long>) procSupplier.get();
+        changedKeysSupplier = () -> lastSuppliedProcessor = (SlidingWindowP<?, ?, Long>) changedKeysProcSupplier.get();
     }
 
     @After
     public void after() {
+        if (lastSuppliedProcessor == null) {
+            // the test didn't create a processor
+            return;
+        }
         assertTrue("tsToKeyToFrame is not empty: " + lastSuppliedProcessor.tsToKeyToAcc,
                 lastSuppliedProcessor.tsToKeyToAcc.isEmpty());
         assertTrue("slidingWindow is not empty: " + lastSuppliedProcessor.slidingWindow,
                 lastSuppliedProcessor.slidingWindow == null || lastSuppliedProcessor.slidingWindow.isEmpty());
+        assertTrue("twoStacksWindow is not empty: " + lastSuppliedProcessor.twoStacksWindow,
+                lastSuppliedProcessor.twoStacksWindow == null || lastSuppliedProcessor.twoStacksWindow.isEmpty());
     }
 
     @Test
@@ -303,6 +309,79 @@ public class SlidingWindowPTest {
                 ));
     }
 
+    @Test
+    public void when_changedKeysOnly_then_unchangedWindowsNotEmitted() {
+        verifyProcessor(changedKeysSupplier)
+                .disableCompleteCall()
+                // after a restore the processor emits all keys of the first window
+                .disableSnapshots()
+                .input(asList(
+                        event(0, 1),
+                        event(2, 1),
+                        wm(5)))
+                .expectOutput(asList(
+                        outboxFrame(0, 1),
+                        outboxFrame(2, 2),
+                        // frame 0 left the window
+                        outboxFrame(4, 1),
+                        wm(5)
+                ));
+    }
+
+    @Test
+    public void when_changedKeysOnlyAndKeyLeavesWindow_then_emptyResultEmitted() {
+        verifyProcessor(changedKeysSupplier)
+                .disableCompleteCall()
+                .disableSnapshots()
+                .input(asList(
+                        event(0, 1),
+                        wm(5)))
+                .expectOutput(asList(
+                        outboxFrame(0, 1),
+                        outboxFrame(4, 0),
+                        wm(5)
+                ));
+    }
+
+    @Test
+    public void when_changedKeysOnlyAndEmptyResultNull_then_fail() {
+        // Given
+        DistributedSupplier<Processor> procSupplier =
+                changedKeysProcSupplier(summingOperation(acc -> acc.get() == 0 ? null : acc.get()));
+
+        // Then
+        exception.expect(IllegalArgumentException.class);
+
+        // When
+        procSupplier.get();
+    }
+
+    private AggregateOperation1<Entry<?, Long>, LongAccumulator, Long> summingOperation(
+            DistributedFunction<LongAccumulator, Long> finishFn
+    ) {
+        return AggregateOperation
+                .withCreate(LongAccumulator::new)
+                .andAccumulate((LongAccumulator acc, Entry<?, Long> item) -> acc.addExact(item.getValue()))
+                .andCombine(LongAccumulator::addExact)
+                .andDeduct(hasDeduct ? LongAccumulator::subtractExact : null)
+                .andFinish(finishFn);
+    }
+
+    private DistributedSupplier<Processor> changedKeysProcSupplier(
+            AggregateOperation1<Entry<?, Long>, LongAccumulator, Long> operation
+    ) {
+        WindowDefinition windowDef = slidingWindowDef(4, 1);
+        return singleStageProcessor
+                ? aggregateToSlidingWindowP(
+                            t -> KEY,
+                            Entry<Long, Long>::getKey,
+                            TimestampKind.EVENT,
+                            windowDef,
+                            operation,
+                            true)
+                : combineToSlidingWindowP(windowDef, operation, true);
+    }
+
     private Entry<Long, ?> event(long frameTs, long value) {
         return singleStageProcessor
                 // frameTs is higher than any event timestamp in that frame;
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class SpillingKeyedStoreTest {
+
+    private File file;
+    private SpillingKeyedStore<String, long[]> store;
+
+    @Before
+    public void before() throws IOException {
+        file = File.createTempFile("jet-spill-test", ".bin");
+        store = new SpillingKeyedStore<>(2, file, new DefaultSerializationServiceBuilder().build());
+    }
+
+    @After
+    public void after() {
+        store.dispose();
+        assertFalse("spill file not deleted", file.exists());
+    }
+
+    @Test
+    public void when_moreKeysThanThreshold_then_leastRecentlyUsedSpilled() {
+        // When
+        store.computeIfAbsent("a", () -> new long[1])[0] = 1;
+        store.computeIfAbsent("b", () -> new long[1])[0] = 2;
+        store.computeIfAbsent("a", () -> new long[1])[0] += 10;
+        store.computeIfAbsent("c", () -> new long[1])[0] = 3;
+
+        // Then
+        assertEquals(2, store.heapKeyCount());
+        assertEquals(1, store.spilledKeyCount());
+        assertEquals(toMap("a", 11, "b", 2, "c", 3), entriesToMap(store.entries()));
+    }
+
+    @Test
+    public void when_spilledKeyAccessed_then_accumulatorLoaded() {
+        // Given
+        store.computeIfAbsent("a", () -> new long[1])[0] = 1;
+        store.computeIfAbsent("b", () -> new long[1])[0] = 2;
+        store.computeIfAbsent("c", () -> new long[1])[0] = 3;
+
+        // When
+        long[] acc = store.computeIfAbsent("a", () -> new long[] {-1});
+
+        // Then
+        assertArrayEquals(new long[] {1}, acc);
+        acc[0]++;
+        assertEquals(toMap("a", 2, "b", 2, "c", 3), entriesToMap(store.entries()));
+    }
+
+    @Test
+    public void when_spilledMoreThanPage_then_allEntriesReadBack() {
+        // Given
+        Map<String, Long> expected = new HashMap<>();
+        int keyCount = 20_000;
+
+        // When
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < keyCount; i++) {
+                String key = "key-" + i;
+                store.computeIfAbsent(key, () -> new long[1])[0] += i;
+                expected.merge(key, (long) i, Long::sum);
+            }
+        }
+
+        // Then
+        assertEquals(keyCount - 2, store.spilledKeyCount());
+        assertEquals(expected, entriesToMap(store.entries()));
+    }
+
+    private static Map<String, Long> entriesToMap(Traverser<Entry<String, long[]>> traverser) {
+        Map<String, Long> result = new HashMap<>();
+        for (Entry<String, long[]> e; (e = traverser.next()) != null; ) {
+            assertNull("duplicate key " + e.getKey(), result.put(e.getKey(), e.getValue()[0]));
+        }
+        return result;
+    }
+
+    private static Map<String, Long> toMap(Object... keysAndValues) {
+        Map<String, Long> result = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            result.put((String) keysAndValues[i], ((Integer) keysAndValues[i + 1]).longValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class TwoStacksWindowTest {
+
+    // combining lists is not commutative, so the results also check the order of frames
+    private final TwoStacksWindow<List<Integer>> window = new TwoStacksWindow<>(ArrayList::new, List::addAll);
+
+    @Test
+    public void when_slides_then_resultCombinesFramesInOrder() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            window.add("a", singletonList(i));
+        }
+
+        // Then
+        assertEquals(asList(0, 1, 2), window.result("a"));
+
+        for (int i = 3; i < 10; i++) {
+            // When
+            window.removeOldest("a");
+            window.add("a", singletonList(i));
+
+            // Then
+            assertEquals(asList(i - 2, i - 1, i), window.result("a"));
+        }
+    }
+
+    @Test
+    public void when_allFramesRemoved_then_keyRemoved() {
+        // Given
+        window.add("a", singletonList(1));
+        window.add("b", singletonList(2));
+        window.add("a", singletonList(3));
+
+        // When
+        window.removeOldest("a");
+        window.removeOldest("b");
+
+        // Then
+        assertNull(window.result("b"));
+        assertEquals(singletonList(3), window.result("a"));
+
+        // When
+        window.removeOldest("a");
+
+        // Then
+        assertTrue(window.isEmpty());
+    }
+
+    @Test
+    public void when_resultTaken_then_framesNotModified() {
+        // Given
+        List<Integer> frame = new ArrayList<>(singletonList(1));
+        window.add("a", frame);
+
+        // When
+        window.result("a").add(2);
+        window.removeOldest("a");
+
+        // Then
+        assertEquals(singletonList(1), frame);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.jet.impl.util.CpuAffinity.parseCpuList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class CpuAffinityTest {
+
+    @Test
+    public void when_parseCpuList_then_sortedDistinctCpus() {
+        assertArrayEquals(new int[] {3}, parseCpuList("3"));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, parseCpuList("0-3"));
+        assertArrayEquals(new int[] {0, 1, 8, 10, 11}, parseCpuList("10-11, 8,0-1"));
+        assertArrayEquals(new int[] {2, 3, 4}, parseCpuList("2-3,3-4"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_parseEmptyCpuList_then_fails() {
+        parseCpuList("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_parseReversedRange_then_fails() {
+        parseCpuList("3-1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_parseNegativeCpu_then_fails() {
+        parseCpuList("-1");
+    }
+
+    @Test
+    public void when_numaNodeOfCpu_then_nonNegative() {
+        assertTrue(CpuAffinity.numaNode(0) >= 0);
+        // unknown CPUs fall back to node 0
+        assertEquals(0, CpuAffinity.numaNode(Integer.MAX_VALUE));
+    }
+}
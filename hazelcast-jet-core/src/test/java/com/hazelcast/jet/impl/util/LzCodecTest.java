@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class LzCodecTest {
+
+    private final LzCodec codec = new LzCodec();
+
+    @Test
+    public void when_compressibleText_then_severalTimesSmaller() {
+        // Given
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 16_384; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"item\", \"tags\": [\"a\", \"b\"]}\n");
+        }
+        byte[] text = sb.toString().getBytes(UTF_8);
+
+        // When
+        int compressedLength = roundTrip(text);
+
+        // Then
+        assertTrue("compressedLength=" + compressedLength, compressedLength * 4 < text.length);
+    }
+
+    @Test
+    public void when_repeatedByte_then_overlappingMatchDecoded() {
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 7);
+        data[0] = 1;
+        assertTrue(roundTrip(data) < 20);
+    }
+
+    @Test
+    public void when_longLiteralsAndMatches_then_lengthsExtended() {
+        // random bytes give long literal runs, the repetition a long match
+        byte[] chunk = randomBytes(600);
+        byte[] data = new byte[chunk.length * 2];
+        System.arraycopy(chunk, 0, data, 0, chunk.length);
+        System.arraycopy(chunk, 0, data, chunk.length, chunk.length);
+        roundTrip(data);
+    }
+
+    @Test
+    public void when_emptyOrTinyInput_then_roundTrips() {
+        roundTrip(new byte[0]);
+        roundTrip(new byte[] {1, 2, 3});
+        roundTrip(new byte[] {1, 2, 3, 4, 1, 2, 3, 4});
+    }
+
+    @Test
+    public void when_incompressibleAndLimitedOutput_then_minusOne() {
+        byte[] data = randomBytes(4096);
+        assertEquals(-1, codec.compress(data, 0, data.length, new byte[data.length], 0, data.length - 1));
+    }
+
+    @Test
+    public void when_compressWithOffsets_then_onlyRangeCompressed() {
+        byte[] data = "xxxxabcabcabcabcabcabcabcyyyy".getBytes(UTF_8);
+        byte[] dst = new byte[64];
+        int len = codec.compress(data, 4, data.length - 8, dst, 3, dst.length - 3);
+
+        byte[] decompressed = new byte[data.length - 8];
+        LzCodec.decompress(dst, 3, len, decompressed, 0, decompressed.length);
+        assertArrayEquals(Arrays.copyOfRange(data, 4, data.length - 4), decompressed);
+    }
+
+    @Test(expected = JetException.class)
+    public void when_wrongUncompressedLength_then_fails() {
+        byte[] data = "abcabcabcabcabcabc".getBytes(UTF_8);
+        byte[] dst = new byte[64];
+        int len = codec.compress(data, 0, data.length, dst, 0, dst.length);
+        LzCodec.decompress(dst, 0, len, new byte[data.length + 1], 0, data.length + 1);
+    }
+
+    @Test(expected = JetException.class)
+    public void when_truncatedBlock_then_fails() {
+        byte[] data = "abcdefgh-abcdefgh-abcdefgh".getBytes(UTF_8);
+        byte[] dst = new byte[64];
+        int len = codec.compress(data, 0, data.length, dst, 0, dst.length);
+        LzCodec.decompress(dst, 0, len - 1, new byte[data.length], 0, data.length);
+    }
+
+    private int roundTrip(byte[] data) {
+        byte[] compressed = new byte[data.length + data.length / 255 + 16];
+        int len = codec.compress(data, 0, data.length, compressed, 0, compressed.length);
+        assertTrue("compression failed", len >= 0);
+        byte[] decompressed = new byte[data.length];
+        LzCodec.decompress(compressed, 0, len, decompressed, 0, decompressed.length);
+        assertArrayEquals(data, decompressed);
+        return len;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
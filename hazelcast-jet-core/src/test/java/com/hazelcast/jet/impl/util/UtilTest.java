@@ -16,10 +16,15 @@
 
 package com.hazelcast.jet.impl.util;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -27,7 +32,9 @@ import java.util.stream.Stream;
 
 import static com.hazelcast.jet.impl.util.Util.addClamped;
 import static com.hazelcast.jet.impl.util.Util.memoizeConcurrent;
+import static com.hazelcast.jet.impl.util.Util.readVarInt;
 import static com.hazelcast.jet.impl.util.Util.subtractClamped;
+import static com.hazelcast.jet.impl.util.Util.writeVarInt;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -68,6 +75,23 @@ public class UtilTest {
         assertEquals(Long.MIN_VALUE, subtractClamped(Long.MIN_VALUE, Long.MAX_VALUE));
     }
 
+    @Test
+    public void when_writeVarInt_then_readBack() throws IOException {
+        InternalSerializationService serService = new DefaultSerializationServiceBuilder().build();
+        int[] values = {0, 1, 127, 128, 16_383, 16_384, 1 << 21, Integer.MAX_VALUE};
+        BufferObjectDataOutput out = serService.createObjectDataOutput();
+        for (int value : values) {
+            writeVarInt(out, value);
+        }
+        // 1 + 1 + 1 + 2 + 2 + 3 + 4 + 5 bytes
+        assertEquals(19, out.position());
+
+        BufferObjectDataInput in = serService.createObjectDataInput(out.toByteArray());
+        for (int value : values) {
+            assertEquals(value, readVarInt(in));
+        }
+    }
+
     @Test
     public void when_memoizeConcurrent_then_threadSafe() {
         final Object obj = new Object();